@@ -0,0 +1,113 @@
+package ec.edu.istq.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * FILTRO DE BLOOM PARA TEXTOS
+ * Responde "definitivamente no está" o "posiblemente está" usando un arreglo de bits.
+ * Nunca da falsos negativos; la tasa de falsos positivos depende del tamaño
+ * y de cuántos elementos se agregaron.
+ *
+ * Thread-safe y sin locks: los bits se activan con operaciones atómicas.
+ * No admite eliminar elementos (se reconstruye periódicamente).
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long totalBits;
+    private final int hashes;
+    private final long capacidad;
+    private final LongAdder elementos = new LongAdder();
+
+    /**
+     * @param capacidad Elementos esperados
+     * @param tasaFalsosPositivos Tasa deseada con esa cantidad de elementos (ej: 0.01)
+     */
+    public BloomFilter(long capacidad, double tasaFalsosPositivos) {
+        long m = (long) Math.ceil(-capacidad * Math.log(tasaFalsosPositivos) / (Math.log(2) * Math.log(2)));
+        this.totalBits = Math.max(64, (m + 63) / 64 * 64);
+        this.hashes = Math.max(1, (int) Math.round((double) totalBits / capacidad * Math.log(2)));
+        this.bits = new AtomicLongArray((int) (totalBits / 64));
+        this.capacidad = capacidad;
+    }
+
+    /**
+     * Agrega un texto al filtro.
+     * Solo cuenta como elemento si activa algún bit (repetir un texto no infla getElementos()).
+     */
+    public void agregar(String valor) {
+        long hash = hash64(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        boolean nuevo = false;
+        for (int i = 1; i <= hashes; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, totalBits);
+            long mascara = 1L << (bit & 63);
+            int palabra = (int) (bit >>> 6);
+            long actual = bits.get(palabra);
+            if ((actual & mascara) == 0
+                    && (bits.getAndAccumulate(palabra, mascara, (a, b) -> a | b) & mascara) == 0) {
+                nuevo = true;
+            }
+        }
+        // Agregar de nuevo un texto no cambia ningún bit y no se cuenta
+        if (nuevo) {
+            elementos.increment();
+        }
+    }
+
+    /**
+     * @return false si el texto definitivamente no fue agregado; true si posiblemente sí
+     */
+    public boolean podriaContener(String valor) {
+        long hash = hash64(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashes; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, totalBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tasa de falsos positivos esperada con los elementos actuales: (1 - e^(-k·n/m))^k
+     */
+    public double tasaFalsosPositivosEstimada() {
+        return Math.pow(1 - Math.exp(-(double) hashes * elementos.sum() / totalBits), hashes);
+    }
+
+    public long getElementos() {
+        return elementos.sum();
+    }
+
+    public long getCapacidad() {
+        return capacidad;
+    }
+
+    public long getTotalBits() {
+        return totalBits;
+    }
+
+    public int getHashes() {
+        return hashes;
+    }
+
+    /**
+     * Hash de 64 bits (FNV-1a con mezcla final) de los caracteres del texto
+     */
+    private static long hash64(String valor) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
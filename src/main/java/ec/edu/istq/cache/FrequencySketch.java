@@ -0,0 +1,82 @@
+package ec.edu.istq.cache;
+
+/**
+ * ESTIMADOR DE FRECUENCIA (COUNT-MIN SKETCH)
+ * Cuenta aproximadamente cuántas veces se pidió cada clave usando memoria fija:
+ * 4 filas de contadores saturados en 15 (un byte por contador). Cada cierto número de incrementos
+ * todos los contadores se dividen a la mitad para que la historia antigua pierda peso.
+ *
+ * No es thread-safe: se usa siempre bajo el lock del segmento de LfuCache que lo contiene.
+ */
+class FrequencySketch {
+
+    private static final int FILAS = 4;
+    private static final int MAXIMO = 15;
+
+    // Semillas para derivar un índice distinto por fila a partir del hash de la clave
+    private static final int[] SEMILLAS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final byte[][] contadores;
+    private final int mascara;
+    private final int periodoEnvejecimiento;
+    private int incrementos = 0;
+
+    /**
+     * @param capacidad Cantidad de elementos del caché (define el ancho de cada fila)
+     */
+    FrequencySketch(int capacidad) {
+        int ancho = Integer.highestOneBit(Math.max(16, capacidad) - 1) << 1;
+        this.contadores = new byte[FILAS][ancho];
+        this.mascara = ancho - 1;
+        this.periodoEnvejecimiento = 10 * Math.max(16, capacidad);
+    }
+
+    /**
+     * Registra un acceso a la clave
+     */
+    void incrementar(Object clave) {
+        int hash = mezclar(clave.hashCode());
+        for (int fila = 0; fila < FILAS; fila++) {
+            int i = indice(hash, fila);
+            if (contadores[fila][i] < MAXIMO) {
+                contadores[fila][i]++;
+            }
+        }
+        if (++incrementos >= periodoEnvejecimiento) {
+            envejecer();
+        }
+    }
+
+    /**
+     * Frecuencia estimada de la clave (mínimo entre las filas)
+     */
+    int frecuencia(Object clave) {
+        int hash = mezclar(clave.hashCode());
+        int minimo = MAXIMO;
+        for (int fila = 0; fila < FILAS; fila++) {
+            minimo = Math.min(minimo, contadores[fila][indice(hash, fila)]);
+        }
+        return minimo;
+    }
+
+    private void envejecer() {
+        for (byte[] fila : contadores) {
+            for (int i = 0; i < fila.length; i++) {
+                fila[i] = (byte) (fila[i] >>> 1);
+            }
+        }
+        incrementos = 0;
+    }
+
+    private int indice(int hash, int fila) {
+        int h = (hash ^ SEMILLAS[fila]) * SEMILLAS[(fila + 1) % FILAS];
+        return (h ^ (h >>> 16)) & mascara;
+    }
+
+    private static int mezclar(int h) {
+        h ^= h >>> 16;
+        h *= 0x7FEB352D;
+        h ^= h >>> 15;
+        return h;
+    }
+}
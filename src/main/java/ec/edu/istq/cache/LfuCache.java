@@ -0,0 +1,257 @@
+package ec.edu.istq.cache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * CACHÉ ACOTADO CON ADMISIÓN POR FRECUENCIA (TinyLFU) Y EXPIRACIÓN (TTL)
+ * Los elementos se guardan en orden de acceso (LRU). Cuando el caché está lleno,
+ * un elemento nuevo solo entra si se ha pedido más veces que la víctima LRU
+ * (según FrequencySketch); así un recorrido de claves únicas no desplaza a las frecuentes.
+ *
+ * El caché se divide en segmentos según el hash de la clave (hasta SEGMENTOS_MAXIMOS, con al menos
+ * CAPACIDAD_MINIMA_SEGMENTO elementos cada uno). Cada segmento tiene su propio lock, su LRU, su sketch
+ * y su marca de invalidaciones, así que lecturas de claves distintas no compiten por un único lock.
+ * La política LRU/TinyLFU se aplica dentro de cada segmento.
+ *
+ * Para evitar guardar datos viejos, cada invalidación incrementa la marca de su segmento;
+ * put() recibe las marcas leídas antes de consultar la base de datos (marcas()) y descarta
+ * el valor solo si hubo invalidaciones en el segmento de esa clave.
+ *
+ * Thread-safe (ReentrantLock por segmento, apto para hilos virtuales).
+ */
+public class LfuCache<K, V> {
+
+    private static final int SEGMENTOS_MAXIMOS = 16;
+    private static final int CAPACIDAD_MINIMA_SEGMENTO = 64;
+
+    private final String nombre;
+    private final int capacidad;
+    private final long ttlNanos;
+
+    private final Segmento<K, V>[] segmentos;
+    private final int bitsSegmento;
+
+    // Estadísticas
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder evicciones = new LongAdder();
+    private final LongAdder expiraciones = new LongAdder();
+    private final LongAdder rechazosAdmision = new LongAdder();
+    private final LongAdder invalidaciones = new LongAdder();
+
+    /**
+     * @param nombre Nombre para las métricas
+     * @param capacidad Cantidad máxima de elementos (al menos 1)
+     * @param ttlSegundos Tiempo de vida de cada elemento (0 = sin expiración)
+     */
+    @SuppressWarnings("unchecked")
+    public LfuCache(String nombre, int capacidad, long ttlSegundos) {
+        if (capacidad < 1) {
+            throw new IllegalArgumentException("La capacidad del caché " + nombre + " debe ser al menos 1");
+        }
+        this.nombre = nombre;
+        this.capacidad = capacidad;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSegundos);
+
+        int cantidad = Integer.highestOneBit(
+                Math.max(1, Math.min(SEGMENTOS_MAXIMOS, capacidad / CAPACIDAD_MINIMA_SEGMENTO)));
+        this.bitsSegmento = Integer.numberOfTrailingZeros(cantidad);
+        this.segmentos = new Segmento[cantidad];
+        // El resto de la división se reparte entre los primeros segmentos: la suma es exactamente 'capacidad'
+        for (int i = 0; i < cantidad; i++) {
+            segmentos[i] = new Segmento<>(capacidad / cantidad + (i < capacidad % cantidad ? 1 : 0));
+        }
+    }
+
+    /**
+     * OBTIENE UN VALOR DEL CACHÉ
+     * @return Valor guardado o null si no existe o expiró
+     */
+    public V get(K clave) {
+        Segmento<K, V> segmento = segmento(clave);
+        segmento.lock.lock();
+        try {
+            segmento.sketch.incrementar(clave);
+            Entrada<V> entrada = segmento.entradas.get(clave);
+            if (entrada == null) {
+                fallos.increment();
+                return null;
+            }
+            if (ttlNanos > 0 && System.nanoTime() - entrada.creadaEn > ttlNanos) {
+                segmento.entradas.remove(clave);
+                expiraciones.increment();
+                fallos.increment();
+                return null;
+            }
+            aciertos.increment();
+            return entrada.valor;
+        } finally {
+            segmento.lock.unlock();
+        }
+    }
+
+    /**
+     * Marcas de invalidación de cada segmento; leerlas antes de consultar la base de datos
+     */
+    public long[] marcas() {
+        long[] marcas = new long[segmentos.length];
+        for (int i = 0; i < segmentos.length; i++) {
+            marcas[i] = segmentos[i].marca;
+        }
+        return marcas;
+    }
+
+    /**
+     * GUARDA UN VALOR SI NO HUBO INVALIDACIONES EN SU SEGMENTO DESDE 'marcasLeidas'
+     * @param clave Clave
+     * @param valor Valor leído de la base de datos
+     * @param marcasLeidas Valor de marcas() antes de la lectura
+     */
+    public void put(K clave, V valor, long[] marcasLeidas) {
+        int indice = indice(clave);
+        Segmento<K, V> segmento = segmentos[indice];
+        segmento.lock.lock();
+        try {
+            if (marcasLeidas[indice] != segmento.marca) {
+                return;
+            }
+
+            Entrada<V> nueva = new Entrada<>(valor, System.nanoTime());
+            if (segmento.entradas.containsKey(clave)) {
+                segmento.entradas.put(clave, nueva);
+                return;
+            }
+
+            if (segmento.entradas.size() >= segmento.capacidad) {
+                Iterator<Map.Entry<K, Entrada<V>>> lru = segmento.entradas.entrySet().iterator();
+                Map.Entry<K, Entrada<V>> victima = lru.next();
+
+                // Admisión TinyLFU: el candidato debe ser más frecuente que la víctima
+                if (segmento.sketch.frecuencia(clave) <= segmento.sketch.frecuencia(victima.getKey())) {
+                    rechazosAdmision.increment();
+                    return;
+                }
+                lru.remove();
+                evicciones.increment();
+            }
+            segmento.entradas.put(clave, nueva);
+        } finally {
+            segmento.lock.unlock();
+        }
+    }
+
+    /**
+     * Quita una clave e invalida las lecturas en curso de su segmento
+     */
+    public void invalidar(K clave) {
+        Segmento<K, V> segmento = segmento(clave);
+        segmento.lock.lock();
+        try {
+            segmento.marca++;
+            segmento.entradas.remove(clave);
+            invalidaciones.increment();
+        } finally {
+            segmento.lock.unlock();
+        }
+    }
+
+    /**
+     * Vacía el caché e invalida todas las lecturas en curso
+     */
+    public void limpiar() {
+        for (Segmento<K, V> segmento : segmentos) {
+            segmento.lock.lock();
+            try {
+                segmento.marca++;
+                segmento.entradas.clear();
+            } finally {
+                segmento.lock.unlock();
+            }
+        }
+        invalidaciones.increment();
+    }
+
+    /**
+     * Estadísticas: tamaño, aciertos, fallos, evicciones, expiraciones, etc.
+     */
+    public Map<String, Object> getEstadisticas() {
+        Map<String, Object> stats = new HashMap<>();
+        int tamanio = 0;
+        for (Segmento<K, V> segmento : segmentos) {
+            segmento.lock.lock();
+            try {
+                tamanio += segmento.entradas.size();
+            } finally {
+                segmento.lock.unlock();
+            }
+        }
+        long totalAciertos = aciertos.sum();
+        long totalConsultas = totalAciertos + fallos.sum();
+
+        stats.put("nombre", nombre);
+        stats.put("tamanio", tamanio);
+        stats.put("capacidad", capacidad);
+        stats.put("segmentos", segmentos.length);
+        stats.put("aciertos", totalAciertos);
+        stats.put("fallos", fallos.sum());
+        stats.put("tasaAciertos", totalConsultas > 0 ? totalAciertos * 100.0 / totalConsultas : 0.0);
+        stats.put("evicciones", evicciones.sum());
+        stats.put("expiraciones", expiraciones.sum());
+        stats.put("rechazosAdmision", rechazosAdmision.sum());
+        stats.put("invalidaciones", invalidaciones.sum());
+        return stats;
+    }
+
+    private Segmento<K, V> segmento(K clave) {
+        return segmentos[indice(clave)];
+    }
+
+    /**
+     * Segmento de la clave: bits altos de su hash mezclado
+     * (los bajos ya los usan el HashMap interno y el sketch)
+     */
+    private int indice(K clave) {
+        if (bitsSegmento == 0) {
+            return 0;
+        }
+        return (clave.hashCode() * 0x9E3779B9) >>> (32 - bitsSegmento);
+    }
+
+    /**
+     * Parte del caché con su propio lock, orden LRU, sketch y marca de invalidaciones
+     */
+    private static final class Segmento<K, V> {
+        private final int capacidad;
+        private final LinkedHashMap<K, Entrada<V>> entradas;
+        private final FrequencySketch sketch;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        // Se modifica bajo el lock; volatile para que marcas() la lea sin tomarlo
+        private volatile long marca = 0;
+
+        Segmento(int capacidad) {
+            this.capacidad = capacidad;
+            this.entradas = new LinkedHashMap<>(Math.max(16, capacidad * 4 / 3 + 1), 0.75f, true);
+            this.sketch = new FrequencySketch(capacidad);
+        }
+    }
+
+    /**
+     * Elemento guardado con su momento de creación (para TTL)
+     */
+    private static final class Entrada<V> {
+        private final V valor;
+        private final long creadaEn;
+
+        Entrada(V valor, long creadaEn) {
+            this.valor = valor;
+            this.creadaEn = creadaEn;
+        }
+    }
+}
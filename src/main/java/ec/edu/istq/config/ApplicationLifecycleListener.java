@@ -0,0 +1,64 @@
+package ec.edu.istq.config;
+
+import ec.edu.istq.dao.EsquemaBusqueda;
+import ec.edu.istq.dao.EsquemaVersion;
+import ec.edu.istq.dao.EstudianteDAOFactory;
+import ec.edu.istq.metrics.MetricsCollector;
+import ec.edu.istq.resource.EjecucionAsincrona;
+import ec.edu.istq.util.DatabaseConnection;
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.annotation.WebListener;
+
+/**
+ * CICLO DE VIDA DE LA APLICACIÓN
+ * Inicializa los recursos compartidos al desplegar y los libera al replegar.
+ */
+@WebListener
+public class ApplicationLifecycleListener implements ServletContextListener {
+
+    /**
+     * Se ejecuta al desplegar la aplicación en WildFly
+     */
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        // Modo de ejecución de los endpoints (hilos virtuales o bloqueante)
+        MetricsCollector.registrarComponente("ejecucion", EjecucionAsincrona::getEstadisticas);
+
+        // Pre-calentar el pool de conexiones (principal y réplicas de lectura)
+        DatabaseConnection.iniciarPool();
+        MetricsCollector.registrarComponente("databasePool", DatabaseConnection::getPoolStats);
+        if (DatabaseConnection.hayReplicas()) {
+            MetricsCollector.registrarComponente("replicas", DatabaseConnection::getReplicasStats);
+        }
+
+        // Índice para la versión de la colección (ETag de los listados), en segundo plano
+        EsquemaVersion.inicializar();
+
+        // Extensiones, funciones e índice de la búsqueda indexada (en segundo plano)
+        EsquemaBusqueda.inicializar();
+
+        // Índice de búsqueda y filtro de cédulas en memoria (se construyen en segundo plano)
+        EstudianteDAOFactory.iniciar();
+        MetricsCollector.registrarComponente("indiceBusqueda", EstudianteDAOFactory::getEstadisticasIndice);
+        MetricsCollector.registrarComponente("cache", EstudianteDAOFactory::getEstadisticasCache);
+        MetricsCollector.registrarComponente("filtroCedulas", EstudianteDAOFactory::getEstadisticasFiltroCedulas);
+        if (EstudianteDAOFactory.isEscrituraDiferida()) {
+            MetricsCollector.registrarComponente("escrituraDiferida",
+                    EstudianteDAOFactory::getEstadisticasEscrituraDiferida);
+        }
+        if (EstudianteDAOFactory.isAdmision()) {
+            MetricsCollector.registrarComponente("admision", EstudianteDAOFactory::getEstadisticasAdmision);
+        }
+    }
+
+    /**
+     * Se ejecuta al replegar o detener la aplicación
+     */
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        EjecucionAsincrona.detener();
+        EstudianteDAOFactory.detener();
+        DatabaseConnection.cerrarPool();
+    }
+}
@@ -0,0 +1,15 @@
+package ec.edu.istq.dao;
+
+import java.sql.SQLException;
+
+/**
+ * EXCEPCIÓN DE CÉDULA DUPLICADA
+ * Se lanza cuando una escritura viola la restricción única de la cédula (SQLState 23505).
+ * Permite distinguir un conflicto de datos (409) de un error de la base de datos (500).
+ */
+public class CedulaDuplicadaException extends SQLException {
+
+    public CedulaDuplicadaException(String cedula, SQLException causa) {
+        super("Ya existe otro estudiante con la cédula " + cedula, causa.getSQLState(), causa.getErrorCode(), causa);
+    }
+}
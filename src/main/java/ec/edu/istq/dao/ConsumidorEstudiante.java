@@ -0,0 +1,21 @@
+package ec.edu.istq.dao;
+
+import ec.edu.istq.model.Estudiante;
+
+import java.io.IOException;
+
+/**
+ * CONSUMIDOR DE ESTUDIANTES FILA POR FILA
+ * Lo usan las consultas en modo streaming: el DAO entrega cada estudiante
+ * apenas lo lee del cursor, sin acumular la lista completa en memoria.
+ */
+@FunctionalInterface
+public interface ConsumidorEstudiante {
+
+    /**
+     * Procesa un estudiante leído de la base de datos
+     * @param estudiante Estudiante de la fila actual
+     * @throws IOException Error al escribir la salida (ej: el cliente cerró la conexión)
+     */
+    void aceptar(Estudiante estudiante) throws IOException;
+}
@@ -0,0 +1,125 @@
+package ec.edu.istq.dao;
+
+import ec.edu.istq.util.Configuracion;
+import ec.edu.istq.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * ESQUEMA DE BÚSQUEDA INDEXADA
+ * Crea al iniciar la aplicación lo necesario para buscar estudiantes por índice:
+ *   - Extensiones pg_trgm (trigramas) y unaccent (quitar tildes)
+ *   - Función estudiantes_normalizar: minúsculas y sin tildes (IMMUTABLE, indexable)
+ *   - Función estudiantes_documento: los cinco campos buscables en un solo texto
+ *   - Índice GIN de trigramas sobre ese documento
+ *
+ * Todo se ejecuta en un hilo aparte: CREATE INDEX CONCURRENTLY puede tardar minutos en tablas grandes
+ * y espera a las transacciones abiertas, así que no debe bloquear el despliegue.
+ * Mientras tanto, y si algo falla (ej: sin permisos para crear extensiones),
+ * la búsqueda funciona en modo básico (ILIKE sin índice).
+ *
+ * Un CREATE INDEX CONCURRENTLY interrumpido deja el índice marcado como inválido (pg_index.indisvalid)
+ * y IF NOT EXISTS no lo reconstruye: en ese caso se elimina y se vuelve a crear.
+ * La búsqueda indexada solo se habilita cuando el índice es válido.
+ */
+public class EsquemaBusqueda {
+
+    private static final String NOMBRE_INDICE = "idx_estudiantes_busqueda_trgm";
+
+    private static final String[] SQL_FUNCIONES = {
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            "CREATE EXTENSION IF NOT EXISTS unaccent",
+            "CREATE OR REPLACE FUNCTION estudiantes_normalizar(texto text) RETURNS text " +
+                    "LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT AS " +
+                    "$$ SELECT lower(public.unaccent('public.unaccent'::regdictionary, texto)) $$",
+            "CREATE OR REPLACE FUNCTION estudiantes_documento(nombres text, apellidos text, cedula text, " +
+                    "email text, carrera text) RETURNS text LANGUAGE sql IMMUTABLE PARALLEL SAFE AS " +
+                    "$$ SELECT estudiantes_normalizar(coalesce(nombres, '') || ' ' || coalesce(apellidos, '') " +
+                    "|| ' ' || coalesce(cedula, '') || ' ' || coalesce(email, '') || ' ' || coalesce(carrera, '')) $$"
+    };
+
+    // Sin filas = el índice no existe; false = quedó inválido (construcción interrumpida)
+    private static final String SQL_INDICE_VALIDO =
+            "SELECT indisvalid FROM pg_index WHERE indexrelid = to_regclass('" + NOMBRE_INDICE + "')";
+
+    private static final String SQL_ELIMINAR_INDICE = "DROP INDEX CONCURRENTLY IF EXISTS " + NOMBRE_INDICE;
+
+    // CONCURRENTLY: no bloquea escrituras mientras se construye en tablas grandes
+    private static final String SQL_CREAR_INDICE =
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS " + NOMBRE_INDICE + " ON estudiantes USING gin " +
+                    "(estudiantes_documento(nombres, apellidos, cedula, email, carrera) gin_trgm_ops)";
+
+    // true si el índice está listo y buscar() puede usarlo
+    private static volatile boolean indexada = false;
+
+    private EsquemaBusqueda() {
+    }
+
+    /**
+     * CREA (SI NO EXISTEN) LAS FUNCIONES E ÍNDICES DE BÚSQUEDA
+     * Se llama al desplegar y vuelve de inmediato; el trabajo se hace en segundo plano.
+     * Con estudiantes.busqueda.modo=basica se omite.
+     */
+    public static void inicializar() {
+        indexada = false;
+        if ("basica".equalsIgnoreCase(Configuracion.texto("estudiantes.busqueda.modo", "indexada"))) {
+            System.out.println("🔎 Búsqueda en modo básico (configurado)");
+            return;
+        }
+
+        Thread hilo = new Thread(EsquemaBusqueda::preparar, "esquema-busqueda");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    private static void preparar() {
+        long inicio = System.currentTimeMillis();
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            for (String sql : SQL_FUNCIONES) {
+                stmt.execute(sql);
+            }
+
+            Boolean valido = indiceValido(stmt);
+            if (Boolean.FALSE.equals(valido)) {
+                System.err.println("⚠️ Índice de búsqueda inválido (construcción interrumpida), se reconstruye");
+                stmt.execute(SQL_ELIMINAR_INDICE);
+            }
+            if (!Boolean.TRUE.equals(valido)) {
+                System.out.println("🔎 Construyendo índice de búsqueda en segundo plano...");
+                stmt.execute(SQL_CREAR_INDICE);
+                valido = indiceValido(stmt);
+            }
+
+            indexada = Boolean.TRUE.equals(valido);
+            if (indexada) {
+                System.out.println("✅ Búsqueda indexada lista (pg_trgm + unaccent) en "
+                        + (System.currentTimeMillis() - inicio) + "ms");
+            } else {
+                System.err.println("⚠️ El índice de búsqueda no quedó válido, se usa modo básico");
+            }
+        } catch (SQLException e) {
+            indexada = false;
+            System.err.println("⚠️ No se pudo preparar la búsqueda indexada, se usa modo básico: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return true si el índice existe y es válido, false si existe pero es inválido, null si no existe
+     */
+    private static Boolean indiceValido(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(SQL_INDICE_VALIDO)) {
+            return rs.next() ? rs.getBoolean(1) : null;
+        }
+    }
+
+    /**
+     * Indica si la búsqueda debe usar el índice de trigramas
+     */
+    public static boolean isIndexada() {
+        return indexada;
+    }
+}
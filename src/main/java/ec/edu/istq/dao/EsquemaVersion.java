@@ -0,0 +1,91 @@
+package ec.edu.istq.dao;
+
+import ec.edu.istq.util.Configuracion;
+import ec.edu.istq.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * ÍNDICE PARA LA VERSIÓN DE LA COLECCIÓN
+ * obtenerVersionColeccion() lee COUNT(*) y MAX(COALESCE(fecha_actualizacion, fecha_creacion)).
+ * Sin índice, el MAX recorre toda la tabla; con un índice sobre esa misma expresión
+ * PostgreSQL lo resuelve leyendo una sola entrada (y el COUNT puede ser un index-only scan).
+ *
+ * El índice se crea al iniciar, en un hilo aparte y con CREATE INDEX CONCURRENTLY (no bloquea
+ * escrituras ni el despliegue). No agrega triggers ni tablas: las escrituras no cambian.
+ * Con estudiantes.version.indice.habilitado=false no se toca el esquema (la versión se sigue
+ * calculando, solo que recorriendo la tabla). Un índice inválido (construcción interrumpida)
+ * se elimina y se vuelve a crear, igual que en EsquemaBusqueda.
+ */
+public class EsquemaVersion {
+
+    private static final String NOMBRE_INDICE = "idx_estudiantes_version";
+
+    // Sin filas = el índice no existe; false = quedó inválido (construcción interrumpida)
+    private static final String SQL_INDICE_VALIDO =
+            "SELECT indisvalid FROM pg_index WHERE indexrelid = to_regclass('" + NOMBRE_INDICE + "')";
+
+    private static final String SQL_ELIMINAR_INDICE = "DROP INDEX CONCURRENTLY IF EXISTS " + NOMBRE_INDICE;
+
+    // Misma expresión que SQL_VERSION_COLECCION y SQL_FECHA_ACTUALIZACION de EstudianteDAOImpl
+    private static final String SQL_CREAR_INDICE =
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS " + NOMBRE_INDICE + " ON estudiantes " +
+                    "((COALESCE(fecha_actualizacion, fecha_creacion)))";
+
+    private EsquemaVersion() {
+    }
+
+    /**
+     * CREA (SI NO EXISTE) EL ÍNDICE DE LA VERSIÓN
+     * Se llama al desplegar y vuelve de inmediato; el trabajo se hace en segundo plano.
+     */
+    public static void inicializar() {
+        if (!Configuracion.booleano("estudiantes.version.indice.habilitado", true)) {
+            System.out.println("🏷️ Índice de versión de estudiantes deshabilitado (configurado)");
+            return;
+        }
+
+        Thread hilo = new Thread(EsquemaVersion::preparar, "esquema-version");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    private static void preparar() {
+        long inicio = System.currentTimeMillis();
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+
+            Boolean valido = indiceValido(stmt);
+            if (Boolean.TRUE.equals(valido)) {
+                return;
+            }
+            if (Boolean.FALSE.equals(valido)) {
+                System.err.println("⚠️ Índice de versión inválido (construcción interrumpida), se reconstruye");
+                stmt.execute(SQL_ELIMINAR_INDICE);
+            }
+            System.out.println("🏷️ Creando índice " + NOMBRE_INDICE + " sobre estudiantes en segundo plano...");
+            stmt.execute(SQL_CREAR_INDICE);
+
+            if (Boolean.TRUE.equals(indiceValido(stmt))) {
+                System.out.println("✅ Índice de versión listo en " + (System.currentTimeMillis() - inicio) + "ms");
+            } else {
+                System.err.println("⚠️ El índice de versión no quedó válido, la versión recorre la tabla");
+            }
+        } catch (SQLException e) {
+            System.err.println("⚠️ No se pudo crear el índice de versión, la versión recorre la tabla: "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * @return true si el índice existe y es válido, false si existe pero es inválido, null si no existe
+     */
+    private static Boolean indiceValido(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(SQL_INDICE_VALIDO)) {
+            return rs.next() ? rs.getBoolean(1) : null;
+        }
+    }
+}
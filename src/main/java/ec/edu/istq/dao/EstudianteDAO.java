@@ -1,8 +1,12 @@
 package ec.edu.istq.dao;
 
 import ec.edu.istq.model.Estudiante;
+import java.io.IOException;
+import java.io.InputStream;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.List;
+import java.util.Map;
 
 /**
  * INTERFAZ DAO (Data Access Object) PARA ESTUDIANTE
@@ -17,10 +21,33 @@ public interface EstudianteDAO {
 
     /**
      * Obtiene todos los estudiantes registrados
+     * @param proyeccion Campos a leer (Proyeccion.COMPLETA para todos)
      * @return Lista completa de estudiantes
      * @throws SQLException Error en la base de datos
      */
-    List<Estudiante> obtenerTodos() throws SQLException;
+    List<Estudiante> obtenerTodos(Proyeccion proyeccion) throws SQLException;
+
+    /**
+     * Obtiene una página de estudiantes ordenada por ID descendente (paginación por cursor)
+     * Busca por clave primaria (id < despuesDeId) en lugar de usar OFFSET,
+     * por lo que el costo no depende de la posición de la página.
+     * @param despuesDeId ID del último estudiante de la página anterior (null para la primera)
+     * @param limite Cantidad máxima de estudiantes a devolver
+     * @param proyeccion Campos a leer (Proyeccion.COMPLETA para todos)
+     * @return Lista con hasta 'limite' estudiantes
+     * @throws SQLException Error en la base de datos
+     */
+    List<Estudiante> obtenerPagina(Long despuesDeId, int limite, Proyeccion proyeccion) throws SQLException;
+
+    /**
+     * Recorre todos los estudiantes con un cursor del servidor (modo streaming)
+     * Cada fila se entrega al consumidor apenas se lee; la memoria usada es constante.
+     * @param proyeccion Campos a leer (Proyeccion.COMPLETA para todos)
+     * @param consumidor Recibe cada estudiante en orden de ID descendente
+     * @throws SQLException Error en la base de datos
+     * @throws IOException Error del consumidor al escribir la salida
+     */
+    void recorrerTodos(Proyeccion proyeccion, ConsumidorEstudiante consumidor) throws SQLException, IOException;
 
     /**
      * Obtiene un estudiante por su ID único
@@ -38,30 +65,91 @@ public interface EstudianteDAO {
      */
     Estudiante obtenerPorCedula(String cedula) throws SQLException;
 
+    /**
+     * Obtiene varios estudiantes por ID en una sola consulta (WHERE id = ANY(?))
+     * @param ids IDs a buscar (sin repetidos)
+     * @return Estudiantes encontrados, en cualquier orden; los IDs inexistentes se omiten
+     * @throws SQLException Error en la base de datos
+     */
+    List<Estudiante> obtenerPorIds(List<Long> ids) throws SQLException;
+
+    /**
+     * Obtiene varios estudiantes por cédula en una sola consulta (WHERE cedula = ANY(?))
+     * @param cedulas Cédulas a buscar (sin repetidas)
+     * @return Estudiantes encontrados, en cualquier orden; las cédulas inexistentes se omiten
+     * @throws SQLException Error en la base de datos
+     */
+    List<Estudiante> obtenerPorCedulas(List<String> cedulas) throws SQLException;
+
+    /**
+     * Obtiene solo la fecha de última actualización de un estudiante (para ETag / Last-Modified)
+     * @param id Identificador del estudiante
+     * @return Fecha de última actualización o null si no existe
+     * @throws SQLException Error en la base de datos
+     */
+    Timestamp obtenerFechaActualizacion(Long id) throws SQLException;
+
+    /**
+     * Obtiene la versión de la colección (para ETag de listados): total y última actualización,
+     * resueltos por índice (ver EsquemaVersion)
+     * @return Versión actual de la colección
+     * @throws SQLException Error en la base de datos
+     */
+    VersionColeccion obtenerVersionColeccion() throws SQLException;
+
     // ==============================================================
     // OPERACIONES DE MANIPULACIÓN (CREATE, UPDATE, DELETE)
     // ==============================================================
 
     /**
-     * Crea un nuevo estudiante en la base de datos
+     * Crea un nuevo estudiante en la base de datos (una sola sentencia, sin verificación previa)
      * @param estudiante Objeto Estudiante a crear (sin ID)
-     * @return Estudiante creado con ID generado
+     * @return Estudiante creado con ID generado, o con ID null si la cédula ya existía
      * @throws SQLException Error en la base de datos
      */
     Estudiante crear(Estudiante estudiante) throws SQLException;
 
     /**
-     * Actualiza los datos de un estudiante existente
+     * Crea el estudiante o, si su cédula ya existe, actualiza los datos de ese registro (upsert)
+     * Asigna al objeto el ID y las fechas de la fila guardada.
+     * @param estudiante Datos completos del estudiante (se identifica por cédula)
+     * @return true si se insertó, false si se actualizó uno existente
+     * @throws SQLException Error en la base de datos
+     */
+    boolean guardarPorCedula(Estudiante estudiante) throws SQLException;
+
+    /**
+     * Crea varios estudiantes en una sola transacción (INSERT por lotes)
+     * Los estudiantes cuya cédula ya existe se omiten sin abortar el lote.
+     * A cada estudiante insertado se le asigna su ID y fechas; los omitidos quedan con ID null.
+     * @param estudiantes Estudiantes a crear (ya validados, sin cédulas repetidas entre sí)
+     * @return Cantidad de estudiantes insertados
+     * @throws SQLException Error en la base de datos (se revierte todo el lote)
+     */
+    int crearLote(List<Estudiante> estudiantes) throws SQLException;
+
+    /**
+     * Importa estudiantes desde un archivo CSV con COPY (ver EstudianteImportador)
+     * @param csv Contenido del archivo, leído en streaming
+     * @return Reporte de la importación (filas leídas, insertadas, rechazos)
+     * @throws SQLException Error en la base de datos o CSV mal formado
+     * @throws IOException Error al leer el archivo
+     */
+    Map<String, Object> importarCsv(InputStream csv) throws SQLException, IOException;
+
+    /**
+     * Actualiza los datos de un estudiante existente en una sola sentencia (UPDATE ... RETURNING)
      * @param estudiante Estudiante con datos actualizados
-     * @return true si se actualizó correctamente
+     * @return Estudiante tal como quedó guardado (incluye fechas), o null si no existe ese ID
+     * @throws CedulaDuplicadaException Si otro estudiante ya tiene esa cédula
      * @throws SQLException Error en la base de datos
      */
-    boolean actualizar(Estudiante estudiante) throws SQLException;
+    Estudiante actualizar(Estudiante estudiante) throws SQLException;
 
     /**
-     * Elimina permanentemente un estudiante
+     * Elimina permanentemente un estudiante (DELETE ... RETURNING, sin lectura previa)
      * @param id ID del estudiante a eliminar
-     * @return true si se eliminó correctamente
+     * @return true si se eliminó, false si no existía
      * @throws SQLException Error en la base de datos
      */
     boolean eliminar(Long id) throws SQLException;
@@ -86,17 +174,49 @@ public interface EstudianteDAO {
      */
     boolean desactivar(Long id) throws SQLException;
 
+    /**
+     * Cambia el estado de varios estudiantes con UPDATE ... WHERE id = ANY(?) por bloques
+     * @param ids IDs de los estudiantes (sin repetidos)
+     * @param activo Nuevo estado
+     * @return IDs que existían y fueron actualizados (los demás no existen)
+     * @throws SQLException Error en la base de datos
+     */
+    List<Long> cambiarEstadoLote(List<Long> ids, boolean activo) throws SQLException;
+
+    /**
+     * Cambia el estado de todos los estudiantes de una carrera y/o nivel, por bloques
+     * Solo se modifican los que tienen un estado distinto al pedido.
+     * @param carrera Carrera (null = cualquiera)
+     * @param nivel Nivel (null = cualquiera); al menos uno de los dos filtros es requerido
+     * @param activo Nuevo estado
+     * @return IDs de los estudiantes modificados
+     * @throws SQLException Error en la base de datos
+     */
+    List<Long> cambiarEstadoPorFiltro(String carrera, Integer nivel, boolean activo) throws SQLException;
+
     // ==============================================================
     // OPERACIONES DE BÚSQUEDA Y VERIFICACIÓN
     // ==============================================================
 
     /**
      * Busca estudiantes por término en múltiples campos
+     * Sin distinguir mayúsculas ni tildes; los resultados se ordenan por relevancia.
      * @param termino Texto a buscar en nombres, apellidos, cédula, email, carrera
+     * @param limite Cantidad máxima de resultados
+     * @param desplazamiento Resultados a omitir (paginación)
      * @return Lista de estudiantes que coinciden con la búsqueda
      * @throws SQLException Error en la base de datos
      */
-    List<Estudiante> buscar(String termino) throws SQLException;
+    List<Estudiante> buscar(String termino, int limite, int desplazamiento) throws SQLException;
+
+    /**
+     * Busca estudiantes y los entrega fila por fila (modo streaming)
+     * @param termino Texto a buscar en nombres, apellidos, cédula, email, carrera
+     * @param consumidor Recibe cada estudiante encontrado
+     * @throws SQLException Error en la base de datos
+     * @throws IOException Error del consumidor al escribir la salida
+     */
+    void recorrerBusqueda(String termino, ConsumidorEstudiante consumidor) throws SQLException, IOException;
 
     /**
      * Verifica si existe un estudiante con cierta cédula
@@ -0,0 +1,237 @@
+package ec.edu.istq.dao;
+
+import ec.edu.istq.model.Estudiante;
+import ec.edu.istq.util.DatabaseConnection;
+import ec.edu.istq.util.LimiteAdaptativo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DAO CON CONTROL DE ADMISIÓN (load shedding)
+ * Primera capa de la cadena: limita cuántas operaciones llegan a la vez a las capas inferiores
+ * y a la base de datos, con un límite adaptativo por latencia (LimiteAdaptativo).
+ * Cuando el límite y su cola corta están llenos se lanza SobrecargaException de inmediato,
+ * en lugar de acumular hilos esperando una conexión del pool.
+ *
+ * Hay dos presupuestos separados:
+ *   - ligero: consultas puntuales (por ID, por cédula, versión de un estudiante),
+ *     casi siempre resueltas por caché o índice
+ *   - general: listados, búsquedas y escrituras
+ * Así una avalancha de consultas pesadas no deja sin servicio a las consultas puntuales.
+ *
+ * Cada operación se mide contra su propia latencia mínima (LimiteAdaptativo compara por nombre),
+ * y las que se resolvieron sin pedir una conexión (caché, índice en memoria) no se usan como muestra:
+ * solo la latencia de la base de datos dice si hay que admitir menos.
+ *
+ * Los recorridos en streaming y las importaciones ocupan un lugar del presupuesto general
+ * pero no ajustan el límite: su duración depende del volumen y no de la carga de la base de datos.
+ */
+public class EstudianteDAOAdmision extends EstudianteDAODecorador {
+
+    private final LimiteAdaptativo ligero;
+    private final LimiteAdaptativo general;
+    private final int reintentarEnSegundos;
+
+    /**
+     * @param delegado DAO siguiente en la cadena
+     * @param ligero Límite de las consultas puntuales
+     * @param general Límite del resto de operaciones
+     * @param reintentarEnSegundos Valor sugerido para Retry-After al rechazar
+     */
+    public EstudianteDAOAdmision(EstudianteDAO delegado, LimiteAdaptativo ligero, LimiteAdaptativo general,
+                                 int reintentarEnSegundos) {
+        super(delegado);
+        this.ligero = ligero;
+        this.general = general;
+        this.reintentarEnSegundos = reintentarEnSegundos;
+    }
+
+    // ==============================================================
+    // ADMISIÓN
+    // ==============================================================
+
+    @FunctionalInterface
+    private interface Operacion<T> {
+        T ejecutar() throws SQLException;
+    }
+
+    /**
+     * Ejecuta la operación si el límite lo permite y mide su latencia
+     * @param nombre Nombre de la operación (cada una tiene su latencia base en el límite)
+     */
+    private <T> T admitir(LimiteAdaptativo limite, String nombre, Operacion<T> operacion) throws SQLException {
+        adquirir(limite);
+        long prestamos = DatabaseConnection.getPrestamosDelHilo();
+        long inicio = System.nanoTime();
+        try {
+            return operacion.ejecutar();
+        } finally {
+            long duracion = System.nanoTime() - inicio;
+            if (DatabaseConnection.getPrestamosDelHilo() != prestamos) {
+                limite.liberar(nombre, duracion);
+            } else {
+                limite.liberar();   // respondida desde memoria
+            }
+        }
+    }
+
+    private void adquirir(LimiteAdaptativo limite) throws SobrecargaException {
+        if (!limite.adquirir()) {
+            String presupuesto = (limite == ligero) ? "consultas puntuales" : "operaciones";
+            throw new SobrecargaException(presupuesto, reintentarEnSegundos);
+        }
+    }
+
+    // ==============================================================
+    // PRESUPUESTO LIGERO
+    // ==============================================================
+
+    @Override
+    public Estudiante obtenerPorId(Long id) throws SQLException {
+        return admitir(ligero, "obtenerPorId", () -> delegado.obtenerPorId(id));
+    }
+
+    @Override
+    public Estudiante obtenerPorCedula(String cedula) throws SQLException {
+        return admitir(ligero, "obtenerPorCedula", () -> delegado.obtenerPorCedula(cedula));
+    }
+
+    @Override
+    public Timestamp obtenerFechaActualizacion(Long id) throws SQLException {
+        return admitir(ligero, "obtenerFechaActualizacion", () -> delegado.obtenerFechaActualizacion(id));
+    }
+
+    // ==============================================================
+    // PRESUPUESTO GENERAL
+    // ==============================================================
+
+    @Override
+    public List<Estudiante> obtenerTodos(Proyeccion proyeccion) throws SQLException {
+        return admitir(general, "obtenerTodos", () -> delegado.obtenerTodos(proyeccion));
+    }
+
+    @Override
+    public List<Estudiante> obtenerPagina(Long despuesDeId, int limite, Proyeccion proyeccion) throws SQLException {
+        return admitir(general, "obtenerPagina", () -> delegado.obtenerPagina(despuesDeId, limite, proyeccion));
+    }
+
+    @Override
+    public List<Estudiante> obtenerPorIds(List<Long> ids) throws SQLException {
+        return admitir(general, "obtenerPorIds", () -> delegado.obtenerPorIds(ids));
+    }
+
+    @Override
+    public List<Estudiante> obtenerPorCedulas(List<String> cedulas) throws SQLException {
+        return admitir(general, "obtenerPorCedulas", () -> delegado.obtenerPorCedulas(cedulas));
+    }
+
+    @Override
+    public VersionColeccion obtenerVersionColeccion() throws SQLException {
+        return admitir(general, "obtenerVersionColeccion", () -> delegado.obtenerVersionColeccion());
+    }
+
+    @Override
+    public Estudiante crear(Estudiante estudiante) throws SQLException {
+        return admitir(general, "crear", () -> delegado.crear(estudiante));
+    }
+
+    @Override
+    public boolean guardarPorCedula(Estudiante estudiante) throws SQLException {
+        return admitir(general, "guardarPorCedula", () -> delegado.guardarPorCedula(estudiante));
+    }
+
+    @Override
+    public int crearLote(List<Estudiante> estudiantes) throws SQLException {
+        return admitir(general, "crearLote", () -> delegado.crearLote(estudiantes));
+    }
+
+    @Override
+    public Estudiante actualizar(Estudiante estudiante) throws SQLException {
+        return admitir(general, "actualizar", () -> delegado.actualizar(estudiante));
+    }
+
+    @Override
+    public boolean eliminar(Long id) throws SQLException {
+        return admitir(general, "eliminar", () -> delegado.eliminar(id));
+    }
+
+    @Override
+    public boolean activar(Long id) throws SQLException {
+        return admitir(general, "activar", () -> delegado.activar(id));
+    }
+
+    @Override
+    public boolean desactivar(Long id) throws SQLException {
+        return admitir(general, "desactivar", () -> delegado.desactivar(id));
+    }
+
+    @Override
+    public List<Long> cambiarEstadoLote(List<Long> ids, boolean activo) throws SQLException {
+        return admitir(general, "cambiarEstadoLote", () -> delegado.cambiarEstadoLote(ids, activo));
+    }
+
+    @Override
+    public List<Long> cambiarEstadoPorFiltro(String carrera, Integer nivel, boolean activo) throws SQLException {
+        return admitir(general, "cambiarEstadoPorFiltro", () -> delegado.cambiarEstadoPorFiltro(carrera, nivel, activo));
+    }
+
+    @Override
+    public List<Estudiante> buscar(String termino, int limite, int desplazamiento) throws SQLException {
+        return admitir(general, "buscar", () -> delegado.buscar(termino, limite, desplazamiento));
+    }
+
+    // ==============================================================
+    // OPERACIONES LARGAS (ocupan lugar, no ajustan el límite)
+    // ==============================================================
+
+    @Override
+    public void recorrerTodos(Proyeccion proyeccion, ConsumidorEstudiante consumidor) throws SQLException, IOException {
+        adquirir(general);
+        try {
+            delegado.recorrerTodos(proyeccion, consumidor);
+        } finally {
+            general.liberar();
+        }
+    }
+
+    @Override
+    public void recorrerBusqueda(String termino, ConsumidorEstudiante consumidor) throws SQLException, IOException {
+        adquirir(general);
+        try {
+            delegado.recorrerBusqueda(termino, consumidor);
+        } finally {
+            general.liberar();
+        }
+    }
+
+    @Override
+    public Map<String, Object> importarCsv(InputStream csv) throws SQLException, IOException {
+        adquirir(general);
+        try {
+            return delegado.importarCsv(csv);
+        } finally {
+            general.liberar();
+        }
+    }
+
+    // ==============================================================
+    // ESTADÍSTICAS
+    // ==============================================================
+
+    /**
+     * Límite actual, operaciones en curso, en cola y rechazadas de cada presupuesto
+     */
+    public Map<String, Object> getEstadisticas() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("ligero", ligero.getEstadisticas());
+        stats.put("general", general.getEstadisticas());
+        stats.put("reintentarEnSegundos", reintentarEnSegundos);
+        return stats;
+    }
+}
@@ -0,0 +1,295 @@
+package ec.edu.istq.dao;
+
+import ec.edu.istq.cache.LfuCache;
+import ec.edu.istq.model.Estudiante;
+import ec.edu.istq.util.ContextoLectura;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DAO CON CACHÉ DE LECTURA POR ID Y POR CÉDULA
+ * obtenerPorId y obtenerPorCedula (y sus variantes de varios elementos) consultan primero un LfuCache en memoria;
+ * si no está, leen de la base de datos y lo guardan (read-through).
+ * Toda operación que modifica datos invalida las entradas afectadas (write-through).
+ *
+ * El caché por cédula solo guarda el ID; el estudiante se toma del caché por ID
+ * y se verifica que la cédula siga coincidiendo (cubre cambios de cédula).
+ * Siempre se devuelven copias para que nadie modifique las instancias cacheadas.
+ *
+ * Los fallos de caché se leen de la base de datos principal, no de una réplica: una réplica con retraso
+ * podría devolver una versión anterior a la última invalidación y quedaría cacheada hasta su TTL.
+ */
+public class EstudianteDAOCache extends EstudianteDAODecorador {
+
+    private final LfuCache<Long, Estudiante> porId;
+    private final LfuCache<String, Long> porCedula;
+
+    /**
+     * @param delegado DAO siguiente en la cadena
+     * @param capacidad Elementos máximos de cada caché
+     * @param ttlSegundos Tiempo de vida de cada elemento
+     */
+    public EstudianteDAOCache(EstudianteDAO delegado, int capacidad, long ttlSegundos) {
+        super(delegado);
+        this.porId = new LfuCache<>("porId", capacidad, ttlSegundos);
+        this.porCedula = new LfuCache<>("porCedula", capacidad, ttlSegundos);
+    }
+
+    // ==============================================================
+    // LECTURAS CON CACHÉ
+    // ==============================================================
+
+    @Override
+    public Estudiante obtenerPorId(Long id) throws SQLException {
+        Estudiante cacheado = porId.get(id);
+        if (cacheado != null) {
+            return new Estudiante(cacheado);
+        }
+
+        long[] marcasId = porId.marcas();
+        long[] marcasCedula = porCedula.marcas();
+        Estudiante estudiante = ContextoLectura.enPrimario(() -> delegado.obtenerPorId(id));
+        if (estudiante != null) {
+            guardar(estudiante, marcasId, marcasCedula);
+        }
+        return estudiante;
+    }
+
+    @Override
+    public Estudiante obtenerPorCedula(String cedula) throws SQLException {
+        Long id = porCedula.get(cedula);
+        if (id != null) {
+            Estudiante cacheado = porId.get(id);
+            if (cacheado != null && cedula.equals(cacheado.getCedula())) {
+                return new Estudiante(cacheado);
+            }
+        }
+
+        long[] marcasId = porId.marcas();
+        long[] marcasCedula = porCedula.marcas();
+        Estudiante estudiante = ContextoLectura.enPrimario(() -> delegado.obtenerPorCedula(cedula));
+        if (estudiante != null) {
+            guardar(estudiante, marcasId, marcasCedula);
+        }
+        return estudiante;
+    }
+
+    @Override
+    public List<Estudiante> obtenerPorIds(List<Long> ids) throws SQLException {
+        List<Estudiante> encontrados = new ArrayList<>(ids.size());
+        List<Long> faltantes = new ArrayList<>();
+        for (Long id : ids) {
+            Estudiante cacheado = porId.get(id);
+            if (cacheado != null) {
+                encontrados.add(new Estudiante(cacheado));
+            } else {
+                faltantes.add(id);
+            }
+        }
+        leerFaltantes(faltantes.isEmpty() ? null : () -> delegado.obtenerPorIds(faltantes), encontrados);
+        return encontrados;
+    }
+
+    @Override
+    public List<Estudiante> obtenerPorCedulas(List<String> cedulas) throws SQLException {
+        List<Estudiante> encontrados = new ArrayList<>(cedulas.size());
+        List<String> faltantes = new ArrayList<>();
+        for (String cedula : cedulas) {
+            Long id = porCedula.get(cedula);
+            Estudiante cacheado = (id != null) ? porId.get(id) : null;
+            if (cacheado != null && cedula.equals(cacheado.getCedula())) {
+                encontrados.add(new Estudiante(cacheado));
+            } else {
+                faltantes.add(cedula);
+            }
+        }
+        leerFaltantes(faltantes.isEmpty() ? null : () -> delegado.obtenerPorCedulas(faltantes), encontrados);
+        return encontrados;
+    }
+
+    @Override
+    public Timestamp obtenerFechaActualizacion(Long id) throws SQLException {
+        // Misma fuente que obtenerPorId: el caché o la principal
+        Estudiante cacheado = porId.get(id);
+        if (cacheado != null && cacheado.getFechaActualizacion() != null) {
+            return cacheado.getFechaActualizacion();
+        }
+        return ContextoLectura.enPrimario(() -> delegado.obtenerFechaActualizacion(id));
+    }
+
+    /**
+     * Lee de la base de datos solo lo que no estaba en caché y lo guarda
+     */
+    private void leerFaltantes(Lectura lectura, List<Estudiante> encontrados) throws SQLException {
+        if (lectura == null) {
+            return;
+        }
+        long[] marcasId = porId.marcas();
+        long[] marcasCedula = porCedula.marcas();
+        for (Estudiante estudiante : ContextoLectura.enPrimario(lectura::leer)) {
+            guardar(estudiante, marcasId, marcasCedula);
+            encontrados.add(estudiante);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Lectura {
+        List<Estudiante> leer() throws SQLException;
+    }
+
+    private void guardar(Estudiante estudiante, long[] marcasId, long[] marcasCedula) {
+        porId.put(estudiante.getId(), new Estudiante(estudiante), marcasId);
+        porCedula.put(estudiante.getCedula(), estudiante.getId(), marcasCedula);
+    }
+
+    // ==============================================================
+    // ESCRITURAS CON INVALIDACIÓN
+    // Se invalida antes (descarta lecturas en curso) y después (descarta lo leído durante la escritura)
+    // ==============================================================
+
+    @Override
+    public Estudiante crear(Estudiante estudiante) throws SQLException {
+        porCedula.invalidar(estudiante.getCedula());
+        try {
+            return delegado.crear(estudiante);
+        } finally {
+            porCedula.invalidar(estudiante.getCedula());
+        }
+    }
+
+    @Override
+    public boolean guardarPorCedula(Estudiante estudiante) throws SQLException {
+        // El ID solo se conoce después de guardar
+        porCedula.invalidar(estudiante.getCedula());
+        try {
+            return delegado.guardarPorCedula(estudiante);
+        } finally {
+            invalidar(estudiante.getId(), estudiante.getCedula());
+        }
+    }
+
+    @Override
+    public int crearLote(List<Estudiante> estudiantes) throws SQLException {
+        // Los estudiantes nuevos no estaban cacheados; solo se descartan lecturas en curso
+        porCedula.limpiar();
+        try {
+            return delegado.crearLote(estudiantes);
+        } finally {
+            porCedula.limpiar();
+        }
+    }
+
+    @Override
+    public Map<String, Object> importarCsv(InputStream csv) throws SQLException, IOException {
+        limpiar();
+        try {
+            return delegado.importarCsv(csv);
+        } finally {
+            limpiar();
+        }
+    }
+
+    @Override
+    public Estudiante actualizar(Estudiante estudiante) throws SQLException {
+        invalidar(estudiante.getId(), estudiante.getCedula());
+        try {
+            return delegado.actualizar(estudiante);
+        } finally {
+            invalidar(estudiante.getId(), estudiante.getCedula());
+        }
+    }
+
+    @Override
+    public boolean eliminar(Long id) throws SQLException {
+        porId.invalidar(id);
+        try {
+            return delegado.eliminar(id);
+        } finally {
+            porId.invalidar(id);
+        }
+    }
+
+    @Override
+    public boolean activar(Long id) throws SQLException {
+        porId.invalidar(id);
+        try {
+            return delegado.activar(id);
+        } finally {
+            porId.invalidar(id);
+        }
+    }
+
+    @Override
+    public boolean desactivar(Long id) throws SQLException {
+        porId.invalidar(id);
+        try {
+            return delegado.desactivar(id);
+        } finally {
+            porId.invalidar(id);
+        }
+    }
+
+    @Override
+    public List<Long> cambiarEstadoLote(List<Long> ids, boolean activo) throws SQLException {
+        ids.forEach(porId::invalidar);
+        try {
+            return delegado.cambiarEstadoLote(ids, activo);
+        } finally {
+            ids.forEach(porId::invalidar);
+        }
+    }
+
+    @Override
+    public List<Long> cambiarEstadoPorFiltro(String carrera, Integer nivel, boolean activo) throws SQLException {
+        // Los IDs afectados solo se conocen al terminar; si falla a mitad se vacía el caché
+        List<Long> actualizados = null;
+        try {
+            actualizados = delegado.cambiarEstadoPorFiltro(carrera, nivel, activo);
+            return actualizados;
+        } finally {
+            if (actualizados != null) {
+                actualizados.forEach(porId::invalidar);
+            } else {
+                porId.limpiar();
+            }
+        }
+    }
+
+    private void invalidar(Long id, String cedula) {
+        if (id != null) {
+            porId.invalidar(id);
+        }
+        if (cedula != null) {
+            porCedula.invalidar(cedula);
+        }
+    }
+
+    /**
+     * Vacía ambos cachés
+     */
+    public void limpiar() {
+        porId.limpiar();
+        porCedula.limpiar();
+    }
+
+    // ==============================================================
+    // ESTADÍSTICAS
+    // ==============================================================
+
+    /**
+     * Estadísticas de ambos cachés (aciertos, fallos, evicciones, ...)
+     */
+    public Map<String, Object> getEstadisticas() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("porId", porId.getEstadisticas());
+        stats.put("porCedula", porCedula.getEstadisticas());
+        return stats;
+    }
+}
@@ -0,0 +1,156 @@
+package ec.edu.istq.dao;
+
+import ec.edu.istq.model.Estudiante;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DECORADOR BASE DEL DAO DE ESTUDIANTES
+ * Delega todas las operaciones en otro EstudianteDAO.
+ * Las capas (índice en memoria, caché, etc.) extienden esta clase
+ * y sobrescriben solo los métodos que les interesan.
+ */
+public abstract class EstudianteDAODecorador implements EstudianteDAO {
+
+    protected final EstudianteDAO delegado;
+
+    protected EstudianteDAODecorador(EstudianteDAO delegado) {
+        this.delegado = delegado;
+    }
+
+    // ==============================================================
+    // OPERACIONES DE CONSULTA
+    // ==============================================================
+
+    @Override
+    public List<Estudiante> obtenerTodos(Proyeccion proyeccion) throws SQLException {
+        return delegado.obtenerTodos(proyeccion);
+    }
+
+    @Override
+    public List<Estudiante> obtenerPagina(Long despuesDeId, int limite, Proyeccion proyeccion) throws SQLException {
+        return delegado.obtenerPagina(despuesDeId, limite, proyeccion);
+    }
+
+    @Override
+    public void recorrerTodos(Proyeccion proyeccion, ConsumidorEstudiante consumidor) throws SQLException, IOException {
+        delegado.recorrerTodos(proyeccion, consumidor);
+    }
+
+    @Override
+    public Estudiante obtenerPorId(Long id) throws SQLException {
+        return delegado.obtenerPorId(id);
+    }
+
+    @Override
+    public Estudiante obtenerPorCedula(String cedula) throws SQLException {
+        return delegado.obtenerPorCedula(cedula);
+    }
+
+    @Override
+    public List<Estudiante> obtenerPorIds(List<Long> ids) throws SQLException {
+        return delegado.obtenerPorIds(ids);
+    }
+
+    @Override
+    public List<Estudiante> obtenerPorCedulas(List<String> cedulas) throws SQLException {
+        return delegado.obtenerPorCedulas(cedulas);
+    }
+
+    @Override
+    public Timestamp obtenerFechaActualizacion(Long id) throws SQLException {
+        return delegado.obtenerFechaActualizacion(id);
+    }
+
+    @Override
+    public VersionColeccion obtenerVersionColeccion() throws SQLException {
+        return delegado.obtenerVersionColeccion();
+    }
+
+    // ==============================================================
+    // OPERACIONES DE MANIPULACIÓN
+    // ==============================================================
+
+    @Override
+    public Estudiante crear(Estudiante estudiante) throws SQLException {
+        return delegado.crear(estudiante);
+    }
+
+    @Override
+    public boolean guardarPorCedula(Estudiante estudiante) throws SQLException {
+        return delegado.guardarPorCedula(estudiante);
+    }
+
+    @Override
+    public int crearLote(List<Estudiante> estudiantes) throws SQLException {
+        return delegado.crearLote(estudiantes);
+    }
+
+    @Override
+    public Map<String, Object> importarCsv(InputStream csv) throws SQLException, IOException {
+        return delegado.importarCsv(csv);
+    }
+
+    @Override
+    public Estudiante actualizar(Estudiante estudiante) throws SQLException {
+        return delegado.actualizar(estudiante);
+    }
+
+    @Override
+    public boolean eliminar(Long id) throws SQLException {
+        return delegado.eliminar(id);
+    }
+
+    // ==============================================================
+    // OPERACIONES DE ESTADO
+    // ==============================================================
+
+    @Override
+    public boolean activar(Long id) throws SQLException {
+        return delegado.activar(id);
+    }
+
+    @Override
+    public boolean desactivar(Long id) throws SQLException {
+        return delegado.desactivar(id);
+    }
+
+    @Override
+    public List<Long> cambiarEstadoLote(List<Long> ids, boolean activo) throws SQLException {
+        return delegado.cambiarEstadoLote(ids, activo);
+    }
+
+    @Override
+    public List<Long> cambiarEstadoPorFiltro(String carrera, Integer nivel, boolean activo) throws SQLException {
+        return delegado.cambiarEstadoPorFiltro(carrera, nivel, activo);
+    }
+
+    // ==============================================================
+    // OPERACIONES DE BÚSQUEDA Y VERIFICACIÓN
+    // ==============================================================
+
+    @Override
+    public List<Estudiante> buscar(String termino, int limite, int desplazamiento) throws SQLException {
+        return delegado.buscar(termino, limite, desplazamiento);
+    }
+
+    @Override
+    public void recorrerBusqueda(String termino, ConsumidorEstudiante consumidor) throws SQLException, IOException {
+        delegado.recorrerBusqueda(termino, consumidor);
+    }
+
+    @Override
+    public boolean existePorCedula(String cedula) throws SQLException {
+        return delegado.existePorCedula(cedula);
+    }
+
+    @Override
+    public boolean existePorCedulaExcluyendo(String cedula, Long idExcluir) throws SQLException {
+        return delegado.existePorCedulaExcluyendo(cedula, idExcluir);
+    }
+}
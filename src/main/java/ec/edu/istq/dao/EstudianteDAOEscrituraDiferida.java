@@ -0,0 +1,356 @@
+package ec.edu.istq.dao;
+
+import ec.edu.istq.model.Estudiante;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * DAO CON ESCRITURA DIFERIDA DE ACTIVAR/DESACTIVAR (write-behind)
+ * Los cambios de estado no se escriben uno a uno: se guardan en un buffer por ID
+ * (el último gana) y cada 'ventanaMs' se escriben todos con un UPDATE por conjunto
+ * (cambiarEstadoLote) por cada estado. Si un estudiante cambia de estado muchas
+ * veces dentro de la ventana, solo se escribe el último.
+ *
+ * Garantías:
+ *   - Retraso acotado: cada cambio se escribe como máximo una ventana después
+ *     (o antes, si el buffer llega a 'maxPendientes').
+ *   - Lecturas por ID/cédula de esta instancia ven el estado pendiente.
+ *   - Otras escrituras sobre el mismo ID (actualizar, eliminar, cambio masivo)
+ *     descartan el cambio pendiente, porque son posteriores. Si ese cambio ya se está
+ *     escribiendo, esperan a que termine el vaciado para no quedar por debajo de él.
+ *   - Al replegar la aplicación se escribe lo pendiente.
+ *   - Las versiones no vacían el buffer: la de un ID con cambio pendiente escribe solo ese cambio,
+ *     y la de la colección incluye la época del buffer.
+ * activar/desactivar devuelven true sin saber si el ID existe (el recurso responde 202).
+ */
+public class EstudianteDAOEscrituraDiferida extends EstudianteDAODecorador {
+
+    private final long ventanaMs;
+    private final int maxPendientes;
+
+    // ID -> estado pedido (true = activar). El último cambio reemplaza al anterior.
+    private final ConcurrentHashMap<Long, Boolean> pendientes = new ConcurrentHashMap<>();
+
+    // Un solo vaciado a la vez (el programado o el de un llamador con el buffer lleno)
+    private final ReentrantLock vaciado = new ReentrantLock();
+
+    // Versión del buffer para el ETag de los listados: aumenta con cada cambio que entra o sale.
+    // La instancia distingue buffers de distintas instancias (o reinicios) con la misma época.
+    private final AtomicLong epoca = new AtomicLong();
+    private final String instancia = Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+    private final ScheduledExecutorService programador = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "escritura-diferida-estado");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Estadísticas
+    private final LongAdder solicitudes = new LongAdder();
+    private final LongAdder coalescidos = new LongAdder();
+    private final LongAdder descartados = new LongAdder();
+    private final LongAdder escritos = new LongAdder();
+    private final LongAdder noEncontrados = new LongAdder();
+    private final LongAdder vaciados = new LongAdder();
+    private final LongAdder vaciadosPorCapacidad = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+    private volatile String ultimoError = null;
+
+    /**
+     * @param delegado DAO siguiente en la cadena
+     * @param ventanaMs Cada cuánto se escriben los cambios acumulados
+     * @param maxPendientes Cambios acumulados que fuerzan una escritura inmediata
+     */
+    public EstudianteDAOEscrituraDiferida(EstudianteDAO delegado, long ventanaMs, int maxPendientes) {
+        super(delegado);
+        this.ventanaMs = ventanaMs;
+        this.maxPendientes = maxPendientes;
+    }
+
+    // ==============================================================
+    // CICLO DE VIDA
+    // ==============================================================
+
+    /**
+     * Inicia el vaciado periódico del buffer
+     */
+    public void iniciar() {
+        programador.scheduleWithFixedDelay(this::vaciarSinExcepcion, ventanaMs, ventanaMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Detiene el vaciado periódico y escribe lo pendiente (al replegar la aplicación)
+     */
+    public void detener() {
+        programador.shutdown();
+        try {
+            programador.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        vaciarSinExcepcion();
+        if (!pendientes.isEmpty()) {
+            System.err.println("⚠️ Quedaron " + pendientes.size() + " cambios de estado sin escribir");
+        }
+    }
+
+    // ==============================================================
+    // CAMBIOS DE ESTADO DIFERIDOS
+    // ==============================================================
+
+    @Override
+    public boolean activar(Long id) throws SQLException {
+        encolar(id, true);
+        return true;
+    }
+
+    @Override
+    public boolean desactivar(Long id) throws SQLException {
+        encolar(id, false);
+        return true;
+    }
+
+    private void encolar(Long id, boolean activo) throws SQLException {
+        solicitudes.increment();
+        epoca.incrementAndGet();
+        if (pendientes.put(id, activo) != null) {
+            coalescidos.increment();
+        }
+        if (pendientes.size() >= maxPendientes) {
+            // Buffer lleno: el llamador escribe (contrapresión en lugar de crecer sin límite)
+            vaciadosPorCapacidad.increment();
+            vaciar();
+        }
+    }
+
+    private void vaciarSinExcepcion() {
+        try {
+            vaciar();
+        } catch (Exception e) {
+            System.err.println("⚠️ Error al escribir cambios de estado diferidos: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Escribe los cambios acumulados: un UPDATE por conjunto para activar y otro para desactivar.
+     * Si uno falla, el otro se intenta igual; lo que no se escribió vuelve al buffer
+     * (salvo que llegara un cambio más nuevo para el mismo ID).
+     */
+    public void vaciar() throws SQLException {
+        vaciado.lock();
+        try {
+            List<Long> activar = new ArrayList<>();
+            List<Long> desactivar = new ArrayList<>();
+            for (Map.Entry<Long, Boolean> cambio : pendientes.entrySet()) {
+                // remove(clave, valor): si llegó un cambio nuevo mientras tanto, queda para la siguiente ventana
+                if (pendientes.remove(cambio.getKey(), cambio.getValue())) {
+                    (cambio.getValue() ? activar : desactivar).add(cambio.getKey());
+                }
+            }
+            if (activar.isEmpty() && desactivar.isEmpty()) {
+                return;
+            }
+
+            epoca.incrementAndGet();
+            vaciados.increment();
+            try {
+                escribir(activar, true);
+            } finally {
+                escribir(desactivar, false);
+            }
+        } finally {
+            vaciado.unlock();
+        }
+    }
+
+    /**
+     * Escribe solo el cambio pendiente de un ID (si sigue pendiente)
+     */
+    private void vaciar(Long id) throws SQLException {
+        vaciado.lock();
+        try {
+            Boolean activo = pendientes.remove(id);
+            if (activo != null) {
+                epoca.incrementAndGet();
+                escribir(Collections.singletonList(id), activo);
+            }
+        } finally {
+            vaciado.unlock();
+        }
+    }
+
+    private void escribir(List<Long> ids, boolean activo) throws SQLException {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            List<Long> actualizados = delegado.cambiarEstadoLote(ids, activo);
+            escritos.add(actualizados.size());
+            noEncontrados.add(ids.size() - actualizados.size());
+        } catch (SQLException | RuntimeException e) {
+            errores.increment();
+            ultimoError = e.getMessage();
+            for (Long id : ids) {
+                pendientes.putIfAbsent(id, activo);
+            }
+            epoca.incrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Descarta los cambios pendientes de estos IDs porque una escritura posterior los reemplaza.
+     * Toma el lock de vaciado: si un vaciado en curso ya sacó alguno del buffer, se espera a que
+     * termine de escribirlo, así la escritura del llamador queda por encima.
+     */
+    private void descartar(List<Long> ids) {
+        vaciado.lock();
+        try {
+            for (Long id : ids) {
+                if (id != null && pendientes.remove(id) != null) {
+                    epoca.incrementAndGet();
+                    descartados.increment();
+                }
+            }
+        } finally {
+            vaciado.unlock();
+        }
+    }
+
+    // ==============================================================
+    // LECTURAS CON EL ESTADO PENDIENTE
+    // ==============================================================
+
+    @Override
+    public Estudiante obtenerPorId(Long id) throws SQLException {
+        return conEstadoPendiente(delegado.obtenerPorId(id));
+    }
+
+    @Override
+    public Estudiante obtenerPorCedula(String cedula) throws SQLException {
+        return conEstadoPendiente(delegado.obtenerPorCedula(cedula));
+    }
+
+    @Override
+    public List<Estudiante> obtenerPorIds(List<Long> ids) throws SQLException {
+        List<Estudiante> estudiantes = delegado.obtenerPorIds(ids);
+        estudiantes.forEach(this::conEstadoPendiente);
+        return estudiantes;
+    }
+
+    @Override
+    public List<Estudiante> obtenerPorCedulas(List<String> cedulas) throws SQLException {
+        List<Estudiante> estudiantes = delegado.obtenerPorCedulas(cedulas);
+        estudiantes.forEach(this::conEstadoPendiente);
+        return estudiantes;
+    }
+
+    private Estudiante conEstadoPendiente(Estudiante estudiante) {
+        if (estudiante != null && !pendientes.isEmpty()) {
+            Boolean activo = pendientes.get(estudiante.getId());
+            if (activo != null) {
+                estudiante.setActivo(activo);
+            }
+        }
+        return estudiante;
+    }
+
+    // ==============================================================
+    // VERSIONES (ETag / Last-Modified)
+    // Un cambio pendiente todavía no movió fecha_actualizacion
+    // ==============================================================
+
+    /**
+     * Si el ID tiene un cambio pendiente se escribe solo ese (el resto del buffer sigue coalesciendo)
+     */
+    @Override
+    public Timestamp obtenerFechaActualizacion(Long id) throws SQLException {
+        if (pendientes.containsKey(id)) {
+            vaciar(id);
+        }
+        return delegado.obtenerFechaActualizacion(id);
+    }
+
+    /**
+     * No se escribe el buffer: si tiene cambios, la versión lleva su época (cambia con cada
+     * cambio que entra o sale, así dos estados distintos del buffer nunca dan el mismo ETag)
+     */
+    @Override
+    public VersionColeccion obtenerVersionColeccion() throws SQLException {
+        String marca = pendientes.isEmpty() ? null : instancia + "-" + epoca.get();
+        VersionColeccion version = delegado.obtenerVersionColeccion();
+        return marca == null ? version
+                : new VersionColeccion(version.getTotal(), version.getUltimaActualizacion(), marca);
+    }
+
+    // ==============================================================
+    // ESCRITURAS QUE REEMPLAZAN EL CAMBIO PENDIENTE
+    // ==============================================================
+
+    @Override
+    public Estudiante actualizar(Estudiante estudiante) throws SQLException {
+        if (estudiante.getActivo() != null) {
+            descartar(Collections.singletonList(estudiante.getId()));
+        }
+        return conEstadoPendiente(delegado.actualizar(estudiante));
+    }
+
+    @Override
+    public boolean eliminar(Long id) throws SQLException {
+        descartar(Collections.singletonList(id));
+        return delegado.eliminar(id);
+    }
+
+    @Override
+    public List<Long> cambiarEstadoLote(List<Long> ids, boolean activo) throws SQLException {
+        descartar(ids);
+        return delegado.cambiarEstadoLote(ids, activo);
+    }
+
+    @Override
+    public List<Long> cambiarEstadoPorFiltro(String carrera, Integer nivel, boolean activo) throws SQLException {
+        // Se escribe lo pendiente primero para que el filtro quede por encima
+        vaciar();
+        return delegado.cambiarEstadoPorFiltro(carrera, nivel, activo);
+    }
+
+    // ==============================================================
+    // ESTADÍSTICAS
+    // ==============================================================
+
+    /**
+     * Cambios recibidos, coalescidos (reemplazados dentro de la ventana) y escritos
+     */
+    public Map<String, Object> getEstadisticas() {
+        Map<String, Object> stats = new HashMap<>();
+        long recibidos = solicitudes.sum();
+        stats.put("ventanaMs", ventanaMs);
+        stats.put("maxPendientes", maxPendientes);
+        stats.put("pendientes", pendientes.size());
+        stats.put("solicitudes", recibidos);
+        stats.put("coalescidos", coalescidos.sum());
+        stats.put("descartados", descartados.sum());
+        stats.put("escritos", escritos.sum());
+        stats.put("noEncontrados", noEncontrados.sum());
+        stats.put("vaciados", vaciados.sum());
+        stats.put("vaciadosPorCapacidad", vaciadosPorCapacidad.sum());
+        stats.put("errores", errores.sum());
+        stats.put("tasaCoalescencia", recibidos > 0 ? (double) coalescidos.sum() / recibidos : 0.0);
+        stats.put("ultimoError", ultimoError);
+        return stats;
+    }
+}
@@ -0,0 +1,174 @@
+package ec.edu.istq.dao;
+
+import ec.edu.istq.util.Configuracion;
+import ec.edu.istq.util.LimiteAdaptativo;
+
+import java.util.Map;
+
+/**
+ * FÁBRICA DEL DAO DE ESTUDIANTES
+ * Arma una única cadena de decoradores compartida por todos los recursos REST,
+ * ya que las capas en memoria (índice de búsqueda, etc.) deben ser comunes a la aplicación.
+ *
+ * Cadena actual: EstudianteDAOAdmision -> EstudianteDAOEscrituraDiferida (opcional)
+ *                -> EstudianteDAOFiltroCedula -> EstudianteDAOCache -> EstudianteDAOIndexado -> EstudianteDAOImpl
+ */
+public class EstudianteDAOFactory {
+
+    private static final boolean INDICE_HABILITADO =
+            Configuracion.booleano("estudiantes.indice.habilitado", true);
+
+    private static final EstudianteDAOIndexado INDEXADO = new EstudianteDAOIndexado(
+            new EstudianteDAOImpl(),
+            Configuracion.largo("estudiantes.indice.memoriaMaximaMb", 256) * 1024 * 1024);
+
+    private static final int CAPACIDAD_CACHE = Configuracion.entero("estudiantes.cache.capacidad", 10_000);
+
+    // Capacidad 0 (o menor) equivale a deshabilitar el caché
+    private static final boolean CACHE_HABILITADO =
+            Configuracion.booleano("estudiantes.cache.habilitado", true) && CAPACIDAD_CACHE > 0;
+
+    private static final EstudianteDAOCache CACHE = new EstudianteDAOCache(
+            INDEXADO,
+            Math.max(1, CAPACIDAD_CACHE),
+            Configuracion.largo("estudiantes.cache.ttlSegundos", 300));
+
+    // Deshabilitado por defecto: la API ya no llama a existePorCedula* (las altas se apoyan en UNIQUE);
+    // solo tiene sentido si otro código que use este DAO las consulta con frecuencia
+    private static final boolean FILTRO_HABILITADO =
+            Configuracion.booleano("estudiantes.filtroCedulas.habilitado", false);
+
+    private static final EstudianteDAOFiltroCedula FILTRO = new EstudianteDAOFiltroCedula(
+            CACHE_HABILITADO ? CACHE : INDEXADO,
+            Configuracion.largo("estudiantes.filtroCedulas.capacidad", 1_000_000),
+            Configuracion.entero("estudiantes.filtroCedulas.falsosPositivosPorMil", 10) / 1000.0);
+
+    // Deshabilitada por defecto: activar/desactivar pasan a responder 202 (se escriben hasta una ventana después)
+    private static final boolean ESCRITURA_DIFERIDA_HABILITADA =
+            Configuracion.booleano("estudiantes.escrituraDiferida.habilitada", false);
+
+    private static final EstudianteDAOEscrituraDiferida DIFERIDA = new EstudianteDAOEscrituraDiferida(
+            FILTRO_HABILITADO ? FILTRO : (CACHE_HABILITADO ? CACHE : INDEXADO),
+            Configuracion.largo("estudiantes.escrituraDiferida.ventanaMs", 200),
+            Configuracion.entero("estudiantes.escrituraDiferida.maxPendientes", 10_000));
+
+    private static final EstudianteDAO SIN_ADMISION = ESCRITURA_DIFERIDA_HABILITADA ? DIFERIDA
+            : (FILTRO_HABILITADO ? FILTRO : (CACHE_HABILITADO ? CACHE : INDEXADO));
+
+    private static final boolean ADMISION_HABILITADA =
+            Configuracion.booleano("estudiantes.admision.habilitada", true);
+
+    // Consultas puntuales: casi siempre en memoria, con un presupuesto propio y amplio
+    private static final LimiteAdaptativo LIMITE_LIGERO = new LimiteAdaptativo("ligero",
+            Configuracion.entero("estudiantes.admision.ligero.limiteInicial", 100),
+            Configuracion.entero("estudiantes.admision.ligero.limiteMinimo", 10),
+            Configuracion.entero("estudiantes.admision.ligero.limiteMaximo", 1000),
+            Configuracion.entero("estudiantes.admision.ligero.maxCola", 200),
+            Configuracion.largo("estudiantes.admision.ligero.esperaMaximaMs", 50));
+
+    // Resto de operaciones: arranca con el tamaño del pool por defecto (20) y crece si la latencia se mantiene
+    private static final LimiteAdaptativo LIMITE_GENERAL = new LimiteAdaptativo("general",
+            Configuracion.entero("estudiantes.admision.general.limiteInicial", 20),
+            Configuracion.entero("estudiantes.admision.general.limiteMinimo", 4),
+            Configuracion.entero("estudiantes.admision.general.limiteMaximo", 100),
+            Configuracion.entero("estudiantes.admision.general.maxCola", 50),
+            Configuracion.largo("estudiantes.admision.general.esperaMaximaMs", 100));
+
+    private static final EstudianteDAOAdmision ADMISION = new EstudianteDAOAdmision(
+            SIN_ADMISION, LIMITE_LIGERO, LIMITE_GENERAL,
+            Configuracion.entero("estudiantes.admision.reintentarEnSegundos", 1));
+
+    private static final EstudianteDAO DAO = ADMISION_HABILITADA ? ADMISION : SIN_ADMISION;
+
+    private EstudianteDAOFactory() {
+    }
+
+    /**
+     * Obtiene el DAO compartido de la aplicación
+     */
+    public static EstudianteDAO obtener() {
+        return DAO;
+    }
+
+    /**
+     * Inicia las capas en memoria (construcción del índice en segundo plano)
+     */
+    public static void iniciar() {
+        if (INDICE_HABILITADO) {
+            INDEXADO.reconstruir();
+        } else {
+            System.out.println("🔎 Índice de búsqueda en memoria deshabilitado (configurado)");
+        }
+        if (FILTRO_HABILITADO) {
+            FILTRO.reconstruir();
+        } else {
+            System.out.println("🔎 Filtro de cédulas deshabilitado (configurado)");
+        }
+        if (ESCRITURA_DIFERIDA_HABILITADA) {
+            DIFERIDA.iniciar();
+            System.out.println("⏱️ Escritura diferida de estados activa (cada "
+                    + Configuracion.largo("estudiantes.escrituraDiferida.ventanaMs", 200) + "ms)");
+        }
+    }
+
+    /**
+     * Indica si activar/desactivar se escriben de forma diferida (el recurso responde 202)
+     */
+    public static boolean isEscrituraDiferida() {
+        return ESCRITURA_DIFERIDA_HABILITADA;
+    }
+
+    /**
+     * Detiene los hilos de las capas en memoria
+     */
+    public static void detener() {
+        // Primero se escriben los cambios pendientes, mientras el resto de la cadena sigue activo
+        if (ESCRITURA_DIFERIDA_HABILITADA) {
+            DIFERIDA.detener();
+        }
+        INDEXADO.detener();
+        FILTRO.detener();
+    }
+
+    /**
+     * Estadísticas del índice de búsqueda en memoria
+     */
+    public static Map<String, Object> getEstadisticasIndice() {
+        return INDEXADO.getEstadisticas();
+    }
+
+    /**
+     * Estadísticas del caché de estudiantes por ID y por cédula
+     */
+    public static Map<String, Object> getEstadisticasCache() {
+        return CACHE.getEstadisticas();
+    }
+
+    /**
+     * Estadísticas del filtro de Bloom de cédulas (incluye la tasa de falsos positivos)
+     */
+    public static Map<String, Object> getEstadisticasFiltroCedulas() {
+        return FILTRO.getEstadisticas();
+    }
+
+    /**
+     * Indica si el control de admisión está activo
+     */
+    public static boolean isAdmision() {
+        return ADMISION_HABILITADA;
+    }
+
+    /**
+     * Estadísticas del control de admisión (límite, en curso, en cola y rechazadas)
+     */
+    public static Map<String, Object> getEstadisticasAdmision() {
+        return ADMISION.getEstadisticas();
+    }
+
+    /**
+     * Estadísticas de la escritura diferida de estados (coalescidos vs escritos)
+     */
+    public static Map<String, Object> getEstadisticasEscrituraDiferida() {
+        return DIFERIDA.getEstadisticas();
+    }
+}
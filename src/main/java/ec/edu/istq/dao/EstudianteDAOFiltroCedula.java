@@ -0,0 +1,363 @@
+package ec.edu.istq.dao;
+
+import ec.edu.istq.cache.BloomFilter;
+import ec.edu.istq.model.Estudiante;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * DAO CON FILTRO DE BLOOM DE CÉDULAS
+ * existePorCedula y existePorCedulaExcluyendo consultan primero un filtro en memoria
+ * con todas las cédulas registradas: si la cédula definitivamente no existe
+ * se responde false sin ir a la base de datos; si posiblemente existe se consulta.
+ *
+ * Es solo una verificación previa: quien la use debe apoyarse en la restricción UNIQUE de cedula
+ * (un falso negativo termina en un conflicto al escribir, no en un dato incorrecto).
+ * Las lecturas (obtenerPorCedula, obtenerPorCedulas) NO pasan por el filtro: ahí un falso negativo
+ * sería un 404 incorrecto y nada lo corregiría.
+ *
+ * Las cédulas se agregan al filtro ANTES de escribir en la base de datos (el filtro vigente
+ * nunca da falsos negativos) y otra vez DESPUÉS: una reconstrucción que empezó durante la escritura
+ * pudo leer la tabla antes del commit, y la segunda vez la cédula entra en el filtro nuevo
+ * (o en el ya publicado). Las dos altas y la publicación se hacen bajo el mismo lock.
+ * Como el filtro no admite eliminar, se reconstruye en segundo
+ * plano cuando se acumulan eliminaciones o se supera su capacidad.
+ *
+ * Deshabilitado por defecto (estudiantes.filtroCedulas.habilitado=true para usarlo): los endpoints
+ * de la API no llaman a existePorCedula*, así que solo sirve a quien use este DAO directamente.
+ * Mientras está habilitado cuesta una carga completa de cédulas al iniciar, memoria para
+ * estudiantes.filtroCedulas.capacidad elementos y dos altas bajo lock en cada escritura.
+ *
+ * Limitación: solo ve las escrituras de esta instancia. Si otras aplicaciones insertan
+ * estudiantes en la misma base de datos, no habilitarlo.
+ */
+public class EstudianteDAOFiltroCedula extends EstudianteDAODecorador {
+
+    // Fracción de eliminaciones (sobre los elementos del filtro) que dispara una reconstrucción
+    private static final double UMBRAL_OBSOLETOS = 0.10;
+
+    private final long capacidadInicial;
+    private final double tasaObjetivo;
+
+    // null = filtro no disponible (todas las consultas van a la base de datos)
+    private volatile BloomFilter filtro;
+    // Filtro en construcción: recibe también las escrituras que llegan durante la carga
+    private volatile BloomFilter construyendo;
+
+    private final ReentrantLock estado = new ReentrantLock();
+    private final LongAdder obsoletos = new LongAdder();
+    // Importaciones en curso: mientras haya alguna el filtro no se usa (COPY no pasa por aquí)
+    private final AtomicInteger importando = new AtomicInteger();
+    private final AtomicLong importaciones = new AtomicLong();
+
+    private final ExecutorService constructor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "filtro-cedulas");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Estadísticas
+    private final LongAdder consultas = new LongAdder();
+    private final LongAdder negativosDefinitivos = new LongAdder();
+    private final LongAdder positivosPosibles = new LongAdder();
+    private final LongAdder falsosPositivos = new LongAdder();
+    private final LongAdder sinFiltro = new LongAdder();
+    private volatile long ultimaConstruccionMs = 0;
+    private volatile String ultimoError = null;
+
+    /**
+     * @param delegado DAO siguiente en la cadena
+     * @param capacidadInicial Cédulas esperadas en la primera carga
+     * @param tasaObjetivo Tasa de falsos positivos deseada (ej: 0.01)
+     */
+    public EstudianteDAOFiltroCedula(EstudianteDAO delegado, long capacidadInicial, double tasaObjetivo) {
+        super(delegado);
+        this.capacidadInicial = capacidadInicial;
+        this.tasaObjetivo = tasaObjetivo;
+    }
+
+    // ==============================================================
+    // CONSTRUCCIÓN DEL FILTRO
+    // ==============================================================
+
+    /**
+     * Programa una carga completa del filtro en segundo plano.
+     * El filtro vigente (si existe) sigue respondiendo hasta que termine.
+     */
+    public void reconstruir() {
+        estado.lock();
+        try {
+            if (construyendo != null) {
+                return;
+            }
+            BloomFilter actual = filtro;
+            long capacidad = Math.max(capacidadInicial, actual != null ? actual.getElementos() * 2 : 0);
+            construyendo = new BloomFilter(capacidad, tasaObjetivo);
+        } finally {
+            estado.unlock();
+        }
+        constructor.submit(this::construir);
+    }
+
+    private void construir() {
+        long inicio = System.currentTimeMillis();
+        BloomFilter nuevo = construyendo;
+        long importacionesAlIniciar = importaciones.get();
+        try {
+            // Solo se leen ID y cédula
+            delegado.recorrerTodos(Proyeccion.CEDULAS, estudiante -> nuevo.agregar(estudiante.getCedula()));
+
+            estado.lock();
+            try {
+                if (importaciones.get() != importacionesAlIniciar) {
+                    // Una importación pudo escribir filas que la carga no vio: se vuelve a cargar
+                    construyendo = new BloomFilter(nuevo.getCapacidad(), tasaObjetivo);
+                    constructor.submit(this::construir);
+                    return;
+                }
+                filtro = nuevo;
+                construyendo = null;
+                obsoletos.reset();
+            } finally {
+                estado.unlock();
+            }
+
+            ultimaConstruccionMs = System.currentTimeMillis() - inicio;
+            ultimoError = null;
+            System.out.println("✅ Filtro de cédulas listo: " + nuevo.getElementos() + " cédulas, "
+                    + nuevo.getTotalBits() / 8 / 1024 + " KB en " + ultimaConstruccionMs + "ms");
+        } catch (Exception e) {
+            estado.lock();
+            try {
+                construyendo = null;
+            } finally {
+                estado.unlock();
+            }
+            ultimoError = e.getMessage();
+            System.err.println("⚠️ No se pudo cargar el filtro de cédulas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Agrega cédulas al filtro vigente y al que se está construyendo.
+     * Bajo el lock de estado: no se cruza con la publicación de un filtro nuevo.
+     */
+    private void agregar(List<String> cedulas) {
+        boolean lleno = false;
+        estado.lock();
+        try {
+            BloomFilter actual = filtro;
+            BloomFilter nuevo = construyendo;
+            for (String cedula : cedulas) {
+                if (cedula == null) {
+                    continue;
+                }
+                if (actual != null) {
+                    actual.agregar(cedula);
+                }
+                if (nuevo != null) {
+                    nuevo.agregar(cedula);
+                }
+            }
+            lleno = actual != null && actual.getElementos() > actual.getCapacidad();
+        } finally {
+            estado.unlock();
+        }
+        if (lleno) {
+            reconstruir();
+        }
+    }
+
+    /**
+     * Agrega las cédulas antes y después de la escritura (ver la descripción de la clase)
+     */
+    private <T> T escribir(List<String> cedulas, Escritura<T> escritura) throws SQLException {
+        agregar(cedulas);
+        try {
+            return escritura.ejecutar();
+        } finally {
+            agregar(cedulas);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Escritura<T> {
+        T ejecutar() throws SQLException;
+    }
+
+    /**
+     * Detiene el hilo de construcción (al replegar la aplicación)
+     */
+    public void detener() {
+        constructor.shutdownNow();
+    }
+
+    // ==============================================================
+    // VERIFICACIÓN DE CÉDULAS
+    // ==============================================================
+
+    @Override
+    public boolean existePorCedula(String cedula) throws SQLException {
+        BloomFilter actual = filtroActivo();
+        if (descartada(actual, cedula)) {
+            return false;
+        }
+        return confirmar(actual, delegado.existePorCedula(cedula));
+    }
+
+    @Override
+    public boolean existePorCedulaExcluyendo(String cedula, Long idExcluir) throws SQLException {
+        BloomFilter actual = filtroActivo();
+        if (descartada(actual, cedula)) {
+            return false;
+        }
+        return confirmar(actual, delegado.existePorCedulaExcluyendo(cedula, idExcluir));
+    }
+
+    /**
+     * Filtro que se puede consultar ahora, o null (sin cargar o con una importación en curso)
+     */
+    private BloomFilter filtroActivo() {
+        BloomFilter actual = filtro;
+        return (actual == null || importando.get() > 0) ? null : actual;
+    }
+
+    /**
+     * @param actual Filtro consultado (filtroActivo()), o null si no se usa
+     * @return true si el filtro asegura que la cédula no existe
+     */
+    private boolean descartada(BloomFilter actual, String cedula) {
+        consultas.increment();
+        if (actual == null) {
+            sinFiltro.increment();
+            return false;
+        }
+        if (!actual.podriaContener(cedula)) {
+            negativosDefinitivos.increment();
+            return true;
+        }
+        positivosPosibles.increment();
+        return false;
+    }
+
+    /**
+     * Cuenta un falso positivo solo si el filtro se consultó y la base de datos no encontró la cédula
+     */
+    private boolean confirmar(BloomFilter actual, boolean existe) {
+        if (!existe && actual != null) {
+            falsosPositivos.increment();
+        }
+        return existe;
+    }
+
+    // ==============================================================
+    // MANTENIMIENTO EN ESCRITURAS
+    // ==============================================================
+
+    @Override
+    public Estudiante crear(Estudiante estudiante) throws SQLException {
+        return escribir(Collections.singletonList(estudiante.getCedula()), () -> delegado.crear(estudiante));
+    }
+
+    @Override
+    public boolean guardarPorCedula(Estudiante estudiante) throws SQLException {
+        return escribir(Collections.singletonList(estudiante.getCedula()), () -> delegado.guardarPorCedula(estudiante));
+    }
+
+    @Override
+    public int crearLote(List<Estudiante> estudiantes) throws SQLException {
+        List<String> cedulas = new ArrayList<>(estudiantes.size());
+        for (Estudiante estudiante : estudiantes) {
+            cedulas.add(estudiante.getCedula());
+        }
+        return escribir(cedulas, () -> delegado.crearLote(estudiantes));
+    }
+
+    @Override
+    public Map<String, Object> importarCsv(InputStream csv) throws SQLException, IOException {
+        // COPY no pasa por este DAO: sin filtro durante la importación y se recarga al terminar
+        importando.incrementAndGet();
+        importaciones.incrementAndGet();
+        try {
+            return delegado.importarCsv(csv);
+        } finally {
+            reconstruir();
+            importando.decrementAndGet();
+        }
+    }
+
+    @Override
+    public Estudiante actualizar(Estudiante estudiante) throws SQLException {
+        Estudiante actualizado = escribir(Collections.singletonList(estudiante.getCedula()),
+                () -> delegado.actualizar(estudiante));
+        if (actualizado != null) {
+            // La cédula anterior pudo cambiar y queda como falso positivo en el filtro
+            registrarObsoleto();
+        }
+        return actualizado;
+    }
+
+    @Override
+    public boolean eliminar(Long id) throws SQLException {
+        boolean eliminado = delegado.eliminar(id);
+        if (eliminado) {
+            registrarObsoleto();
+        }
+        return eliminado;
+    }
+
+    private void registrarObsoleto() {
+        obsoletos.increment();
+        BloomFilter actual = filtro;
+        if (actual != null && obsoletos.sum() > Math.max(1000, actual.getElementos() * UMBRAL_OBSOLETOS)) {
+            reconstruir();
+        }
+    }
+
+    // ==============================================================
+    // ESTADÍSTICAS
+    // ==============================================================
+
+    /**
+     * Estado del filtro y tasa de falsos positivos observada y estimada
+     */
+    public Map<String, Object> getEstadisticas() {
+        Map<String, Object> stats = new HashMap<>();
+        BloomFilter actual = filtro;
+        long negativos = negativosDefinitivos.sum();
+        long falsos = falsosPositivos.sum();
+
+        stats.put("estado", actual != null ? "listo" : (construyendo != null ? "cargando" : "deshabilitado"));
+        stats.put("reconstruyendo", actual != null && construyendo != null);
+        stats.put("cedulas", actual != null ? actual.getElementos() : 0L);
+        stats.put("capacidad", actual != null ? actual.getCapacidad() : 0L);
+        stats.put("bytes", actual != null ? actual.getTotalBits() / 8 : 0L);
+        stats.put("hashes", actual != null ? actual.getHashes() : 0);
+        stats.put("obsoletos", obsoletos.sum());
+        stats.put("consultas", consultas.sum());
+        stats.put("negativosDefinitivos", negativos);
+        stats.put("positivosPosibles", positivosPosibles.sum());
+        stats.put("falsosPositivos", falsos);
+        stats.put("sinFiltro", sinFiltro.sum());
+        // Falsos positivos sobre todas las cédulas que realmente no existían
+        stats.put("tasaFalsosPositivos", negativos + falsos > 0 ? (double) falsos / (negativos + falsos) : 0.0);
+        stats.put("tasaFalsosPositivosEstimada", actual != null ? actual.tasaFalsosPositivosEstimada() : 0.0);
+        stats.put("tasaFalsosPositivosObjetivo", tasaObjetivo);
+        stats.put("ultimaConstruccionMs", ultimaConstruccionMs);
+        stats.put("ultimoError", ultimoError);
+        return stats;
+    }
+}
@@ -2,49 +2,139 @@ package ec.edu.istq.dao;
 
 import ec.edu.istq.model.Estudiante;
 import ec.edu.istq.util.DatabaseConnection;
+import org.postgresql.util.PSQLException;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * IMPLEMENTACIÓN CONCRETA DEL DAO PARA ESTUDIANTE
  * Implementa las operaciones CRUD usando JDBC y PostgreSQL.
  * Usa PreparedStatements para prevenir SQL Injection.
  * Maneja recursos con try-with-resources para evitar leaks.
+ * Listados, consultas por ID/cédula y búsquedas leen de una réplica si hay (getConnectionLectura);
+ * escrituras, verificaciones de existencia y recorridos completos usan siempre la principal.
  */
 public class EstudianteDAOImpl implements EstudianteDAO {
 
+    // Filas que el cursor del servidor trae en cada viaje (modo streaming)
+    private static final int FILAS_POR_LOTE_CURSOR = 500;
+
+    // Filas por sentencia en cambios de estado masivos (cada bloque se confirma por separado)
+    private static final int FILAS_POR_CAMBIO_ESTADO = 1000;
+
+    // Filas por sentencia en inserciones masivas (7 parámetros por fila, límite del protocolo: 32767)
+    private static final int FILAS_POR_INSERT_LOTE = 500;
+
     // ==============================================================
     // CONSTANTES SQL (QUERIES PREPARADAS)
     // ==============================================================
 
+    // Columnas explícitas en orden fijo: mapearEstudiante las lee por posición (1..11)
+    private static final String COLUMNAS = Proyeccion.COMPLETA.columnas();
+
     private static final String SQL_SELECT_TODOS =
-            "SELECT * FROM estudiantes ORDER BY id DESC";
+            "SELECT " + COLUMNAS + " FROM estudiantes ORDER BY id DESC";
+
+    private static final String SQL_SELECT_PAGINA_INICIAL =
+            "SELECT " + COLUMNAS + " FROM estudiantes ORDER BY id DESC LIMIT ?";
+
+    private static final String SQL_SELECT_PAGINA =
+            "SELECT " + COLUMNAS + " FROM estudiantes WHERE id < ? ORDER BY id DESC LIMIT ?";
 
     private static final String SQL_SELECT_POR_ID =
-            "SELECT * FROM estudiantes WHERE id = ?";
+            "SELECT " + COLUMNAS + " FROM estudiantes WHERE id = ?";
+
+    // Versiones para ETag / Last-Modified: solo la fecha, sin leer ni mapear la fila completa
+    private static final String SQL_FECHA_ACTUALIZACION =
+            "SELECT COALESCE(fecha_actualizacion, fecha_creacion) FROM estudiantes WHERE id = ?";
+
+    // Dos subconsultas (mismo snapshot): así el MAX usa el índice de EsquemaVersion leyendo una sola entrada.
+    // fecha_actualizacion usa clock_timestamp(), pero dos escrituras concurrentes pueden confirmar en orden
+    // inverso a sus fechas: la del commit posterior con fecha menor no mueve el MAX (ni el total, si actualiza).
+    private static final String SQL_VERSION_COLECCION =
+            "SELECT (SELECT COUNT(*) FROM estudiantes), " +
+                    "(SELECT MAX(COALESCE(fecha_actualizacion, fecha_creacion)) FROM estudiantes)";
 
     private static final String SQL_SELECT_POR_CEDULA =
-            "SELECT * FROM estudiantes WHERE cedula = ?";
+            "SELECT " + COLUMNAS + " FROM estudiantes WHERE cedula = ?";
+
+    // Varios estudiantes en un viaje: el arreglo JDBC viaja como un solo parámetro
+    private static final String SQL_SELECT_POR_IDS =
+            "SELECT " + COLUMNAS + " FROM estudiantes WHERE id = ANY(?)";
 
+    private static final String SQL_SELECT_POR_CEDULAS =
+            "SELECT " + COLUMNAS + " FROM estudiantes WHERE cedula = ANY(?)";
+
+    // Una sola sentencia: si la cédula ya existe no inserta y no retorna filas
     private static final String SQL_INSERT =
             "INSERT INTO estudiantes (cedula, nombres, apellidos, email, telefono, carrera, nivel) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?) RETURNING id, fecha_creacion, fecha_actualizacion";
-
+                    "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT (cedula) DO NOTHING " +
+                    "RETURNING id, fecha_creacion, fecha_actualizacion";
+
+    // Inserta o actualiza por cédula; xmax = 0 solo en filas recién insertadas.
+    // activo null: el estudiante nuevo queda activo y el existente conserva su estado
+    private static final String SQL_UPSERT_CEDULA =
+            "INSERT INTO estudiantes (cedula, nombres, apellidos, email, telefono, carrera, nivel, activo) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, COALESCE(?::boolean, true)) ON CONFLICT (cedula) DO UPDATE SET " +
+                    "nombres = EXCLUDED.nombres, apellidos = EXCLUDED.apellidos, email = EXCLUDED.email, " +
+                    "telefono = EXCLUDED.telefono, carrera = EXCLUDED.carrera, nivel = EXCLUDED.nivel, " +
+                    "activo = COALESCE(?::boolean, estudiantes.activo), fecha_actualizacion = clock_timestamp() " +
+                    "RETURNING id, fecha_creacion, fecha_actualizacion, (xmax = 0) AS insertado, activo";
+
+    private static final String SQL_INSERT_LOTE_INICIO =
+            "INSERT INTO estudiantes (cedula, nombres, apellidos, email, telefono, carrera, nivel) VALUES ";
+
+    private static final String SQL_INSERT_LOTE_FIN =
+            " ON CONFLICT (cedula) DO NOTHING RETURNING id, cedula, fecha_creacion, fecha_actualizacion";
+
+    // Sin filas retornadas = no existe el ID; cédula repetida = violación de la restricción única.
+    // activo null (no enviado en el PUT) conserva el estado actual
     private static final String SQL_UPDATE =
             "UPDATE estudiantes SET cedula = ?, nombres = ?, apellidos = ?, " +
-                    "email = ?, telefono = ?, carrera = ?, nivel = ?, activo = ? WHERE id = ?";
+                    "email = ?, telefono = ?, carrera = ?, nivel = ?, activo = COALESCE(?, activo), " +
+                    "fecha_actualizacion = clock_timestamp() WHERE id = ? " +
+                    "RETURNING " + COLUMNAS;
 
     private static final String SQL_DELETE =
-            "DELETE FROM estudiantes WHERE id = ?";
+            "DELETE FROM estudiantes WHERE id = ? RETURNING id";
+
+    // SQLState de PostgreSQL para violación de restricción única
+    private static final String SQLSTATE_UNICO = "23505";
 
     private static final String SQL_CAMBIAR_ESTADO =
-            "UPDATE estudiantes SET activo = ? WHERE id = ?";
+            "UPDATE estudiantes SET activo = ?, fecha_actualizacion = clock_timestamp() WHERE id = ?";
 
-    private static final String SQL_BUSCAR =
-            "SELECT * FROM estudiantes WHERE nombres LIKE ? OR apellidos LIKE ? OR " +
-                    "cedula LIKE ? OR email LIKE ? OR carrera LIKE ?";
+    private static final String SQL_CAMBIAR_ESTADO_LOTE =
+            "UPDATE estudiantes SET activo = ?, fecha_actualizacion = clock_timestamp() WHERE id = ANY(?) RETURNING id";
+
+    // Cada ejecución toma el siguiente bloque que aún no tiene el estado pedido
+    private static final String SQL_CAMBIAR_ESTADO_FILTRO =
+            "UPDATE estudiantes SET activo = ?, fecha_actualizacion = clock_timestamp() " +
+                    "WHERE id IN (SELECT id FROM estudiantes " +
+                    "WHERE activo IS DISTINCT FROM ? AND (?::text IS NULL OR carrera = ?) " +
+                    "AND (?::int IS NULL OR nivel = ?) ORDER BY id LIMIT ?) RETURNING id";
+
+    // Búsqueda indexada (ver EsquemaBusqueda): índice GIN de trigramas sobre el documento normalizado
+    private static final String SQL_BUSCAR_INDEXADO_BASE =
+            "SELECT " + COLUMNAS + ", word_similarity(estudiantes_normalizar(?), " +
+                    "estudiantes_documento(nombres, apellidos, cedula, email, carrera)) AS relevancia " +
+                    "FROM estudiantes WHERE estudiantes_documento(nombres, apellidos, cedula, email, carrera) " +
+                    "LIKE '%' || estudiantes_normalizar(?) || '%' ORDER BY relevancia DESC, id DESC";
+
+    private static final String SQL_BUSCAR_INDEXADO = SQL_BUSCAR_INDEXADO_BASE + " LIMIT ? OFFSET ?";
+
+    // Búsqueda básica (sin índice), usada si no se pudo preparar la indexada
+    private static final String SQL_BUSCAR_BASICO_BASE =
+            "SELECT " + COLUMNAS + " FROM estudiantes WHERE nombres ILIKE ? OR apellidos ILIKE ? OR " +
+                    "cedula ILIKE ? OR email ILIKE ? OR carrera ILIKE ? ORDER BY id DESC";
+
+    private static final String SQL_BUSCAR_BASICO = SQL_BUSCAR_BASICO_BASE + " LIMIT ? OFFSET ?";
 
     private static final String SQL_EXISTE_CEDULA =
             "SELECT COUNT(*) FROM estudiantes WHERE cedula = ?";
@@ -57,16 +147,16 @@ public class EstudianteDAOImpl implements EstudianteDAO {
     // ==============================================================
 
     @Override
-    public List<Estudiante> obtenerTodos() throws SQLException {
+    public List<Estudiante> obtenerTodos(Proyeccion proyeccion) throws SQLException {
         List<Estudiante> estudiantes = new ArrayList<>();
 
         // try-with-resources asegura el cierre automático de recursos
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnectionLectura();
              Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(SQL_SELECT_TODOS)) {
+             ResultSet rs = stmt.executeQuery(sqlTodos(proyeccion))) {
 
             while (rs.next()) {
-                estudiantes.add(mapearEstudiante(rs));
+                estudiantes.add(mapear(rs, proyeccion));
             }
 
         } catch (SQLException e) {
@@ -77,11 +167,51 @@ public class EstudianteDAOImpl implements EstudianteDAO {
         return estudiantes;
     }
 
+    @Override
+    public List<Estudiante> obtenerPagina(Long despuesDeId, int limite, Proyeccion proyeccion) throws SQLException {
+        List<Estudiante> estudiantes = new ArrayList<>(limite);
+        String sql = (despuesDeId == null) ? SQL_SELECT_PAGINA_INICIAL : SQL_SELECT_PAGINA;
+        if (!proyeccion.esCompleta()) {
+            sql = sql.replace(COLUMNAS, proyeccion.columnas());
+        }
+
+        try (Connection conn = DatabaseConnection.getConnectionLectura();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            int indice = 1;
+            if (despuesDeId != null) {
+                pstmt.setLong(indice++, despuesDeId);
+            }
+            pstmt.setInt(indice, limite);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    estudiantes.add(mapear(rs, proyeccion));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error al obtener página de estudiantes: " + e.getMessage());
+            throw e;
+        }
+
+        return estudiantes;
+    }
+
+    @Override
+    public void recorrerTodos(Proyeccion proyeccion, ConsumidorEstudiante consumidor) throws SQLException, IOException {
+        recorrerConCursor(sqlTodos(proyeccion), proyeccion, consumidor);
+    }
+
+    private String sqlTodos(Proyeccion proyeccion) {
+        return proyeccion.esCompleta() ? SQL_SELECT_TODOS : SQL_SELECT_TODOS.replace(COLUMNAS, proyeccion.columnas());
+    }
+
     @Override
     public Estudiante obtenerPorId(Long id) throws SQLException {
         Estudiante estudiante = null;
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnectionLectura();
              PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_POR_ID)) {
 
             pstmt.setLong(1, id); // Asignar parámetro al primer ?
@@ -103,7 +233,7 @@ public class EstudianteDAOImpl implements EstudianteDAO {
     public Estudiante obtenerPorCedula(String cedula) throws SQLException {
         Estudiante estudiante = null;
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnectionLectura();
              PreparedStatement pstmt = conn.prepareStatement(SQL_SELECT_POR_CEDULA)) {
 
             pstmt.setString(1, cedula);
@@ -121,6 +251,87 @@ public class EstudianteDAOImpl implements EstudianteDAO {
         return estudiante;
     }
 
+    @Override
+    public List<Estudiante> obtenerPorIds(List<Long> ids) throws SQLException {
+        return obtenerPorArreglo(SQL_SELECT_POR_IDS, "bigint", ids.toArray(new Long[0]));
+    }
+
+    @Override
+    public List<Estudiante> obtenerPorCedulas(List<String> cedulas) throws SQLException {
+        return obtenerPorArreglo(SQL_SELECT_POR_CEDULAS, "text", cedulas.toArray(new String[0]));
+    }
+
+    /**
+     * Ejecuta una consulta cuyo único parámetro es un arreglo de PostgreSQL
+     * @param sql Consulta con "= ANY(?)"
+     * @param tipo Tipo SQL de los elementos del arreglo
+     * @param valores Elementos del arreglo
+     */
+    private List<Estudiante> obtenerPorArreglo(String sql, String tipo, Object[] valores) throws SQLException {
+        List<Estudiante> estudiantes = new ArrayList<>(valores.length);
+        if (valores.length == 0) {
+            return estudiantes;
+        }
+
+        try (Connection conn = DatabaseConnection.getConnectionLectura();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            Array arreglo = conn.createArrayOf(tipo, valores);
+            try {
+                pstmt.setArray(1, arreglo);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        estudiantes.add(mapearEstudiante(rs));
+                    }
+                }
+            } finally {
+                arreglo.free();
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error al obtener varios estudiantes: " + e.getMessage());
+            throw e;
+        }
+
+        return estudiantes;
+    }
+
+    @Override
+    public Timestamp obtenerFechaActualizacion(Long id) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnectionLectura();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_FECHA_ACTUALIZACION)) {
+
+            pstmt.setLong(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                // Sin fechas registradas se usa el inicio de la época: el ETag sigue siendo válido
+                return rs.next() ? valorOEpoca(rs.getTimestamp(1)) : null;
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error al obtener versión del estudiante: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    @Override
+    public VersionColeccion obtenerVersionColeccion() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnectionLectura();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_VERSION_COLECCION);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            rs.next();
+            return new VersionColeccion(rs.getLong(1), rs.getTimestamp(2));
+
+        } catch (SQLException e) {
+            System.err.println("Error al obtener versión de estudiantes: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    private static Timestamp valorOEpoca(Timestamp fecha) {
+        return fecha != null ? fecha : new Timestamp(0);
+    }
+
     // ==============================================================
     // IMPLEMENTACIÓN DE MÉTODOS DE MANIPULACIÓN
     // ==============================================================
@@ -144,10 +355,14 @@ public class EstudianteDAOImpl implements EstudianteDAO {
 
             if (rs.next()) {
                 // PostgreSQL retorna los valores especificados en RETURNING
-                estudiante.setId(rs.getLong("id"));
-                estudiante.setFechaCreacion(rs.getTimestamp("fecha_creacion"));
-                estudiante.setFechaActualizacion(rs.getTimestamp("fecha_actualizacion"));
+                estudiante.setId(rs.getLong(1));
+                estudiante.setActivo(true); // Los estudiantes nuevos se crean activos (default de la columna)
+                estudiante.setFechaCreacion(rs.getTimestamp(2));
+                estudiante.setFechaActualizacion(rs.getTimestamp(3));
                 System.out.println("Estudiante creado con ID: " + estudiante.getId());
+            } else {
+                // Sin filas: la cédula ya estaba registrada
+                estudiante.setId(null);
             }
 
         } catch (SQLException e) {
@@ -159,7 +374,119 @@ public class EstudianteDAOImpl implements EstudianteDAO {
     }
 
     @Override
-    public boolean actualizar(Estudiante estudiante) throws SQLException {
+    public boolean guardarPorCedula(Estudiante estudiante) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_UPSERT_CEDULA)) {
+
+            pstmt.setString(1, estudiante.getCedula());
+            pstmt.setString(2, estudiante.getNombres());
+            pstmt.setString(3, estudiante.getApellidos());
+            pstmt.setString(4, estudiante.getEmail());
+            pstmt.setString(5, estudiante.getTelefono());
+            pstmt.setString(6, estudiante.getCarrera());
+            pstmt.setInt(7, estudiante.getNivel());
+            pstmt.setObject(8, estudiante.getActivo(), Types.BOOLEAN);
+            pstmt.setObject(9, estudiante.getActivo(), Types.BOOLEAN);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next(); // ON CONFLICT DO UPDATE siempre retorna la fila
+                estudiante.setId(rs.getLong(1));
+                estudiante.setActivo(rs.getBoolean(5));
+                estudiante.setFechaCreacion(rs.getTimestamp(2));
+                estudiante.setFechaActualizacion(rs.getTimestamp(3));
+                boolean insertado = rs.getBoolean(4);
+                System.out.println("Estudiante " + (insertado ? "creado" : "actualizado")
+                        + " por cédula: ID " + estudiante.getId());
+                return insertado;
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error al guardar estudiante por cédula: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    @Override
+    public int crearLote(List<Estudiante> estudiantes) throws SQLException {
+        int insertados = 0;
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try {
+                for (int desde = 0; desde < estudiantes.size(); desde += FILAS_POR_INSERT_LOTE) {
+                    List<Estudiante> bloque = estudiantes.subList(desde,
+                            Math.min(desde + FILAS_POR_INSERT_LOTE, estudiantes.size()));
+                    insertados += insertarBloque(conn, bloque);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                // Ningún estudiante quedó creado
+                for (Estudiante estudiante : estudiantes) {
+                    estudiante.setId(null);
+                }
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error al crear lote de estudiantes: " + e.getMessage());
+            throw e;
+        }
+
+        System.out.println("Lote creado: " + insertados + " de " + estudiantes.size() + " estudiantes");
+        return insertados;
+    }
+
+    /**
+     * Inserta un bloque con un único INSERT ... VALUES (...), (...) RETURNING
+     * y asigna ID y fechas a los estudiantes insertados (se emparejan por cédula).
+     */
+    private int insertarBloque(Connection conn, List<Estudiante> bloque) throws SQLException {
+        StringBuilder sql = new StringBuilder(SQL_INSERT_LOTE_INICIO);
+        for (int i = 0; i < bloque.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?, ?)");
+        }
+        sql.append(SQL_INSERT_LOTE_FIN);
+
+        Map<String, Estudiante> porCedula = new HashMap<>(bloque.size() * 2);
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            int p = 1;
+            for (Estudiante estudiante : bloque) {
+                porCedula.put(estudiante.getCedula(), estudiante);
+                pstmt.setString(p++, estudiante.getCedula());
+                pstmt.setString(p++, estudiante.getNombres());
+                pstmt.setString(p++, estudiante.getApellidos());
+                pstmt.setString(p++, estudiante.getEmail());
+                pstmt.setString(p++, estudiante.getTelefono());
+                pstmt.setString(p++, estudiante.getCarrera());
+                pstmt.setInt(p++, estudiante.getNivel());
+            }
+
+            int insertados = 0;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Estudiante estudiante = porCedula.get(rs.getString(2));
+                    if (estudiante != null) {
+                        estudiante.setId(rs.getLong(1));
+                        estudiante.setActivo(true);
+                        estudiante.setFechaCreacion(rs.getTimestamp(3));
+                        estudiante.setFechaActualizacion(rs.getTimestamp(4));
+                        insertados++;
+                    }
+                }
+            }
+            return insertados;
+        }
+    }
+
+    @Override
+    public Map<String, Object> importarCsv(InputStream csv) throws SQLException, IOException {
+        return new EstudianteImportador().importar(csv);
+    }
+
+    @Override
+    public Estudiante actualizar(Estudiante estudiante) throws SQLException {
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(SQL_UPDATE)) {
 
@@ -171,18 +498,21 @@ public class EstudianteDAOImpl implements EstudianteDAO {
             pstmt.setString(5, estudiante.getTelefono());
             pstmt.setString(6, estudiante.getCarrera());
             pstmt.setInt(7, estudiante.getNivel());
-            pstmt.setBoolean(8, estudiante.getActivo());
+            pstmt.setObject(8, estudiante.getActivo(), Types.BOOLEAN); // null = conservar el estado
             pstmt.setLong(9, estudiante.getId());
 
-            int filasActualizadas = pstmt.executeUpdate();
-
-            if (filasActualizadas > 0) {
-                System.out.println("Estudiante actualizado: ID " + estudiante.getId());
-                return true;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    System.out.println("Estudiante actualizado: ID " + estudiante.getId());
+                    return mapearEstudiante(rs);
+                }
+                return null;
             }
-            return false;
 
         } catch (SQLException e) {
+            if (esCedulaDuplicada(e)) {
+                throw new CedulaDuplicadaException(estudiante.getCedula(), e);
+            }
             System.err.println("Error al actualizar estudiante: " + e.getMessage());
             throw e;
         }
@@ -194,13 +524,14 @@ public class EstudianteDAOImpl implements EstudianteDAO {
              PreparedStatement pstmt = conn.prepareStatement(SQL_DELETE)) {
 
             pstmt.setLong(1, id);
-            int filasEliminadas = pstmt.executeUpdate();
 
-            if (filasEliminadas > 0) {
-                System.out.println("Estudiante eliminado: ID " + id);
-                return true;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    System.out.println("Estudiante eliminado: ID " + id);
+                    return true;
+                }
+                return false;
             }
-            return false;
 
         } catch (SQLException e) {
             System.err.println("Error al eliminar estudiante: " + e.getMessage());
@@ -249,29 +580,100 @@ public class EstudianteDAOImpl implements EstudianteDAO {
         }
     }
 
+    @Override
+    public List<Long> cambiarEstadoLote(List<Long> ids, boolean activo) throws SQLException {
+        List<Long> actualizados = new ArrayList<>(ids.size());
+
+        // Una conexión para todos los bloques; cada bloque es una transacción corta
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_CAMBIAR_ESTADO_LOTE)) {
+
+            for (int desde = 0; desde < ids.size(); desde += FILAS_POR_CAMBIO_ESTADO) {
+                List<Long> bloque = ids.subList(desde, Math.min(desde + FILAS_POR_CAMBIO_ESTADO, ids.size()));
+                Array arreglo = conn.createArrayOf("bigint", bloque.toArray(new Long[0]));
+                try {
+                    pstmt.setBoolean(1, activo);
+                    pstmt.setArray(2, arreglo);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            actualizados.add(rs.getLong(1));
+                        }
+                    }
+                } finally {
+                    arreglo.free();
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error al cambiar estado de varios estudiantes: " + e.getMessage());
+            throw e;
+        }
+
+        System.out.println("Estado cambiado a " + (activo ? "ACTIVO" : "INACTIVO") + ": "
+                + actualizados.size() + " de " + ids.size() + " estudiantes");
+        return actualizados;
+    }
+
+    @Override
+    public List<Long> cambiarEstadoPorFiltro(String carrera, Integer nivel, boolean activo) throws SQLException {
+        List<Long> actualizados = new ArrayList<>();
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SQL_CAMBIAR_ESTADO_FILTRO)) {
+
+            int filas;
+            do {
+                pstmt.setBoolean(1, activo);
+                pstmt.setBoolean(2, activo);
+                pstmt.setString(3, carrera);
+                pstmt.setString(4, carrera);
+                pstmt.setObject(5, nivel, Types.INTEGER);
+                pstmt.setObject(6, nivel, Types.INTEGER);
+                pstmt.setInt(7, FILAS_POR_CAMBIO_ESTADO);
+
+                filas = 0;
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        actualizados.add(rs.getLong(1));
+                        filas++;
+                    }
+                }
+            } while (filas == FILAS_POR_CAMBIO_ESTADO);
+
+        } catch (SQLException e) {
+            System.err.println("Error al cambiar estado por filtro: " + e.getMessage());
+            throw e;
+        }
+
+        System.out.println("Estado cambiado a " + (activo ? "ACTIVO" : "INACTIVO") + " por filtro (carrera="
+                + carrera + ", nivel=" + nivel + "): " + actualizados.size() + " estudiantes");
+        return actualizados;
+    }
+
     // ==============================================================
     // IMPLEMENTACIÓN DE MÉTODOS DE BÚSQUEDA Y VERIFICACIÓN
     // ==============================================================
 
     @Override
-    public List<Estudiante> buscar(String termino) throws SQLException {
+    public List<Estudiante> buscar(String termino, int limite, int desplazamiento) throws SQLException {
         List<Estudiante> estudiantes = new ArrayList<>();
+        boolean indexada = EsquemaBusqueda.isIndexada();
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(SQL_BUSCAR)) {
-
-            // Búsqueda con wildcards para búsqueda parcial
-            String terminoBusqueda = "%" + termino + "%";
-            pstmt.setString(1, terminoBusqueda); // nombres
-            pstmt.setString(2, terminoBusqueda); // apellidos
-            pstmt.setString(3, terminoBusqueda); // cedula
-            pstmt.setString(4, terminoBusqueda); // email
-            pstmt.setString(5, terminoBusqueda); // carrera
+        try (Connection conn = DatabaseConnection.getConnectionLectura();
+             PreparedStatement pstmt = conn.prepareStatement(indexada ? SQL_BUSCAR_INDEXADO : SQL_BUSCAR_BASICO)) {
 
-            ResultSet rs = pstmt.executeQuery();
+            String[] parametros = parametrosBusqueda(termino, indexada);
+            int indice = 1;
+            for (String parametro : parametros) {
+                pstmt.setString(indice++, parametro);
+            }
+            pstmt.setInt(indice++, limite);
+            pstmt.setInt(indice, desplazamiento);
 
-            while (rs.next()) {
-                estudiantes.add(mapearEstudiante(rs));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    estudiantes.add(mapearEstudiante(rs));
+                }
             }
 
         } catch (SQLException e) {
@@ -282,6 +684,32 @@ public class EstudianteDAOImpl implements EstudianteDAO {
         return estudiantes;
     }
 
+    @Override
+    public void recorrerBusqueda(String termino, ConsumidorEstudiante consumidor) throws SQLException, IOException {
+        boolean indexada = EsquemaBusqueda.isIndexada();
+        recorrerConCursor(indexada ? SQL_BUSCAR_INDEXADO_BASE : SQL_BUSCAR_BASICO_BASE, Proyeccion.COMPLETA,
+                consumidor, parametrosBusqueda(termino, indexada));
+    }
+
+    /**
+     * Prepara los parámetros de búsqueda escapando los comodines de LIKE (%, _ y \)
+     * @param termino Texto ingresado por el usuario
+     * @param indexada true para la consulta indexada (2 parámetros), false para la básica (5)
+     */
+    private String[] parametrosBusqueda(String termino, boolean indexada) {
+        String escapado = termino.trim()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+
+        if (indexada) {
+            // La consulta agrega los % y normaliza (minúsculas, sin tildes) en el servidor
+            return new String[]{termino.trim(), escapado};
+        }
+        String patron = "%" + escapado + "%";
+        return new String[]{patron, patron, patron, patron, patron};
+    }
+
     @Override
     public boolean existePorCedula(String cedula) throws SQLException {
         return verificarExistenciaCedula(cedula, null);
@@ -326,25 +754,105 @@ public class EstudianteDAOImpl implements EstudianteDAO {
     // MÉTODOS AUXILIARES
     // ==============================================================
 
+    /**
+     * Indica si el error es la violación de la restricción única de la cédula
+     * (si el servidor informa el nombre de la restricción, debe referirse a la cédula)
+     */
+    private boolean esCedulaDuplicada(SQLException e) {
+        if (!SQLSTATE_UNICO.equals(e.getSQLState())) {
+            return false;
+        }
+        if (e instanceof PSQLException && ((PSQLException) e).getServerErrorMessage() != null) {
+            String restriccion = ((PSQLException) e).getServerErrorMessage().getConstraint();
+            return restriccion == null || restriccion.contains("cedula");
+        }
+        return true;
+    }
+
+    /**
+     * EJECUTA UNA CONSULTA CON CURSOR DEL SERVIDOR
+     * PostgreSQL solo usa cursor (fetchSize) si autocommit está desactivado;
+     * así las filas llegan por lotes y se entregan al consumidor una a una.
+     * @param sql Consulta a ejecutar
+     * @param proyeccion Columnas que trae la consulta
+     * @param consumidor Recibe cada estudiante
+     * @param parametros Parámetros de texto de la consulta, en orden
+     */
+    private void recorrerConCursor(String sql, Proyeccion proyeccion, ConsumidorEstudiante consumidor,
+                                   String... parametros)
+            throws SQLException, IOException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+                pstmt.setFetchSize(FILAS_POR_LOTE_CURSOR);
+                for (int i = 0; i < parametros.length; i++) {
+                    pstmt.setString(i + 1, parametros[i]);
+                }
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        consumidor.aceptar(mapear(rs, proyeccion));
+                    }
+                }
+            }
+
+            conn.commit();
+
+        } catch (SQLException e) {
+            System.err.println("Error al recorrer estudiantes con cursor: " + e.getMessage());
+            throw e;
+        }
+    }
+
     /**
      * MAPEA UN RESULTSET A UN OBJETO ESTUDIANTE
-     * Convierte filas de base de datos a objetos Java
+     * Convierte filas de base de datos a objetos Java.
+     * Lee por posición (las consultas listan las columnas en el orden de COLUMNAS),
+     * evitando la búsqueda de cada columna por nombre en cada fila.
      * @param rs ResultSet con los datos de la fila actual
      * @return Objeto Estudiante mapeado
      */
     private Estudiante mapearEstudiante(ResultSet rs) throws SQLException {
         Estudiante estudiante = new Estudiante();
-        estudiante.setId(rs.getLong("id"));
-        estudiante.setCedula(rs.getString("cedula"));
-        estudiante.setNombres(rs.getString("nombres"));
-        estudiante.setApellidos(rs.getString("apellidos"));
-        estudiante.setEmail(rs.getString("email"));
-        estudiante.setTelefono(rs.getString("telefono"));
-        estudiante.setCarrera(rs.getString("carrera"));
-        estudiante.setNivel(rs.getInt("nivel"));
-        estudiante.setActivo(rs.getBoolean("activo"));
-        estudiante.setFechaCreacion(rs.getTimestamp("fecha_creacion"));
-        estudiante.setFechaActualizacion(rs.getTimestamp("fecha_actualizacion"));
+        estudiante.setId(rs.getLong(1));
+        estudiante.setCedula(rs.getString(2));
+        estudiante.setNombres(rs.getString(3));
+        estudiante.setApellidos(rs.getString(4));
+        estudiante.setEmail(rs.getString(5));
+        estudiante.setTelefono(rs.getString(6));
+        estudiante.setCarrera(rs.getString(7));
+        estudiante.setNivel(rs.getInt(8));
+        estudiante.setActivo(rs.getBoolean(9));
+        estudiante.setFechaCreacion(rs.getTimestamp(10));
+        estudiante.setFechaActualizacion(rs.getTimestamp(11));
+        return estudiante;
+    }
+
+    /**
+     * MAPEA UNA FILA CON SOLO LAS COLUMNAS DE UNA PROYECCIÓN
+     * Las columnas vienen en orden de la tabla; los campos no incluidos quedan en null.
+     */
+    private Estudiante mapear(ResultSet rs, Proyeccion proyeccion) throws SQLException {
+        if (proyeccion.esCompleta()) {
+            return mapearEstudiante(rs);
+        }
+        Estudiante estudiante = new Estudiante();
+        estudiante.setActivo(null);
+        int columna = 1;
+        estudiante.setId(rs.getLong(columna++));
+        if (proyeccion.contiene(Proyeccion.CEDULA)) estudiante.setCedula(rs.getString(columna++));
+        if (proyeccion.contiene(Proyeccion.NOMBRES)) estudiante.setNombres(rs.getString(columna++));
+        if (proyeccion.contiene(Proyeccion.APELLIDOS)) estudiante.setApellidos(rs.getString(columna++));
+        if (proyeccion.contiene(Proyeccion.EMAIL)) estudiante.setEmail(rs.getString(columna++));
+        if (proyeccion.contiene(Proyeccion.TELEFONO)) estudiante.setTelefono(rs.getString(columna++));
+        if (proyeccion.contiene(Proyeccion.CARRERA)) estudiante.setCarrera(rs.getString(columna++));
+        if (proyeccion.contiene(Proyeccion.NIVEL)) estudiante.setNivel(rs.getInt(columna++));
+        if (proyeccion.contiene(Proyeccion.ACTIVO)) estudiante.setActivo(rs.getBoolean(columna++));
+        if (proyeccion.contiene(Proyeccion.FECHA_CREACION)) estudiante.setFechaCreacion(rs.getTimestamp(columna++));
+        if (proyeccion.contiene(Proyeccion.FECHA_ACTUALIZACION)) estudiante.setFechaActualizacion(rs.getTimestamp(columna));
         return estudiante;
     }
 
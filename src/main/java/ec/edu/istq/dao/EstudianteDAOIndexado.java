@@ -0,0 +1,309 @@
+package ec.edu.istq.dao;
+
+import ec.edu.istq.model.Estudiante;
+import ec.edu.istq.search.IndiceNgramas;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * DAO CON ÍNDICE DE BÚSQUEDA EN MEMORIA
+ * Responde buscar() desde un IndiceNgramas sin consultar PostgreSQL.
+ * El índice se construye en segundo plano (al iniciar y tras importaciones masivas)
+ * y se actualiza en cada crear/actualizar/eliminar/activar/desactivar.
+ *
+ * Mientras el índice se reconstruye, o si supera la memoria máxima configurada,
+ * las búsquedas se delegan a la base de datos.
+ */
+public class EstudianteDAOIndexado extends EstudianteDAODecorador {
+
+    private final long memoriaMaximaBytes;
+
+    // null = índice no disponible (buscar() va a la base de datos)
+    private volatile IndiceNgramas indice;
+
+    // Los cambios que llegan durante una reconstrucción se guardan y se aplican al final
+    private final ReentrantLock cambios = new ReentrantLock();
+    private final List<Consumer<IndiceNgramas>> pendientes = new ArrayList<>();
+    private boolean reconstruyendo = false;
+
+    private final ExecutorService constructor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "indice-busqueda");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Estadísticas
+    private final LongAdder consultasIndice = new LongAdder();
+    private final LongAdder consultasBaseDatos = new LongAdder();
+    private volatile long ultimaConstruccionMs = 0;
+    private volatile String ultimoError = null;
+
+    /**
+     * @param delegado DAO que accede a la base de datos
+     * @param memoriaMaximaBytes Memoria estimada máxima del índice; si se supera se deshabilita
+     */
+    public EstudianteDAOIndexado(EstudianteDAO delegado, long memoriaMaximaBytes) {
+        super(delegado);
+        this.memoriaMaximaBytes = memoriaMaximaBytes;
+    }
+
+    // ==============================================================
+    // CONSTRUCCIÓN DEL ÍNDICE
+    // ==============================================================
+
+    /**
+     * Programa una reconstrucción completa en segundo plano.
+     * Hasta que termine, las búsquedas se responden desde la base de datos.
+     */
+    public void reconstruir() {
+        cambios.lock();
+        try {
+            if (reconstruyendo) {
+                return;
+            }
+            reconstruyendo = true;
+            indice = null;
+            pendientes.clear();
+        } finally {
+            cambios.unlock();
+        }
+        constructor.submit(this::construir);
+    }
+
+    private void construir() {
+        long inicio = System.currentTimeMillis();
+        IndiceNgramas nuevo = new IndiceNgramas();
+        try {
+            delegado.recorrerTodos(Proyeccion.COMPLETA, estudiante -> {
+                nuevo.agregarEnCarga(estudiante);
+                if (nuevo.getBytesEstimados() > memoriaMaximaBytes) {
+                    throw new IOException("El índice supera la memoria máxima de " + memoriaMaximaBytes + " bytes");
+                }
+            });
+            nuevo.finalizarCarga();
+
+            cambios.lock();
+            try {
+                for (Consumer<IndiceNgramas> cambio : pendientes) {
+                    cambio.accept(nuevo);
+                }
+                pendientes.clear();
+                indice = nuevo;
+                reconstruyendo = false;
+            } finally {
+                cambios.unlock();
+            }
+
+            ultimaConstruccionMs = System.currentTimeMillis() - inicio;
+            ultimoError = null;
+            System.out.println("✅ Índice de búsqueda listo: " + nuevo.getDocumentos() + " estudiantes, "
+                    + nuevo.getNgramas() + " trigramas, ~" + nuevo.getBytesEstimados() / 1024 + " KB en "
+                    + ultimaConstruccionMs + "ms");
+        } catch (Exception e) {
+            cambios.lock();
+            try {
+                pendientes.clear();
+                indice = null;
+                reconstruyendo = false;
+            } finally {
+                cambios.unlock();
+            }
+            ultimoError = e.getMessage();
+            System.err.println("⚠️ Índice de búsqueda deshabilitado, se usa la base de datos: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Aplica un cambio al índice vigente, o lo guarda si hay una reconstrucción en curso
+     */
+    private void aplicar(Consumer<IndiceNgramas> cambio) {
+        cambios.lock();
+        try {
+            if (reconstruyendo) {
+                pendientes.add(cambio);
+            } else if (indice != null) {
+                cambio.accept(indice);
+                if (indice.getBytesEstimados() > memoriaMaximaBytes) {
+                    indice = null;
+                    ultimoError = "El índice supera la memoria máxima de " + memoriaMaximaBytes + " bytes";
+                    System.err.println("⚠️ Índice de búsqueda deshabilitado: " + ultimoError);
+                }
+            }
+        } finally {
+            cambios.unlock();
+        }
+    }
+
+    /**
+     * Detiene el hilo de construcción (al replegar la aplicación)
+     */
+    public void detener() {
+        constructor.shutdownNow();
+    }
+
+    // ==============================================================
+    // BÚSQUEDA
+    // ==============================================================
+
+    @Override
+    public List<Estudiante> buscar(String termino, int limite, int desplazamiento) throws SQLException {
+        IndiceNgramas actual = indice;
+        if (actual != null) {
+            consultasIndice.increment();
+            return actual.buscar(termino, limite, desplazamiento);
+        }
+        consultasBaseDatos.increment();
+        return delegado.buscar(termino, limite, desplazamiento);
+    }
+
+    // ==============================================================
+    // MANTENIMIENTO INCREMENTAL
+    // ==============================================================
+
+    @Override
+    public Estudiante crear(Estudiante estudiante) throws SQLException {
+        Estudiante creado = delegado.crear(estudiante);
+        if (creado.getId() != null) {
+            Estudiante copia = new Estudiante(creado);
+            aplicar(i -> i.guardar(copia));
+        }
+        return creado;
+    }
+
+    @Override
+    public boolean guardarPorCedula(Estudiante estudiante) throws SQLException {
+        boolean insertado = delegado.guardarPorCedula(estudiante);
+        Estudiante copia = new Estudiante(estudiante);
+        aplicar(i -> i.guardar(copia));
+        return insertado;
+    }
+
+    @Override
+    public int crearLote(List<Estudiante> estudiantes) throws SQLException {
+        int creados = delegado.crearLote(estudiantes);
+        List<Estudiante> copias = new ArrayList<>(creados);
+        for (Estudiante estudiante : estudiantes) {
+            if (estudiante.getId() != null) {
+                copias.add(new Estudiante(estudiante));
+            }
+        }
+        aplicar(i -> copias.forEach(i::guardar));
+        return creados;
+    }
+
+    @Override
+    public Map<String, Object> importarCsv(InputStream csv) throws SQLException, IOException {
+        try {
+            return delegado.importarCsv(csv);
+        } finally {
+            // COPY no pasa por este DAO: se reconstruye el índice completo
+            reconstruir();
+        }
+    }
+
+    @Override
+    public Estudiante actualizar(Estudiante estudiante) throws SQLException {
+        Estudiante actualizado = delegado.actualizar(estudiante);
+        if (actualizado != null) {
+            // Se indexa la fila devuelta por RETURNING (con las fechas asignadas por la base de datos)
+            Estudiante copia = new Estudiante(actualizado);
+            aplicar(i -> i.guardar(copia));
+        }
+        return actualizado;
+    }
+
+    @Override
+    public boolean eliminar(Long id) throws SQLException {
+        boolean eliminado = delegado.eliminar(id);
+        if (eliminado) {
+            aplicar(i -> i.eliminar(id));
+        }
+        return eliminado;
+    }
+
+    @Override
+    public boolean activar(Long id) throws SQLException {
+        boolean activado = delegado.activar(id);
+        if (activado) {
+            aplicar(i -> i.cambiarEstado(id, true));
+        }
+        return activado;
+    }
+
+    @Override
+    public boolean desactivar(Long id) throws SQLException {
+        boolean desactivado = delegado.desactivar(id);
+        if (desactivado) {
+            aplicar(i -> i.cambiarEstado(id, false));
+        }
+        return desactivado;
+    }
+
+    @Override
+    public List<Long> cambiarEstadoLote(List<Long> ids, boolean activo) throws SQLException {
+        List<Long> actualizados;
+        try {
+            actualizados = delegado.cambiarEstadoLote(ids, activo);
+        } catch (SQLException e) {
+            // Los bloques anteriores al error ya quedaron confirmados
+            reconstruir();
+            throw e;
+        }
+        aplicar(i -> actualizados.forEach(id -> i.cambiarEstado(id, activo)));
+        return actualizados;
+    }
+
+    @Override
+    public List<Long> cambiarEstadoPorFiltro(String carrera, Integer nivel, boolean activo) throws SQLException {
+        List<Long> actualizados;
+        try {
+            actualizados = delegado.cambiarEstadoPorFiltro(carrera, nivel, activo);
+        } catch (SQLException e) {
+            reconstruir();
+            throw e;
+        }
+        aplicar(i -> actualizados.forEach(id -> i.cambiarEstado(id, activo)));
+        return actualizados;
+    }
+
+    // ==============================================================
+    // ESTADÍSTICAS
+    // ==============================================================
+
+    /**
+     * Estado del índice: documentos, trigramas, memoria estimada y consultas atendidas
+     */
+    public Map<String, Object> getEstadisticas() {
+        Map<String, Object> stats = new HashMap<>();
+        IndiceNgramas actual = indice;
+        boolean enConstruccion;
+        cambios.lock();
+        try {
+            enConstruccion = reconstruyendo;
+        } finally {
+            cambios.unlock();
+        }
+
+        stats.put("estado", actual != null ? "listo" : (enConstruccion ? "reconstruyendo" : "deshabilitado"));
+        stats.put("documentos", actual != null ? actual.getDocumentos() : 0);
+        stats.put("ngramas", actual != null ? actual.getNgramas() : 0);
+        stats.put("bytesEstimados", actual != null ? actual.getBytesEstimados() : 0L);
+        stats.put("memoriaMaximaBytes", memoriaMaximaBytes);
+        stats.put("consultasIndice", consultasIndice.sum());
+        stats.put("consultasBaseDatos", consultasBaseDatos.sum());
+        stats.put("ultimaConstruccionMs", ultimaConstruccionMs);
+        stats.put("ultimoError", ultimoError);
+        return stats;
+    }
+}
@@ -0,0 +1,100 @@
+package ec.edu.istq.dao;
+
+import ec.edu.istq.util.DatabaseConnection;
+import org.postgresql.PGConnection;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * EXPORTADOR MASIVO DE ESTUDIANTES
+ * Usa COPY ... TO STDOUT de PostgreSQL: los bytes del servidor se copian
+ * directo a la salida HTTP, sin crear objetos Estudiante ni listas en memoria.
+ *
+ * Formatos:
+ *   - csv:    una fila por estudiante, con encabezado
+ *   - ndjson: un objeto JSON por línea (generado por PostgreSQL)
+ */
+public class EstudianteExportador {
+
+    // ==============================================================
+    // CONSTANTES SQL
+    // ==============================================================
+
+    private static final String COLUMNAS =
+            "id, cedula, nombres, apellidos, email, telefono, carrera, nivel, activo, " +
+                    "fecha_creacion, fecha_actualizacion";
+
+    // Mismos nombres de propiedades que el JSON del API
+    private static final String OBJETO_JSON =
+            "json_build_object('id', id, 'cedula', cedula, 'nombres', nombres, 'apellidos', apellidos, " +
+                    "'email', email, 'telefono', telefono, 'carrera', carrera, 'nivel', nivel, " +
+                    "'activo', activo, 'fechaCreacion', fecha_creacion, " +
+                    "'fechaActualizacion', fecha_actualizacion)";
+
+    // En formato CSV con comilla y delimitador que JSON nunca contiene sin escapar (\x01, \x02),
+    // COPY escribe cada objeto tal cual, una línea por fila
+    private static final String OPCIONES_NDJSON = "(FORMAT csv, QUOTE e'\\x01', DELIMITER e'\\x02')";
+
+    private static final String OPCIONES_CSV = "(FORMAT csv, HEADER true)";
+
+    // ==============================================================
+    // EXPORTACIÓN
+    // ==============================================================
+
+    /**
+     * EXPORTA ESTUDIANTES EN CSV
+     * @param salida Flujo de salida (respuesta HTTP)
+     * @param carrera Filtro opcional por carrera (null = todas)
+     * @param activo Filtro opcional por estado (null = todos)
+     * @return Cantidad de filas exportadas
+     */
+    public long exportarCsv(OutputStream salida, String carrera, Boolean activo)
+            throws SQLException, IOException {
+        return exportar(salida, COLUMNAS, OPCIONES_CSV, carrera, activo);
+    }
+
+    /**
+     * EXPORTA ESTUDIANTES EN NDJSON (un objeto JSON por línea)
+     * @param salida Flujo de salida (respuesta HTTP)
+     * @param carrera Filtro opcional por carrera (null = todas)
+     * @param activo Filtro opcional por estado (null = todos)
+     * @return Cantidad de filas exportadas
+     */
+    public long exportarNdjson(OutputStream salida, String carrera, Boolean activo)
+            throws SQLException, IOException {
+        return exportar(salida, OBJETO_JSON, OPCIONES_NDJSON, carrera, activo);
+    }
+
+    /**
+     * Ejecuta COPY (SELECT ...) TO STDOUT hacia la salida.
+     * COPY no admite parámetros, por eso el filtro de carrera se escapa con el driver.
+     */
+    private long exportar(OutputStream salida, String seleccion, String opciones, String carrera, Boolean activo)
+            throws SQLException, IOException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            PGConnection pgConn = conn.unwrap(PGConnection.class);
+
+            StringBuilder sql = new StringBuilder("COPY (SELECT ").append(seleccion).append(" FROM estudiantes");
+            String union = " WHERE ";
+            if (carrera != null) {
+                sql.append(union).append("carrera = ").append(pgConn.escapeLiteral(carrera));
+                union = " AND ";
+            }
+            if (activo != null) {
+                sql.append(union).append("activo = ").append(activo);
+            }
+            sql.append(" ORDER BY id) TO STDOUT WITH ").append(opciones);
+
+            long filas = pgConn.getCopyAPI().copyOut(sql.toString(), salida);
+            System.out.println("Exportación: " + filas + " estudiantes");
+            return filas;
+
+        } catch (SQLException e) {
+            System.err.println("Error al exportar estudiantes: " + e.getMessage());
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package ec.edu.istq.dao;
+
+import ec.edu.istq.util.CedulaValidator;
+import ec.edu.istq.util.DatabaseConnection;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * IMPORTADOR MASIVO DE ESTUDIANTES DESDE CSV
+ * Usa COPY FROM STDIN de PostgreSQL (CopyManager de pgJDBC) para cargar el archivo
+ * en una tabla temporal sin mantenerlo en memoria; luego valida en bloque
+ * y copia a 'estudiantes' las filas válidas con un solo INSERT ... SELECT.
+ *
+ * Formato esperado (con encabezado):
+ *   cedula,nombres,apellidos,email,telefono,carrera,nivel
+ *
+ * Las filas inválidas o duplicadas se reportan y no detienen la carga.
+ */
+public class EstudianteImportador {
+
+    // Máximo de errores detallados incluidos en el reporte
+    private static final int MAX_ERRORES_REPORTADOS = 100;
+
+    // Filas por viaje al leer las cédulas para validarlas
+    private static final int FILAS_POR_LOTE_CURSOR = 10_000;
+
+    // ==============================================================
+    // CONSTANTES SQL
+    // ==============================================================
+
+    private static final String SQL_CREAR_TEMPORAL =
+            "CREATE TEMP TABLE estudiantes_importacion (" +
+                    "linea bigserial, cedula text, nombres text, apellidos text, email text, " +
+                    "telefono text, carrera text, nivel text, motivo text) ON COMMIT DROP";
+
+    private static final String SQL_COPY =
+            "COPY estudiantes_importacion (cedula, nombres, apellidos, email, telefono, carrera, nivel) " +
+                    "FROM STDIN WITH (FORMAT csv, HEADER true, ENCODING 'UTF8')";
+
+    private static final String SQL_LEER_CEDULAS =
+            "SELECT linea, cedula FROM estudiantes_importacion";
+
+    private static final String SQL_MARCAR_CEDULAS_INVALIDAS =
+            "UPDATE estudiantes_importacion i SET motivo = v.motivo " +
+                    "FROM unnest(?::bigint[], ?::text[]) AS v(linea, motivo) WHERE i.linea = v.linea";
+
+    // Mismas reglas que EstudianteResource.validarEstudiante, en el orden en que se reportan
+    private static final String[][] REGLAS_VALIDACION = {
+            {"coalesce(length(btrim(nombres)), 0) < 2", "Los nombres deben tener al menos 2 caracteres"},
+            {"coalesce(length(btrim(apellidos)), 0) < 2", "Los apellidos deben tener al menos 2 caracteres"},
+            {"email IS NULL OR email !~ '^[A-Za-z0-9+_.-]+@(.+)$'", "El formato del email es inválido"},
+            {"coalesce(btrim(carrera), '') = ''", "La carrera es requerida"},
+            {"nivel IS NULL OR btrim(nivel) !~ '^([1-9]|10)$'", "El nivel debe estar entre 1 y 10"}
+    };
+
+    private static final String SQL_VALIDAR_CAMPOS = construirValidacionCampos();
+
+    private static final String SQL_MARCAR_DUPLICADOS_ARCHIVO =
+            "UPDATE estudiantes_importacion i SET motivo = 'Cédula repetida en el archivo' " +
+                    "FROM (SELECT linea, row_number() OVER (PARTITION BY cedula ORDER BY linea) AS n " +
+                    "      FROM estudiantes_importacion WHERE motivo IS NULL) d " +
+                    "WHERE i.linea = d.linea AND d.n > 1";
+
+    private static final String SQL_MARCAR_EXISTENTES =
+            "UPDATE estudiantes_importacion i SET motivo = 'Ya existe un estudiante con esa cédula' " +
+                    "FROM estudiantes e WHERE i.motivo IS NULL AND e.cedula = i.cedula";
+
+    // ON CONFLICT cubre inserciones concurrentes ocurridas después de la verificación
+    private static final String SQL_INSERTAR_VALIDOS =
+            "INSERT INTO estudiantes (cedula, nombres, apellidos, email, telefono, carrera, nivel) " +
+                    "SELECT cedula, nombres, apellidos, email, telefono, carrera, btrim(nivel)::int " +
+                    "FROM estudiantes_importacion WHERE motivo IS NULL ORDER BY linea " +
+                    "ON CONFLICT (cedula) DO NOTHING";
+
+    private static final String SQL_RESUMEN_RECHAZOS =
+            "SELECT motivo, count(*) FROM estudiantes_importacion WHERE motivo IS NOT NULL GROUP BY motivo";
+
+    private static final String SQL_DETALLE_RECHAZOS =
+            "SELECT linea, cedula, motivo FROM estudiantes_importacion WHERE motivo IS NOT NULL " +
+                    "ORDER BY linea LIMIT " + MAX_ERRORES_REPORTADOS;
+
+    // ==============================================================
+    // IMPORTACIÓN
+    // ==============================================================
+
+    /**
+     * IMPORTA UN ARCHIVO CSV DE ESTUDIANTES
+     * Todo ocurre en una transacción: si falla un paso técnico no se inserta nada.
+     * @param csv Contenido del archivo (se lee en streaming)
+     * @return Reporte con filas leídas, insertadas, rechazadas por motivo y detalle de errores
+     * @throws SQLException Error en la base de datos o CSV mal formado
+     * @throws IOException Error al leer el archivo
+     */
+    public Map<String, Object> importar(InputStream csv) throws SQLException, IOException {
+        long inicio = System.nanoTime();
+        Map<String, Object> reporte = new HashMap<>();
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute(SQL_CREAR_TEMPORAL);
+                }
+
+                // 1. Cargar el archivo tal cual con COPY (streaming, sin buffer en memoria)
+                CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+                long leidas = copyManager.copyIn(SQL_COPY, csv);
+
+                // 2. Validar cédulas con el mismo algoritmo del API
+                validarCedulas(conn);
+
+                // 3. Validar el resto de campos, duplicados en el archivo y cédulas existentes
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate(SQL_VALIDAR_CAMPOS);
+                    stmt.executeUpdate(SQL_MARCAR_DUPLICADOS_ARCHIVO);
+                    stmt.executeUpdate(SQL_MARCAR_EXISTENTES);
+                }
+
+                // 4. Insertar las filas válidas en un solo paso
+                int insertadas;
+                try (Statement stmt = conn.createStatement()) {
+                    insertadas = stmt.executeUpdate(SQL_INSERTAR_VALIDOS);
+                }
+
+                // 5. Armar el reporte antes de que la tabla temporal se elimine
+                Map<String, Long> rechazos = new HashMap<>();
+                long rechazadas = 0;
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(SQL_RESUMEN_RECHAZOS)) {
+                    while (rs.next()) {
+                        rechazos.put(rs.getString(1), rs.getLong(2));
+                        rechazadas += rs.getLong(2);
+                    }
+                }
+
+                List<Map<String, Object>> errores = new ArrayList<>();
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(SQL_DETALLE_RECHAZOS)) {
+                    while (rs.next()) {
+                        Map<String, Object> error = new HashMap<>();
+                        error.put("linea", rs.getLong("linea") + 1); // +1 por el encabezado
+                        error.put("cedula", rs.getString("cedula"));
+                        error.put("motivo", rs.getString("motivo"));
+                        errores.add(error);
+                    }
+                }
+
+                conn.commit();
+
+                // Válidas que no se insertaron: alguien creó la cédula durante la importación
+                long concurrentes = leidas - rechazadas - insertadas;
+                if (concurrentes > 0) {
+                    rechazos.merge("Ya existe un estudiante con esa cédula", concurrentes, Long::sum);
+                }
+
+                long duracionMs = Math.max(1, (System.nanoTime() - inicio) / 1_000_000);
+                reporte.put("filasLeidas", leidas);
+                reporte.put("insertadas", insertadas);
+                reporte.put("rechazadas", leidas - insertadas);
+                reporte.put("rechazosPorMotivo", rechazos);
+                reporte.put("errores", errores);
+                reporte.put("erroresTruncados", leidas - insertadas > errores.size());
+                reporte.put("duracionMs", duracionMs);
+                reporte.put("filasPorSegundo", leidas * 1000 / duracionMs);
+
+                System.out.println("Importación CSV: " + insertadas + " de " + leidas
+                        + " filas insertadas en " + duracionMs + "ms");
+
+            } catch (SQLException | IOException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error al importar estudiantes: " + e.getMessage());
+            throw e;
+        }
+
+        return reporte;
+    }
+
+    // ==============================================================
+    // MÉTODOS AUXILIARES
+    // ==============================================================
+
+    /**
+     * Recorre las cédulas cargadas y marca las inválidas con su motivo.
+     * Los rechazos se aplican en lotes de FILAS_POR_LOTE_CURSOR (un UPDATE sobre arreglos por lote),
+     * así la memoria no crece con archivos donde casi todas las cédulas son inválidas.
+     */
+    private void validarCedulas(Connection conn) throws SQLException {
+        List<Long> lineas = new ArrayList<>();
+        List<String> motivos = new ArrayList<>();
+
+        try (PreparedStatement pstmt = conn.prepareStatement(SQL_LEER_CEDULAS,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             PreparedStatement marcar = conn.prepareStatement(SQL_MARCAR_CEDULAS_INVALIDAS)) {
+            pstmt.setFetchSize(FILAS_POR_LOTE_CURSOR);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    String motivo = CedulaValidator.validarConMensaje(rs.getString(2));
+                    if (motivo != null) {
+                        lineas.add(rs.getLong(1));
+                        motivos.add(motivo);
+                        if (lineas.size() >= FILAS_POR_LOTE_CURSOR) {
+                            marcarInvalidas(conn, marcar, lineas, motivos);
+                        }
+                    }
+                }
+            }
+            marcarInvalidas(conn, marcar, lineas, motivos);
+        }
+    }
+
+    /**
+     * Aplica un lote de rechazos de cédula y vacía las listas
+     */
+    private void marcarInvalidas(Connection conn, PreparedStatement marcar,
+                                 List<Long> lineas, List<String> motivos) throws SQLException {
+        if (lineas.isEmpty()) {
+            return;
+        }
+        marcar.setArray(1, conn.createArrayOf("bigint", lineas.toArray()));
+        marcar.setArray(2, conn.createArrayOf("text", motivos.toArray()));
+        marcar.executeUpdate();
+        lineas.clear();
+        motivos.clear();
+    }
+
+    /**
+     * Construye un UPDATE que asigna el primer motivo de rechazo de cada fila,
+     * tocando solo las filas que incumplen alguna regla.
+     */
+    private static String construirValidacionCampos() {
+        StringBuilder caso = new StringBuilder("CASE");
+        StringBuilder condicion = new StringBuilder();
+        for (String[] regla : REGLAS_VALIDACION) {
+            caso.append(" WHEN ").append(regla[0]).append(" THEN '").append(regla[1]).append('\'');
+            condicion.append(condicion.length() == 0 ? "" : " OR ").append('(').append(regla[0]).append(')');
+        }
+        caso.append(" END");
+        return "UPDATE estudiantes_importacion SET motivo = " + caso +
+                " WHERE motivo IS NULL AND (" + condicion + ")";
+    }
+}
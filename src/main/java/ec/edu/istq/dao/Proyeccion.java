@@ -0,0 +1,168 @@
+package ec.edu.istq.dao;
+
+import ec.edu.istq.model.Estudiante;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PROYECCIÓN DE CAMPOS DEL ESTUDIANTE (?fields=)
+ * Indica qué columnas leer de la base de datos y qué campos devolver.
+ * El ID se incluye siempre (lo necesitan la paginación y los cachés).
+ * Los campos no seleccionados quedan en null y no se serializan en el JSON.
+ *
+ * Las columnas se generan siempre en el mismo orden (el de la tabla),
+ * así el mapeo por índice no depende del orden pedido por el cliente.
+ */
+public final class Proyeccion {
+
+    // Campos del JSON y su columna en la tabla, en orden de la tabla
+    static final String[] CAMPOS = {
+            "id", "cedula", "nombres", "apellidos", "email", "telefono",
+            "carrera", "nivel", "activo", "fechaCreacion", "fechaActualizacion"
+    };
+
+    static final String[] COLUMNAS = {
+            "id", "cedula", "nombres", "apellidos", "email", "telefono",
+            "carrera", "nivel", "activo", "fecha_creacion", "fecha_actualizacion"
+    };
+
+    // Posición de cada campo en CAMPOS (bit en la máscara)
+    static final int ID = 0;
+    static final int CEDULA = 1;
+    static final int NOMBRES = 2;
+    static final int APELLIDOS = 3;
+    static final int EMAIL = 4;
+    static final int TELEFONO = 5;
+    static final int CARRERA = 6;
+    static final int NIVEL = 7;
+    static final int ACTIVO = 8;
+    static final int FECHA_CREACION = 9;
+    static final int FECHA_ACTUALIZACION = 10;
+
+    private static final int MASCARA_COMPLETA = (1 << CAMPOS.length) - 1;
+
+    /**
+     * Todos los campos (equivale a no enviar ?fields=)
+     */
+    public static final Proyeccion COMPLETA = new Proyeccion(MASCARA_COMPLETA);
+
+    /**
+     * Solo ID y cédula (carga del filtro de cédulas)
+     */
+    public static final Proyeccion CEDULAS = new Proyeccion((1 << ID) | (1 << CEDULA));
+
+    private final int mascara;
+    private final String columnas;
+    private final String texto;
+
+    private Proyeccion(int mascara) {
+        this.mascara = mascara;
+        List<String> columnas = new ArrayList<>();
+        List<String> campos = new ArrayList<>();
+        for (int i = 0; i < CAMPOS.length; i++) {
+            if (contiene(i)) {
+                columnas.add(COLUMNAS[i]);
+                campos.add(CAMPOS[i]);
+            }
+        }
+        this.columnas = String.join(", ", columnas);
+        this.texto = String.join(",", campos);
+    }
+
+    /**
+     * Interpreta el parámetro ?fields= (ej: "id,nombres,apellidos,carrera")
+     * @param campos Lista separada por comas; null o vacío = todos los campos
+     * @return Proyección correspondiente
+     * @throws IllegalArgumentException Si algún campo no existe
+     */
+    public static Proyeccion desde(String campos) {
+        if (campos == null || campos.trim().isEmpty()) {
+            return COMPLETA;
+        }
+
+        int mascara = 1 << ID;
+        for (String campo : campos.split(",")) {
+            String nombre = campo.trim();
+            if (nombre.isEmpty()) {
+                continue;
+            }
+            int posicion = posicion(nombre);
+            if (posicion < 0) {
+                throw new IllegalArgumentException("Campo desconocido: " + nombre
+                        + " (permitidos: " + String.join(", ", CAMPOS) + ")");
+            }
+            mascara |= 1 << posicion;
+        }
+        return mascara == MASCARA_COMPLETA ? COMPLETA : new Proyeccion(mascara);
+    }
+
+    private static int posicion(String campo) {
+        for (int i = 0; i < CAMPOS.length; i++) {
+            if (CAMPOS[i].equals(campo)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return true si el campo (ID, NOMBRES, ...) está incluido
+     */
+    boolean contiene(int campo) {
+        return (mascara & (1 << campo)) != 0;
+    }
+
+    public boolean esCompleta() {
+        return mascara == MASCARA_COMPLETA;
+    }
+
+    /**
+     * Columnas para el SELECT, en orden de la tabla (ej: "id, nombres, carrera")
+     */
+    public String columnas() {
+        return columnas;
+    }
+
+    /**
+     * Aplica la proyección a un estudiante ya leído (cachés, índice en memoria)
+     * @return El mismo estudiante si la proyección es completa; si no, una copia solo con los campos pedidos
+     */
+    public Estudiante aplicar(Estudiante estudiante) {
+        if (esCompleta() || estudiante == null) {
+            return estudiante;
+        }
+        Estudiante copia = new Estudiante();
+        copia.setId(estudiante.getId());
+        copia.setActivo(null);
+        if (contiene(CEDULA)) copia.setCedula(estudiante.getCedula());
+        if (contiene(NOMBRES)) copia.setNombres(estudiante.getNombres());
+        if (contiene(APELLIDOS)) copia.setApellidos(estudiante.getApellidos());
+        if (contiene(EMAIL)) copia.setEmail(estudiante.getEmail());
+        if (contiene(TELEFONO)) copia.setTelefono(estudiante.getTelefono());
+        if (contiene(CARRERA)) copia.setCarrera(estudiante.getCarrera());
+        if (contiene(NIVEL)) copia.setNivel(estudiante.getNivel());
+        if (contiene(ACTIVO)) copia.setActivo(estudiante.getActivo());
+        if (contiene(FECHA_CREACION)) copia.setFechaCreacion(estudiante.getFechaCreacion());
+        if (contiene(FECHA_ACTUALIZACION)) copia.setFechaActualizacion(estudiante.getFechaActualizacion());
+        return copia;
+    }
+
+    /**
+     * Forma canónica (ej: "id,nombres,carrera"), independiente del orden pedido
+     */
+    @Override
+    public String toString() {
+        return texto;
+    }
+
+    @Override
+    public boolean equals(Object otro) {
+        return otro instanceof Proyeccion && ((Proyeccion) otro).mascara == mascara;
+    }
+
+    @Override
+    public int hashCode() {
+        return mascara;
+    }
+}
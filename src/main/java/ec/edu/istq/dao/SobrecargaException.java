@@ -0,0 +1,27 @@
+package ec.edu.istq.dao;
+
+import java.sql.SQLException;
+
+/**
+ * EXCEPCIÓN DE SOBRECARGA
+ * Se lanza cuando el control de admisión rechaza una operación porque la base de datos
+ * ya tiene el máximo de operaciones concurrentes y la cola de espera está llena.
+ * El recurso REST la responde con 503 y Retry-After.
+ */
+public class SobrecargaException extends SQLException {
+
+    // Clase 53 de PostgreSQL: recursos insuficientes
+    private static final String SQLSTATE_SOBRECARGA = "53000";
+
+    private final int reintentarEnSegundos;
+
+    public SobrecargaException(String limite, int reintentarEnSegundos) {
+        super("Servicio sobrecargado (" + limite + "), intente nuevamente en " + reintentarEnSegundos + "s",
+                SQLSTATE_SOBRECARGA);
+        this.reintentarEnSegundos = reintentarEnSegundos;
+    }
+
+    public int getReintentarEnSegundos() {
+        return reintentarEnSegundos;
+    }
+}
@@ -0,0 +1,39 @@
+package ec.edu.istq.dao;
+
+import java.sql.Timestamp;
+
+/**
+ * VERSIÓN DE LA COLECCIÓN DE ESTUDIANTES
+ * Total de filas y última fecha de actualización: cambia con cada inserción, actualización
+ * o eliminación, por lo que sirve para armar el ETag de los listados sin leer las filas.
+ * Los cambios que todavía no llegaron a la base de datos (EstudianteDAOEscrituraDiferida)
+ * se reflejan en 'pendientes'.
+ */
+public class VersionColeccion {
+
+    private final long total;
+    private final Timestamp ultimaActualizacion; // null si la tabla está vacía
+    private final String pendientes;             // null si no hay cambios sin escribir
+
+    public VersionColeccion(long total, Timestamp ultimaActualizacion) {
+        this(total, ultimaActualizacion, null);
+    }
+
+    public VersionColeccion(long total, Timestamp ultimaActualizacion, String pendientes) {
+        this.total = total;
+        this.ultimaActualizacion = ultimaActualizacion;
+        this.pendientes = pendientes;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public Timestamp getUltimaActualizacion() {
+        return ultimaActualizacion;
+    }
+
+    public String getPendientes() {
+        return pendientes;
+    }
+}
@@ -8,8 +8,9 @@ import java.io.IOException;
 
 /**
  * FILTRO CORS PARA PERMITIR PETICIONES DESDE EL FRONTEND
+ * asyncSupported: los endpoints REST se ejecutan de forma asíncrona (ver EjecucionAsincrona)
  */
-@WebFilter("/*")
+@WebFilter(urlPatterns = "/*", asyncSupported = true)
 public class CorsFilter implements Filter {
 
     @Override
@@ -26,7 +27,11 @@ public class CorsFilter implements Filter {
         response.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
 
         // Headers permitidos
-        response.setHeader("Access-Control-Allow-Headers", "Content-Type, Authorization");
+        response.setHeader("Access-Control-Allow-Headers",
+                "Content-Type, Authorization, If-None-Match, If-Modified-Since");
+
+        // Headers de respuesta legibles desde JavaScript (GET condicional y 503 por sobrecarga)
+        response.setHeader("Access-Control-Expose-Headers", "ETag, Retry-After");
 
         // Tiempo de cache para preflight
         response.setHeader("Access-Control-Max-Age", "3600");
@@ -0,0 +1,85 @@
+package ec.edu.istq.filter;
+
+import ec.edu.istq.util.Configuracion;
+import ec.edu.istq.util.ContextoLectura;
+import ec.edu.istq.util.DatabaseConnection;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.Cookie;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.NewCookie;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+
+/**
+ * FILTRO JAX-RS DE LECTURA CONSISTENTE (read-your-writes)
+ * Con réplicas de lectura configuradas, un cliente que acaba de escribir podría no ver su cambio
+ * si la siguiente lectura va a una réplica con retraso. Para evitarlo:
+ *   - Tras una escritura exitosa (POST, PUT, DELETE) se envía la cookie estudiantes_escritura
+ *     con el momento de la escritura
+ *   - Mientras esa cookie tenga menos de estudiantes.db.replicas.leerPrimarioTrasEscrituraMs,
+ *     las lecturas de ese cliente van a la principal (ContextoLectura)
+ * Sin réplicas configuradas el filtro no hace nada.
+ */
+@Provider
+public class LecturaConsistenteFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final String COOKIE = "estudiantes_escritura";
+
+    // Debe superar el retraso máximo tolerado en las réplicas
+    private static final long VENTANA_MS =
+            Configuracion.largo("estudiantes.db.replicas.leerPrimarioTrasEscrituraMs", 5_000);
+
+    /**
+     * Se ejecuta ANTES de procesar la petición
+     * Marca el hilo para leer de la principal si el cliente escribió hace poco
+     */
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        // Siempre se asigna: los hilos del contenedor se reutilizan entre peticiones
+        ContextoLectura.setPrimario(DatabaseConnection.hayReplicas() && escribioHacePoco(requestContext));
+    }
+
+    /**
+     * Se ejecuta DESPUÉS de procesar la petición
+     * Registra la escritura en la cookie del cliente
+     */
+    @Override
+    public void filter(ContainerRequestContext requestContext,
+                       ContainerResponseContext responseContext) throws IOException {
+        if (!DatabaseConnection.hayReplicas() || !esEscritura(requestContext.getMethod())
+                || responseContext.getStatus() >= 400) {
+            return;
+        }
+
+        NewCookie cookie = new NewCookie.Builder(COOKIE)
+                .value(Long.toString(System.currentTimeMillis()))
+                .path(requestContext.getUriInfo().getBaseUri().getPath())
+                .maxAge((int) Math.max(1, (VENTANA_MS + 999) / 1000))
+                .httpOnly(true)
+                .build();
+        responseContext.getHeaders().add(HttpHeaders.SET_COOKIE, cookie);
+    }
+
+    private static boolean escribioHacePoco(ContainerRequestContext requestContext) {
+        Cookie cookie = requestContext.getCookies().get(COOKIE);
+        if (cookie == null) {
+            return false;
+        }
+        try {
+            long momento = Long.parseLong(cookie.getValue());
+            return System.currentTimeMillis() - momento < VENTANA_MS;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean esEscritura(String metodo) {
+        return HttpMethod.POST.equals(metodo) || HttpMethod.PUT.equals(metodo)
+                || HttpMethod.DELETE.equals(metodo) || HttpMethod.PATCH.equals(metodo);
+    }
+}
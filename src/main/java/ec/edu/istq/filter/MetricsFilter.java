@@ -1,30 +1,50 @@
 package ec.edu.istq.filter;
 
 import ec.edu.istq.metrics.MetricsCollector;
+import ec.edu.istq.util.Configuracion;
 import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.container.ContainerRequestFilter;
 import jakarta.ws.rs.container.ContainerResponseContext;
 import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.ext.Provider;
 import java.io.IOException;
+import java.lang.reflect.Method;
 
 /**
  * FILTRO JAX-RS PARA CAPTURAR MÉTRICAS DE LA API
  * Intercepta todas las peticiones y respuestas para recolectar estadísticas
+ *
+ * Al recibir la petición se resuelve (con caché) el endpoint del método de recurso que la atiende;
+ * al responder solo se registra el tiempo en ese endpoint, sin normalizar paths ni armar claves.
  */
 @Provider
 public class MetricsFilter implements ContainerRequestFilter, ContainerResponseFilter {
 
     private static final String START_TIME_PROPERTY = "startTime";
+    private static final String ENDPOINT_PROPERTY = "metricsEndpoint";
+
+    // Una línea por petición en la consola (útil en desarrollo, costosa con mucho tráfico)
+    private static final boolean LOG_PETICIONES = Configuracion.booleano("estudiantes.metrics.log", false);
+
+    @Context
+    private ResourceInfo resourceInfo;
 
     /**
      * Se ejecuta ANTES de procesar la petición
-     * Registra el tiempo de inicio
+     * Registra el tiempo de inicio y el endpoint que la atiende
      */
     @Override
     public void filter(ContainerRequestContext requestContext) throws IOException {
         // Guardar timestamp de inicio en el contexto
-        requestContext.setProperty(START_TIME_PROPERTY, System.currentTimeMillis());
+        requestContext.setProperty(START_TIME_PROPERTY, System.nanoTime());
+
+        // Se resuelve aquí, en el hilo de la petición (la respuesta puede llegar desde otro hilo)
+        Method resourceMethod = resourceInfo.getResourceMethod();
+        if (resourceMethod != null) {
+            requestContext.setProperty(ENDPOINT_PROPERTY, MetricsCollector.endpoint(resourceMethod));
+        }
     }
 
     /**
@@ -41,19 +61,25 @@ public class MetricsFilter implements ContainerRequestFilter, ContainerResponseF
             return;
         }
 
-        // Calcular tiempo de respuesta
-        long responseTime = System.currentTimeMillis() - startTime;
-
-        // Obtener información de la petición
-        String method = requestContext.getMethod();
-        String path = requestContext.getUriInfo().getPath();
+        // Calcular tiempo de respuesta (nanoTime: monotónico y con resolución de microsegundos)
+        long responseTimeMicros = (System.nanoTime() - startTime) / 1000;
         int statusCode = responseContext.getStatus();
 
         // Registrar métrica
-        MetricsCollector.recordRequest(method, path, statusCode, responseTime);
+        MetricsCollector.EndpointMetrics endpoint =
+                (MetricsCollector.EndpointMetrics) requestContext.getProperty(ENDPOINT_PROPERTY);
+        if (endpoint != null) {
+            endpoint.recordRequest(statusCode, responseTimeMicros);
+        } else {
+            // Sin método de recurso (ej: ruta inexistente): se normaliza el path
+            MetricsCollector.recordRequest(requestContext.getMethod(), requestContext.getUriInfo().getPath(),
+                    statusCode, responseTimeMicros);
+        }
 
         // Log en consola
-        System.out.printf("[METRICS] %s %s -> %d (%dms)%n",
-                method, path, statusCode, responseTime);
+        if (LOG_PETICIONES) {
+            System.out.printf("[METRICS] %s %s -> %d (%.3fms)%n", requestContext.getMethod(),
+                    requestContext.getUriInfo().getPath(), statusCode, responseTimeMicros / 1000.0);
+        }
     }
-}
\ No newline at end of file
+}
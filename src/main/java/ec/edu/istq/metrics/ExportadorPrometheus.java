@@ -0,0 +1,179 @@
+package ec.edu.istq.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * EXPORTADOR DE MÉTRICAS EN FORMATO OPENMETRICS (Prometheus)
+ * Escribe el texto directamente desde los contadores e histogramas de MetricsCollector
+ * (de un solo Estado, aunque haya un reset a mitad), sin armar el JSON de /api/metrics ni ordenar endpoints:
+ *   - estudiantes_http_requests_total{method,path,status_class}: peticiones por endpoint y clase de estado
+ *   - estudiantes_http_request_duration_seconds{method,path}: histograma por endpoint
+ *     (buckets "le" calculados desde el HistogramaLatencia)
+ *   - estudiantes_metrics_dropped_endpoint_keys_total: peticiones agrupadas en "other"
+ *   - estudiantes_<componente>_<estadistica>: gauges con los valores numéricos de cada componente
+ *     registrado (pool de conexiones, caché, filtro de cédulas, admisión, ...)
+ */
+public final class ExportadorPrometheus {
+
+    public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    // Límites de los buckets del histograma, en microsegundos y como etiqueta "le" en segundos
+    private static final long[] LIMITES_MICROS = {500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000,
+            250_000, 500_000, 1_000_000, 2_500_000, 5_000_000, 10_000_000};
+    private static final String[] LIMITES_LE = {"0.0005", "0.001", "0.0025", "0.005", "0.01", "0.025", "0.05",
+            "0.1", "0.25", "0.5", "1.0", "2.5", "5.0", "10.0", "+Inf"};
+
+    private static final String[] CLASES = {null, "1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private ExportadorPrometheus() {
+    }
+
+    /**
+     * Genera el texto completo de la exposición (termina en "# EOF")
+     */
+    public static String generar() {
+        StringBuilder sb = new StringBuilder(16 * 1024);
+        MetricsCollector.Estado estado = MetricsCollector.getEstado();
+
+        // Peticiones por endpoint y clase de estado
+        sb.append("# TYPE estudiantes_http_requests counter\n");
+        sb.append("# HELP estudiantes_http_requests Peticiones HTTP por endpoint y clase de estado.\n");
+        for (MetricsCollector.EndpointMetrics endpoint : estado.getEndpoints()) {
+            for (int clase = 1; clase <= 5; clase++) {
+                long valor = endpoint.getPorClase(clase);
+                if (valor == 0 && (clase == 1 || clase == 3)) {
+                    continue;   // 1xx y 3xx solo si ocurrieron
+                }
+                sb.append("estudiantes_http_requests_total");
+                etiquetasEndpoint(sb, endpoint).append(",status_class=\"").append(CLASES[clase]).append("\"} ")
+                        .append(valor).append('\n');
+            }
+        }
+
+        // Histograma de latencias por endpoint
+        sb.append("# TYPE estudiantes_http_request_duration_seconds histogram\n");
+        sb.append("# UNIT estudiantes_http_request_duration_seconds seconds\n");
+        sb.append("# HELP estudiantes_http_request_duration_seconds Tiempo de respuesta por endpoint.\n");
+        for (MetricsCollector.EndpointMetrics endpoint : estado.getEndpoints()) {
+            HistogramaLatencia latencias = endpoint.getLatencias();
+            long[] acumulados = latencias.acumulados(LIMITES_MICROS);
+            for (int i = 0; i < acumulados.length; i++) {
+                sb.append("estudiantes_http_request_duration_seconds_bucket");
+                etiquetasEndpoint(sb, endpoint).append(",le=\"").append(LIMITES_LE[i]).append("\"} ")
+                        .append(acumulados[i]).append('\n');
+            }
+            sb.append("estudiantes_http_request_duration_seconds_count");
+            etiquetasEndpoint(sb, endpoint).append("} ").append(acumulados[acumulados.length - 1]).append('\n');
+            sb.append("estudiantes_http_request_duration_seconds_sum");
+            etiquetasEndpoint(sb, endpoint).append("} ").append(latencias.getSuma() / 1_000_000.0).append('\n');
+        }
+
+        sb.append("# TYPE estudiantes_metrics_dropped_endpoint_keys counter\n");
+        sb.append("# HELP estudiantes_metrics_dropped_endpoint_keys Peticiones agrupadas en el endpoint other.\n");
+        sb.append("estudiantes_metrics_dropped_endpoint_keys_total ")
+                .append(estado.getDroppedEndpointKeys()).append('\n');
+
+        // Gauges de los componentes registrados
+        Map<String, StringBuilder> familias = new LinkedHashMap<>();
+        for (Map.Entry<String, Supplier<Map<String, Object>>> componente : MetricsCollector.getComponentes().entrySet()) {
+            aplanar("estudiantes_" + nombreMetrica(componente.getKey()), componente.getValue().get(), "", familias);
+        }
+        familias.forEach((nombre, muestras) -> sb.append("# TYPE ").append(nombre).append(" gauge\n").append(muestras));
+
+        sb.append("# EOF\n");
+        return sb.toString();
+    }
+
+    private static StringBuilder etiquetasEndpoint(StringBuilder sb, MetricsCollector.EndpointMetrics endpoint) {
+        sb.append("{method=\"");
+        escapar(sb, endpoint.getMethod());
+        sb.append("\",path=\"");
+        escapar(sb, endpoint.getPath());
+        return sb.append('"');
+    }
+
+    /**
+     * Convierte los valores numéricos (y booleanos como 0/1) de un mapa de estadísticas en gauges.
+     * Los mapas anidados agregan su clave al nombre; los elementos de una lista se distinguen
+     * con la etiqueta "nombre" (si tienen ese campo) o "indice".
+     */
+    private static void aplanar(String nombre, Object valor, String etiquetas, Map<String, StringBuilder> familias) {
+        if (valor instanceof Number || valor instanceof Boolean) {
+            String texto = (valor instanceof Boolean b) ? (b ? "1" : "0") : formatear((Number) valor);
+            familias.computeIfAbsent(nombre, k -> new StringBuilder())
+                    .append(nombre).append(etiquetas).append(' ').append(texto).append('\n');
+        } else if (valor instanceof Map<?, ?> mapa) {
+            for (Map.Entry<?, ?> entrada : mapa.entrySet()) {
+                aplanar(nombre + "_" + nombreMetrica(String.valueOf(entrada.getKey())), entrada.getValue(),
+                        etiquetas, familias);
+            }
+        } else if (valor instanceof List<?> lista) {
+            for (int i = 0; i < lista.size(); i++) {
+                Object elemento = lista.get(i);
+                Object nombreElemento = (elemento instanceof Map<?, ?> m) ? m.get("nombre") : null;
+                StringBuilder etiqueta = new StringBuilder();
+                if (nombreElemento instanceof String texto) {
+                    etiqueta.append("nombre=\"");
+                    escapar(etiqueta, texto);
+                    etiqueta.append('"');
+                } else {
+                    etiqueta.append("indice=\"").append(i).append('"');
+                }
+                String combinadas = etiquetas.isEmpty() ? "{" + etiqueta + "}"
+                        : etiquetas.substring(0, etiquetas.length() - 1) + "," + etiqueta + "}";
+                aplanar(nombre, elemento, combinadas, familias);
+            }
+        }
+        // Textos (estado, últimos errores, ...) no son métricas
+    }
+
+    private static String formatear(Number numero) {
+        if (numero instanceof Double || numero instanceof Float) {
+            double d = numero.doubleValue();
+            if (Double.isNaN(d)) {
+                return "NaN";
+            }
+            if (Double.isInfinite(d)) {
+                return d > 0 ? "+Inf" : "-Inf";
+            }
+            return Double.toString(d);
+        }
+        return numero.toString();
+    }
+
+    /**
+     * camelCase a snake_case y solo [a-z0-9_] (ej: esperaPromedioMs -> espera_promedio_ms)
+     */
+    private static String nombreMetrica(String clave) {
+        StringBuilder sb = new StringBuilder(clave.length() + 8);
+        for (int i = 0; i < clave.length(); i++) {
+            char c = clave.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                if (sb.length() > 0 && sb.charAt(sb.length() - 1) != '_') {
+                    sb.append('_');
+                }
+                sb.append(Character.toLowerCase(c));
+            } else if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                sb.append(c);
+            } else {
+                sb.append('_');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void escapar(StringBuilder sb, String valor) {
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '\\' -> sb.append("\\\\");
+                case '"' -> sb.append("\\\"");
+                case '\n' -> sb.append("\\n");
+                default -> sb.append(c);
+            }
+        }
+    }
+}
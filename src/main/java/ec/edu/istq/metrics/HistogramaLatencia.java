@@ -0,0 +1,247 @@
+package ec.edu.istq.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HISTOGRAMA DE LATENCIAS (estilo HDR, buckets logarítmicos)
+ * Cuenta latencias en microsegundos con memoria fija y sin bloqueos:
+ *   - Valores menores a 128µs: un bucket por microsegundo (exactos)
+ *   - Desde 128µs: cada potencia de 2 se divide en 64 buckets iguales,
+ *     así el error relativo es menor a 1/64 (~1.6%) en todo el rango
+ * Rango hasta 2^36µs (~19 horas); valores mayores se cuentan en el último bucket.
+ *
+ * registrar() no reserva memoria ni bloquea: un incremento atómico en el bucket,
+ * contadores LongAdder (repartidos entre hilos) y un CAS para el máximo y el mínimo.
+ * Los percentiles se calculan al consultar recorriendo los buckets.
+ *
+ * La precisión se puede reducir (new HistogramaLatencia(5): 528 buckets, error menor a ~6%)
+ * para histogramas de vida corta como los intervalos de VentanaDeslizante.
+ */
+public class HistogramaLatencia {
+
+    // Bits de precisión por defecto: 2^BITS buckets exactos y 2^(BITS-1) buckets por potencia de 2
+    private static final int BITS = 7;
+    private static final int EXPONENTE_MAXIMO = 36;
+    private static final long VALOR_MAXIMO = (1L << EXPONENTE_MAXIMO) - 1;
+
+    private final int bits;
+    private final int exactos;
+    private final int porPotencia;
+    private final int buckets;
+
+    private final AtomicLongArray conteos;
+    private final LongAdder total = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong(0);
+    private final AtomicLong minimo = new AtomicLong(Long.MAX_VALUE);
+
+    public HistogramaLatencia() {
+        this(BITS);
+    }
+
+    /**
+     * @param bits Bits de precisión (2 a 10): el error relativo es menor a 1/2^(bits-1)
+     */
+    public HistogramaLatencia(int bits) {
+        if (bits < 2 || bits > 10) {
+            throw new IllegalArgumentException("bits debe estar entre 2 y 10");
+        }
+        this.bits = bits;
+        this.exactos = 1 << bits;
+        this.porPotencia = 1 << (bits - 1);
+        this.buckets = exactos + (EXPONENTE_MAXIMO - bits) * porPotencia;
+        this.conteos = new AtomicLongArray(buckets);
+    }
+
+    /**
+     * Registra una latencia
+     * @param micros Duración en microsegundos (negativos se cuentan como 0)
+     */
+    public void registrar(long micros) {
+        long valor = Math.max(0, micros);
+        conteos.incrementAndGet(indice(Math.min(valor, VALOR_MAXIMO)));
+        total.increment();
+        suma.add(valor);
+
+        long actual = maximo.get();
+        while (valor > actual && !maximo.compareAndSet(actual, valor)) {
+            actual = maximo.get();
+        }
+        actual = minimo.get();
+        while (valor < actual && !minimo.compareAndSet(actual, valor)) {
+            actual = minimo.get();
+        }
+    }
+
+    // ==============================================================
+    // BUCKETS
+    // ==============================================================
+
+    int indice(long valor) {
+        if (valor < exactos) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);   // >= bits
+        int desplazamiento = exponente - (bits - 1);
+        int mantisa = (int) (valor >>> desplazamiento) - porPotencia;   // 0 .. porPotencia-1
+        return exactos + (exponente - bits) * porPotencia + mantisa;
+    }
+
+    /**
+     * Menor valor que cae en el bucket
+     */
+    long limiteInferior(int indice) {
+        if (indice < exactos) {
+            return indice;
+        }
+        int relativo = indice - exactos;
+        int exponente = bits + relativo / porPotencia;
+        long mantisa = porPotencia + relativo % porPotencia;
+        return mantisa << (exponente - (bits - 1));
+    }
+
+    /**
+     * Ancho del bucket (cantidad de valores que agrupa)
+     */
+    long ancho(int indice) {
+        if (indice < exactos) {
+            return 1;
+        }
+        int exponente = bits + (indice - exactos) / porPotencia;
+        return 1L << (exponente - (bits - 1));
+    }
+
+    /**
+     * Cantidad de buckets (tamaño del arreglo que usan sumarConteos y percentiles(long[], ...))
+     */
+    int getBuckets() {
+        return buckets;
+    }
+
+    /**
+     * Suma los conteos de cada bucket en destino (para combinar histogramas de la misma precisión)
+     */
+    void sumarConteos(long[] destino) {
+        for (int i = 0; i < buckets; i++) {
+            destino[i] += conteos.get(i);
+        }
+    }
+
+    // ==============================================================
+    // CONSULTAS
+    // ==============================================================
+
+    public long getTotal() {
+        return total.sum();
+    }
+
+    public long getSuma() {
+        return suma.sum();
+    }
+
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    public long getMinimo() {
+        long valor = minimo.get();
+        return valor == Long.MAX_VALUE ? 0 : valor;
+    }
+
+    /**
+     * Promedio en microsegundos (0 sin registros)
+     */
+    public double getPromedio() {
+        long cantidad = total.sum();
+        return cantidad > 0 ? suma.sum() / (double) cantidad : 0.0;
+    }
+
+    /**
+     * Calcula varios percentiles con un solo recorrido de los buckets
+     * @param percentiles Percentiles pedidos en orden ascendente (ej: 50, 90, 99, 99.9)
+     * @return Valor en microsegundos de cada percentil (punto medio del bucket, sin superar el máximo)
+     */
+    public long[] percentiles(double... percentiles) {
+        long[] copia = new long[buckets];
+        sumarConteos(copia);
+        return percentiles(copia, maximo.get(), percentiles);
+    }
+
+    /**
+     * Percentiles de conteos por bucket con esta misma precisión (ej: varios histogramas sumados)
+     * @param conteos Conteo de cada bucket (getBuckets() posiciones)
+     * @param max Máximo registrado; ningún percentil lo supera
+     */
+    long[] percentiles(long[] conteos, long max, double... percentiles) {
+        long cantidad = 0;
+        for (long conteo : conteos) {
+            cantidad += conteo;
+        }
+
+        long[] valores = new long[percentiles.length];
+        if (cantidad == 0) {
+            return valores;
+        }
+
+        long acumulado = 0;
+        int bucket = -1;
+        for (int p = 0; p < percentiles.length; p++) {
+            long rango = Math.max(1, (long) Math.ceil(percentiles[p] / 100.0 * cantidad));
+            while (acumulado < rango && bucket < buckets - 1) {
+                acumulado += conteos[++bucket];
+            }
+            long medio = limiteInferior(bucket) + (ancho(bucket) - 1) / 2;
+            valores[p] = Math.min(medio, max);
+        }
+        return valores;
+    }
+
+    /**
+     * Conteos acumulados hasta cada límite (buckets "le" de un histograma de Prometheus), con un solo recorrido.
+     * Un bucket cuenta para un límite si todos sus valores son menores o iguales al límite
+     * (en los bordes el error es menor al ancho de un bucket, ~1.6% con la precisión por defecto).
+     * @param limitesMicros Límites en microsegundos, en orden ascendente
+     * @return Arreglo de limitesMicros.length + 1 posiciones; la última es el total (+Inf)
+     */
+    public long[] acumulados(long[] limitesMicros) {
+        long[] resultado = new long[limitesMicros.length + 1];
+        long acumulado = 0;
+        int limite = 0;
+        for (int i = 0; i < buckets; i++) {
+            long conteo = conteos.get(i);
+            if (conteo == 0) {
+                continue;
+            }
+            long superior = limiteInferior(i) + ancho(i) - 1;
+            while (limite < limitesMicros.length && superior > limitesMicros[limite]) {
+                resultado[limite++] = acumulado;
+            }
+            acumulado += conteo;
+        }
+        while (limite <= limitesMicros.length) {
+            resultado[limite++] = acumulado;
+        }
+        return resultado;
+    }
+
+    /**
+     * Resumen: cantidad, promedio, mínimo, p50, p90, p99, p99.9 y máximo en microsegundos
+     */
+    public Map<String, Object> toMap() {
+        long[] p = percentiles(50, 90, 99, 99.9);
+        Map<String, Object> map = new HashMap<>();
+        map.put("count", getTotal());
+        map.put("mean", Math.round(getPromedio()));
+        map.put("min", getMinimo());
+        map.put("p50", p[0]);
+        map.put("p90", p[1]);
+        map.put("p99", p[2]);
+        map.put("p999", p[3]);
+        map.put("max", getMaximo());
+        return map;
+    }
+}
@@ -1,52 +1,154 @@
 package ec.edu.istq.metrics;
 
+import ec.edu.istq.util.Configuracion;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.Path;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 /**
  * COLECTOR DE MÉTRICAS DE LA API
  * Almacena estadísticas de todas las peticiones HTTP
  * Thread-safe usando estructuras concurrentes
+ *
+ * Registrar una petición no bloquea ni reserva memoria (salvo la primera vez de cada endpoint):
+ * contadores LongAdder y un HistogramaLatencia por endpoint con percentiles en microsegundos.
+ * El endpoint se identifica por el método de recurso JAX-RS que atendió la petición: su clave
+ * ("GET estudiantes/{id}") se arma una sola vez desde las anotaciones y queda en caché (endpoint(Method)).
+ * Solo las peticiones sin método de recurso (ej: 404 de ruta) normalizan el path con expresiones regulares.
+ *
+ * Memoria acotada: los endpoints de métodos de recurso son tantos como métodos tiene la API;
+ * los de paths sin método de recurso (rutas inexistentes, escáneres) se limitan a
+ * estudiantes.metrics.maxEndpointsSinRecurso y el resto se agrupa en el endpoint "other".
+ * Los tiempos promedio, mínimo y máximo se siguen publicando en milisegundos.
+ *
+ * Además de los acumulados desde el último reset, cada endpoint (y el total) publica ventanas
+ * deslizantes de 1, 5 y 15 minutos (VentanaDeslizante): tasa de peticiones, tasa de errores y percentiles.
+ *
+ * Todo lo que se resetea vive en un único Estado; reset() instala uno nuevo de forma atómica.
+ * Las consultas leen un solo Estado, así nunca mezclan valores de antes y después de un reset,
+ * y las peticiones en curso terminan de registrarse en el Estado anterior (que se descarta).
  */
 public class MetricsCollector {
 
-    // Mapa de métricas por endpoint
-    private static final Map<String, EndpointMetrics> endpointMetrics = new ConcurrentHashMap<>();
+    // Estado vigente (endpoints, totales, histogramas y ventanas desde el último reset)
+    private static final AtomicReference<Estado> estado = new AtomicReference<>(new Estado());
+
+    // Límite de endpoints creados desde paths sin método de recurso; el resto va a "other"
+    private static final int MAX_ENDPOINTS_SIN_RECURSO =
+            Configuracion.entero("estudiantes.metrics.maxEndpointsSinRecurso", 50);
+    private static final String OTHER_METHOD = "*";
+    private static final String OTHER_PATH = "other";
+
+    // Patrones precompilados para normalizar paths sin método de recurso
+    private static final Pattern PREFIJO_API = Pattern.compile("^api/");
+    private static final Pattern ID_FINAL = Pattern.compile("/\\d+$");
+    private static final Pattern CEDULA = Pattern.compile("/cedula/[^/]+");
+    private static final Pattern ID_ACTIVAR = Pattern.compile("/\\d+/activar");
+    private static final Pattern ID_DESACTIVAR = Pattern.compile("/\\d+/desactivar");
+
+    // Expresión regular dentro de una variable de plantilla: {id: \d+} -> {id}
+    private static final Pattern VARIABLE_CON_REGEX = Pattern.compile("\\{\\s*(\\w+)\\s*:[^}]*}");
+
+    // Componentes que publican sus propias estadísticas (pool de conexiones, etc.)
+    private static final Map<String, Supplier<Map<String, Object>>> componentes = new ConcurrentHashMap<>();
 
-    // Métricas globales
-    private static final AtomicInteger totalRequests = new AtomicInteger(0);
-    private static final AtomicInteger successRequests = new AtomicInteger(0);
-    private static final AtomicInteger errorRequests = new AtomicInteger(0);
-    private static final AtomicLong totalResponseTime = new AtomicLong(0);
+    /**
+     * Obtiene las métricas del endpoint atendido por un método de recurso JAX-RS.
+     * La primera vez arma la clave desde @Path (clase y método) y el designador HTTP (@GET, ...);
+     * después es una búsqueda en un mapa por el Method.
+     * @param resourceMethod Método de recurso (ResourceInfo.getResourceMethod())
+     * @return Métricas del endpoint; llamar a recordRequest(statusCode, micros) al terminar la petición
+     */
+    public static EndpointMetrics endpoint(Method resourceMethod) {
+        Estado actual = estado.get();
+        EndpointMetrics metrics = actual.porMetodo.get(resourceMethod);
+        if (metrics != null) {
+            return metrics;
+        }
+        String method = designadorHttp(resourceMethod);
+        String path = plantilla(resourceMethod);
+        metrics = actual.endpointMetrics.computeIfAbsent(method + " " + path,
+                k -> new EndpointMetrics(actual, method, path));
+        actual.porMetodo.put(resourceMethod, metrics);
+        return metrics;
+    }
 
     /**
-     * Registra una petición HTTP
+     * Registra una petición HTTP que no llegó a un método de recurso (normaliza el path)
+     * @param responseTimeMicros Tiempo de respuesta en microsegundos
      */
-    public static void recordRequest(String method, String path, int statusCode, long responseTime) {
+    public static void recordRequest(String method, String path, int statusCode, long responseTimeMicros) {
         // Normalizar el path (quitar IDs específicos)
         String normalizedPath = normalizePath(path);
         String endpointKey = method + " " + normalizedPath;
 
-        // Obtener o crear métricas del endpoint
-        EndpointMetrics metrics = endpointMetrics.computeIfAbsent(
-                endpointKey,
-                k -> new EndpointMetrics(method, normalizedPath)
-        );
-
-        // Actualizar métricas del endpoint
-        metrics.recordRequest(statusCode, responseTime);
+        // Obtener o crear métricas del endpoint (solo si queda lugar bajo el límite)
+        Estado actual = estado.get();
+        EndpointMetrics metrics = actual.endpointMetrics.get(endpointKey);
+        if (metrics == null) {
+            metrics = actual.endpointMetrics.computeIfAbsent(endpointKey, k -> {
+                if (actual.endpointsSinRecurso.incrementAndGet() > MAX_ENDPOINTS_SIN_RECURSO) {
+                    actual.endpointsSinRecurso.decrementAndGet();
+                    return null;   // no se agrega la clave
+                }
+                return new EndpointMetrics(actual, method, normalizedPath);
+            });
+        }
+        if (metrics == null) {
+            actual.droppedEndpointKeys.increment();
+            metrics = actual.endpointMetrics.computeIfAbsent(OTHER_METHOD + " " + OTHER_PATH,
+                    k -> new EndpointMetrics(actual, OTHER_METHOD, OTHER_PATH));
+        }
 
-        // Actualizar métricas globales
-        totalRequests.incrementAndGet();
-        totalResponseTime.addAndGet(responseTime);
+        metrics.recordRequest(statusCode, responseTimeMicros);
+    }
 
-        if (statusCode >= 200 && statusCode < 300) {
-            successRequests.incrementAndGet();
-        } else if (statusCode >= 400) {
-            errorRequests.incrementAndGet();
+    /**
+     * Designador HTTP del método de recurso (la anotación marcada con @HttpMethod)
+     */
+    private static String designadorHttp(Method resourceMethod) {
+        for (Annotation anotacion : resourceMethod.getAnnotations()) {
+            HttpMethod designador = anotacion.annotationType().getAnnotation(HttpMethod.class);
+            if (designador != null) {
+                return designador.value();
+            }
         }
+        return "?";
+    }
+
+    /**
+     * Plantilla de la ruta: @Path de la clase + @Path del método, sin "/" sobrantes
+     * ni expresiones regulares en las variables (ej: estudiantes/{id}/activar)
+     */
+    private static String plantilla(Method resourceMethod) {
+        Path deClase = resourceMethod.getDeclaringClass().getAnnotation(Path.class);
+        Path deMetodo = resourceMethod.getAnnotation(Path.class);
+        String ruta = (deClase != null ? deClase.value() : "") + "/" + (deMetodo != null ? deMetodo.value() : "");
+        ruta = VARIABLE_CON_REGEX.matcher(ruta).replaceAll("{$1}");
+        return ruta.replaceAll("/{2,}", "/").replaceAll("^/|/$", "");
+    }
+
+    /**
+     * 2xx y 304 (GET condicional sin cambios) cuentan como éxito
+     */
+    private static boolean esExito(int statusCode) {
+        return (statusCode >= 200 && statusCode < 300) || statusCode == 304;
+    }
+
+    /**
+     * Microsegundos a milisegundos con 3 decimales
+     */
+    private static double aMilisegundos(double micros) {
+        return Math.round(micros) / 1000.0;
     }
 
     /**
@@ -57,13 +159,13 @@ public class MetricsCollector {
      */
     private static String normalizePath(String path) {
         // Remover el prefijo "api/" si existe
-        path = path.replaceFirst("^api/", "");
+        path = PREFIJO_API.matcher(path).replaceFirst("");
 
         // Patrones a normalizar
-        path = path.replaceAll("/\\d+$", "/{id}");  // IDs al final
-        path = path.replaceAll("/cedula/\\d+", "/cedula/{cedula}");  // Cédulas
-        path = path.replaceAll("/\\d+/activar", "/{id}/activar");
-        path = path.replaceAll("/\\d+/desactivar", "/{id}/desactivar");
+        path = ID_FINAL.matcher(path).replaceAll("/{id}");  // IDs al final
+        path = CEDULA.matcher(path).replaceAll("/cedula/{cedula}");  // Cédulas
+        path = ID_ACTIVAR.matcher(path).replaceAll("/{id}/activar");
+        path = ID_DESACTIVAR.matcher(path).replaceAll("/{id}/desactivar");
 
         return path;
     }
@@ -73,108 +175,210 @@ public class MetricsCollector {
      */
     public static Map<String, Object> getAllMetrics() {
         Map<String, Object> metrics = new HashMap<>();
+        Estado actual = estado.get();
 
         // Métricas globales
-        int total = totalRequests.get();
+        long total = actual.totalRequests.sum();
+        long success = actual.successRequests.sum();
         metrics.put("totalRequests", total);
-        metrics.put("successRequests", successRequests.get());
-        metrics.put("errorRequests", errorRequests.get());
-        metrics.put("averageResponseTime", total > 0 ? totalResponseTime.get() / total : 0);
-        metrics.put("successRate", total > 0 ? (successRequests.get() * 100.0 / total) : 100.0);
+        metrics.put("successRequests", success);
+        metrics.put("errorRequests", actual.errorRequests.sum());
+        metrics.put("averageResponseTime", aMilisegundos(actual.latencias.getPromedio()));
+        metrics.put("successRate", total > 0 ? (success * 100.0 / total) : 100.0);
+        metrics.put("latencyMicros", actual.latencias.toMap());
+        metrics.put("windows", actual.ventana.toMap());
+        metrics.put("since", actual.inicioMs);
 
         // Métricas por endpoint
         List<Map<String, Object>> endpoints = new ArrayList<>();
-        endpointMetrics.forEach((key, endpointMetric) -> {
+        actual.endpointMetrics.forEach((key, endpointMetric) -> {
             endpoints.add(endpointMetric.toMap());
         });
 
         // Ordenar por número de requests (mayor a menor)
         endpoints.sort((a, b) ->
-                Integer.compare((Integer) b.get("count"), (Integer) a.get("count"))
+                Long.compare((Long) b.get("count"), (Long) a.get("count"))
         );
 
         metrics.put("endpoints", endpoints);
+        metrics.put("maxUnmatchedEndpoints", MAX_ENDPOINTS_SIN_RECURSO);
+        metrics.put("droppedEndpointKeys", actual.droppedEndpointKeys.sum());
+
+        // Estadísticas de componentes (se consultan en el momento, no se resetean)
+        Map<String, Object> estadoComponentes = new HashMap<>();
+        componentes.forEach((nombre, fuente) -> estadoComponentes.put(nombre, fuente.get()));
+        metrics.put("componentes", estadoComponentes);
+
         metrics.put("timestamp", System.currentTimeMillis());
 
         return metrics;
     }
 
+    // ==============================================================
+    // ACCESO PARA EXPORTADORES (ExportadorPrometheus)
+    // ==============================================================
+
     /**
-     * Resetea todas las métricas
+     * Estado vigente; quien exporta lo lee una vez y toma todo de ahí
+     */
+    static Estado getEstado() {
+        return estado.get();
+    }
+
+    static Map<String, Supplier<Map<String, Object>>> getComponentes() {
+        return componentes;
+    }
+
+    /**
+     * Registra un componente cuyas estadísticas se incluyen en /api/metrics
+     * @param nombre Nombre del componente (ej: databasePool)
+     * @param fuente Proveedor de las estadísticas actuales
+     */
+    public static void registrarComponente(String nombre, Supplier<Map<String, Object>> fuente) {
+        componentes.put(nombre, fuente);
+    }
+
+    /**
+     * Resetea todas las métricas instalando un Estado nuevo (una sola escritura atómica).
+     * Los componentes registrados no se resetean.
      */
     public static void reset() {
-        endpointMetrics.clear();
-        totalRequests.set(0);
-        successRequests.set(0);
-        errorRequests.set(0);
-        totalResponseTime.set(0);
+        estado.set(new Estado());
     }
 
     /**
-     * Clase interna para almacenar métricas de un endpoint específico
+     * Todo lo que se cuenta desde el último reset.
+     * Los EndpointMetrics apuntan a su Estado, así una petición se registra completa en uno solo.
      */
-    private static class EndpointMetrics {
+    static final class Estado {
+        private final long inicioMs = System.currentTimeMillis();
+
+        // Métricas por endpoint
+        private final Map<String, EndpointMetrics> endpointMetrics = new ConcurrentHashMap<>();
+
+        // Métricas ya resueltas por método de recurso JAX-RS (sin trabajo con cadenas por petición)
+        private final Map<Method, EndpointMetrics> porMetodo = new ConcurrentHashMap<>();
+
+        // Endpoints creados desde paths sin método de recurso y peticiones desviadas a "other"
+        private final AtomicInteger endpointsSinRecurso = new AtomicInteger(0);
+        private final LongAdder droppedEndpointKeys = new LongAdder();
+
+        // Métricas globales
+        private final LongAdder totalRequests = new LongAdder();
+        private final LongAdder successRequests = new LongAdder();
+        private final LongAdder errorRequests = new LongAdder();
+        private final HistogramaLatencia latencias = new HistogramaLatencia();
+        private final VentanaDeslizante ventana = new VentanaDeslizante(inicioMs);
+
+        Collection<EndpointMetrics> getEndpoints() {
+            return endpointMetrics.values();
+        }
+
+        long getDroppedEndpointKeys() {
+            return droppedEndpointKeys.sum();
+        }
+    }
+
+    /**
+     * Métricas de un endpoint específico.
+     * El filtro la obtiene una vez por petición con endpoint(Method) y registra el resultado en ella.
+     */
+    public static final class EndpointMetrics {
+        private final Estado estado;
         private final String method;
         private final String path;
-        private final AtomicInteger count = new AtomicInteger(0);
-        private final AtomicLong totalTime = new AtomicLong(0);
-        private final List<Long> responseTimes = Collections.synchronizedList(new ArrayList<>());
+        private final LongAdder successCount = new LongAdder();
+        private final LongAdder errorCount = new LongAdder();
+        // Peticiones por clase de estado: índice 1 = 1xx ... 5 = 5xx
+        private final LongAdder[] porClase = {null, new LongAdder(), new LongAdder(), new LongAdder(),
+                new LongAdder(), new LongAdder()};
+        private final HistogramaLatencia latencias = new HistogramaLatencia();
+        private final VentanaDeslizante ventana;
         private volatile int lastStatusCode = 0;
-        private final AtomicInteger successCount = new AtomicInteger(0);
-        private final AtomicInteger errorCount = new AtomicInteger(0);
 
-        public EndpointMetrics(String method, String path) {
+        private EndpointMetrics(Estado estado, String method, String path) {
+            this.estado = estado;
             this.method = method;
             this.path = path;
+            this.ventana = new VentanaDeslizante(estado.inicioMs);
         }
 
-        public void recordRequest(int statusCode, long responseTime) {
-            count.incrementAndGet();
-            totalTime.addAndGet(responseTime);
-            responseTimes.add(responseTime);
+        /**
+         * Registra una petición en el endpoint y en las métricas globales de su Estado
+         * (sin reservar memoria, salvo al rotar un intervalo de las ventanas)
+         * @param responseTimeMicros Tiempo de respuesta en microsegundos
+         */
+        public void recordRequest(int statusCode, long responseTimeMicros) {
+            boolean error = statusCode >= 400;
+            latencias.registrar(responseTimeMicros);
+            ventana.registrar(responseTimeMicros, error);
             lastStatusCode = statusCode;
+            porClase[Math.max(1, Math.min(5, statusCode / 100))].increment();
+            estado.totalRequests.increment();
+            estado.latencias.registrar(responseTimeMicros);
+            estado.ventana.registrar(responseTimeMicros, error);
 
-            if (statusCode >= 200 && statusCode < 300) {
-                successCount.incrementAndGet();
-            } else if (statusCode >= 400) {
-                errorCount.incrementAndGet();
+            if (esExito(statusCode)) {
+                successCount.increment();
+                estado.successRequests.increment();
+            } else if (error) {
+                errorCount.increment();
+                estado.errorRequests.increment();
             }
+        }
 
-            // Mantener solo las últimas 100 mediciones
-            if (responseTimes.size() > 100) {
-                responseTimes.remove(0);
-            }
+        String getMethod() {
+            return method;
+        }
+
+        String getPath() {
+            return path;
         }
 
-        public Map<String, Object> toMap() {
+        HistogramaLatencia getLatencias() {
+            return latencias;
+        }
+
+        /**
+         * Peticiones con estado de la clase indicada (2 = 2xx, ..., 5 = 5xx)
+         */
+        long getPorClase(int clase) {
+            return porClase[clase].sum();
+        }
+
+        private Map<String, Object> toMap() {
             Map<String, Object> map = new HashMap<>();
-            int totalCount = count.get();
+            long totalCount = latencias.getTotal();
+            long[] percentiles = latencias.percentiles(50, 90, 99, 99.9);
 
             map.put("method", method);
             map.put("path", path);
             map.put("count", totalCount);
-            map.put("averageTime", totalCount > 0 ? totalTime.get() / totalCount : 0);
             map.put("lastStatus", lastStatusCode);
-            map.put("successCount", successCount.get());
-            map.put("errorCount", errorCount.get());
-            map.put("successRate", totalCount > 0 ? (successCount.get() * 100.0 / totalCount) : 100.0);
-
-            // Calcular min, max, mediana de tiempos de respuesta
-            if (!responseTimes.isEmpty()) {
-                synchronized (responseTimes) {
-                    List<Long> times = new ArrayList<>(responseTimes);
-                    Collections.sort(times);
-                    map.put("minTime", times.get(0));
-                    map.put("maxTime", times.get(times.size() - 1));
-                    map.put("medianTime", times.get(times.size() / 2));
-                }
-            } else {
-                map.put("minTime", 0);
-                map.put("maxTime", 0);
-                map.put("medianTime", 0);
-            }
+            map.put("successCount", successCount.sum());
+            map.put("errorCount", errorCount.sum());
+            map.put("successRate", totalCount > 0 ? (successCount.sum() * 100.0 / totalCount) : 100.0);
+
+            // Tiempos en milisegundos (compatibles con el panel) ...
+            map.put("averageTime", aMilisegundos(latencias.getPromedio()));
+            map.put("minTime", aMilisegundos(latencias.getMinimo()));
+            map.put("maxTime", aMilisegundos(latencias.getMaximo()));
+            map.put("medianTime", aMilisegundos(percentiles[0]));
+
+            // ... y percentiles en microsegundos
+            Map<String, Object> latencia = new HashMap<>();
+            latencia.put("p50", percentiles[0]);
+            latencia.put("p90", percentiles[1]);
+            latencia.put("p99", percentiles[2]);
+            latencia.put("p999", percentiles[3]);
+            latencia.put("max", latencias.getMaximo());
+            latencia.put("mean", Math.round(latencias.getPromedio()));
+            map.put("latencyMicros", latencia);
+
+            // Tasas y percentiles de los últimos 1, 5 y 15 minutos
+            map.put("windows", ventana.toMap());
 
             return map;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,132 @@
+package ec.edu.istq.metrics;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * VENTANAS DESLIZANTES DE 1, 5 Y 15 MINUTOS
+ * Anillo de 60 intervalos de 15 segundos con peticiones, errores (estado >= 400) y un
+ * HistogramaLatencia de precisión reducida. Las ventanas suman los últimos 4, 20 y 60 intervalos,
+ * incluido el actual (incompleto); la tasa se divide por el tiempo realmente cubierto.
+ *
+ * La rotación no usa bloqueos: el intervalo de cada posición lleva su número
+ * (milisegundos / 15000); el primer hilo que encuentra un número viejo instala uno nuevo
+ * con compareAndSet y los demás usan el que quedó. Solo se reserva memoria al rotar
+ * (una vez cada 15 segundos por endpoint con tráfico), no en cada petición.
+ */
+class VentanaDeslizante {
+
+    private static final long INTERVALO_MS = 15_000;
+    private static final int INTERVALOS = 60;
+    private static final int BITS_HISTOGRAMA = 5;
+
+    // Ventanas publicadas: nombre -> cantidad de intervalos
+    private static final String[] NOMBRES = {"1m", "5m", "15m"};
+    private static final int[] TAMANIOS = {4, 20, 60};
+
+    private final AtomicReferenceArray<Intervalo> anillo = new AtomicReferenceArray<>(INTERVALOS);
+
+    // Desde cuándo se cuenta (último reset); las tasas no se diluyen con tiempo sin registrar
+    private final long inicioMs;
+
+    private static final class Intervalo {
+        final long numero;
+        final LongAdder peticiones = new LongAdder();
+        final LongAdder errores = new LongAdder();
+        final HistogramaLatencia latencias = new HistogramaLatencia(BITS_HISTOGRAMA);
+
+        Intervalo(long numero) {
+            this.numero = numero;
+        }
+    }
+
+    /**
+     * @param inicioMs Momento desde el que se registra (System.currentTimeMillis())
+     */
+    VentanaDeslizante(long inicioMs) {
+        this.inicioMs = inicioMs;
+    }
+
+    /**
+     * Registra una petición en el intervalo actual
+     * @param micros Tiempo de respuesta en microsegundos
+     * @param error true si la respuesta fue un error (estado >= 400)
+     */
+    void registrar(long micros, boolean error) {
+        long numero = System.currentTimeMillis() / INTERVALO_MS;
+        int posicion = (int) (numero % INTERVALOS);
+        Intervalo intervalo = anillo.get(posicion);
+        if (intervalo == null || intervalo.numero < numero) {
+            Intervalo nuevo = new Intervalo(numero);
+            intervalo = anillo.compareAndSet(posicion, intervalo, nuevo) ? nuevo : anillo.get(posicion);
+        }
+        intervalo.peticiones.increment();
+        if (error) {
+            intervalo.errores.increment();
+        }
+        intervalo.latencias.registrar(micros);
+    }
+
+    /**
+     * Resumen de las ventanas de 1, 5 y 15 minutos
+     */
+    Map<String, Object> toMap() {
+        Map<String, Object> ventanas = new LinkedHashMap<>();
+        long ahora = System.currentTimeMillis();
+        for (int i = 0; i < NOMBRES.length; i++) {
+            ventanas.put(NOMBRES[i], resumen(TAMANIOS[i], ahora));
+        }
+        return ventanas;
+    }
+
+    /**
+     * Suma los últimos intervalos (los que quedaron de vueltas anteriores del anillo se ignoran)
+     */
+    private Map<String, Object> resumen(int intervalos, long ahora) {
+        long actual = ahora / INTERVALO_MS;
+        long peticiones = 0;
+        long errores = 0;
+        long maximo = 0;
+        long[] conteos = null;
+        HistogramaLatencia formato = null;
+
+        for (long numero = actual; numero > actual - intervalos; numero--) {
+            Intervalo intervalo = anillo.get((int) (numero % INTERVALOS));
+            if (intervalo == null || intervalo.numero != numero) {
+                continue;
+            }
+            peticiones += intervalo.peticiones.sum();
+            errores += intervalo.errores.sum();
+            maximo = Math.max(maximo, intervalo.latencias.getMaximo());
+            if (conteos == null) {
+                formato = intervalo.latencias;
+                conteos = new long[formato.getBuckets()];
+            }
+            intervalo.latencias.sumarConteos(conteos);
+        }
+
+        // Tiempo cubierto: intervalos completos + lo que va del actual, sin contar antes del último reset
+        long cubiertoMs = (intervalos - 1) * INTERVALO_MS + ahora % INTERVALO_MS;
+        cubiertoMs = Math.max(1, Math.min(cubiertoMs, ahora - inicioMs));
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("requests", peticiones);
+        map.put("errors", errores);
+        map.put("ratePerSecond", Math.round(peticiones * 1_000_000.0 / cubiertoMs) / 1000.0);
+        map.put("errorRate", peticiones > 0 ? (errores * 100.0 / peticiones) : 0.0);
+        map.put("seconds", Math.round(cubiertoMs / 1000.0));
+
+        long[] p = conteos != null ? formato.percentiles(conteos, maximo, 50, 90, 99, 99.9) : new long[4];
+        Map<String, Object> latencia = new HashMap<>();
+        latencia.put("p50", p[0]);
+        latencia.put("p90", p[1]);
+        latencia.put("p99", p[2]);
+        latencia.put("p999", p[3]);
+        latencia.put("max", maximo);
+        map.put("latencyMicros", latencia);
+        return map;
+    }
+}
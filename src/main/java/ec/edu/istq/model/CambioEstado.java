@@ -0,0 +1,53 @@
+package ec.edu.istq.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * PETICIÓN DE CAMBIO DE ESTADO MASIVO
+ * Cuerpo de PUT /api/estudiantes/estado. Se indica una de dos formas:
+ *   - Por IDs:    {"ids": [1, 2, 3], "activo": false}
+ *   - Por filtro: {"carrera": "Software", "nivel": 6, "activo": false}
+ */
+public class CambioEstado implements Serializable {
+
+    private List<Long> ids;         // IDs de los estudiantes (forma por IDs)
+    private String carrera;         // Filtro por carrera (forma por filtro)
+    private Integer nivel;          // Filtro por nivel (forma por filtro)
+    private Boolean activo;         // Nuevo estado (requerido)
+
+    public CambioEstado() {
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public String getCarrera() {
+        return carrera;
+    }
+
+    public void setCarrera(String carrera) {
+        this.carrera = carrera;
+    }
+
+    public Integer getNivel() {
+        return nivel;
+    }
+
+    public void setNivel(Integer nivel) {
+        this.nivel = nivel;
+    }
+
+    public Boolean getActivo() {
+        return activo;
+    }
+
+    public void setActivo(Boolean activo) {
+        this.activo = activo;
+    }
+}
@@ -23,7 +23,7 @@ public class Estudiante implements Serializable {
     private String telefono;            // Número de teléfono
     private String carrera;             // Carrera que estudia
     private Integer nivel;              // Nivel académico (1-10)
-    private Boolean activo = true;      // Estado activo/inactivo (default: true)
+    private Boolean activo;             // Estado activo/inactivo (null en la entrada = no indicado)
     private Timestamp fechaCreacion;    // Fecha de creación del registro
     private Timestamp fechaActualizacion; // Fecha de última actualización
 
@@ -61,6 +61,25 @@ public class Estudiante implements Serializable {
         this.activo = true; // Por defecto activo
     }
 
+    /**
+     * CONSTRUCTOR DE COPIA
+     * Usado por los cachés e índices en memoria para no exponer sus instancias internas
+     * @param otro Estudiante a copiar
+     */
+    public Estudiante(Estudiante otro) {
+        this.id = otro.id;
+        this.cedula = otro.cedula;
+        this.nombres = otro.nombres;
+        this.apellidos = otro.apellidos;
+        this.email = otro.email;
+        this.telefono = otro.telefono;
+        this.carrera = otro.carrera;
+        this.nivel = otro.nivel;
+        this.activo = otro.activo;
+        this.fechaCreacion = otro.fechaCreacion;
+        this.fechaActualizacion = otro.fechaActualizacion;
+    }
+
     // ==============================================================
     // MÉTODOS GETTER Y SETTER (ACCESORES Y MUTADORES)
     // ==============================================================
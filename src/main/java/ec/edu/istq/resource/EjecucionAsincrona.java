@@ -0,0 +1,134 @@
+package ec.edu.istq.resource;
+
+import ec.edu.istq.util.Configuracion;
+import ec.edu.istq.util.ContextoLectura;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * EJECUCIÓN DE ENDPOINTS EN HILOS VIRTUALES
+ * Los endpoints reciben un AsyncResponse (@Suspended) y entregan aquí su trabajo.
+ * En modo "asincrona" (por defecto) el trabajo JDBC corre en un hilo virtual y el hilo
+ * del contenedor queda libre de inmediato, así una base de datos lenta no agota el
+ * pool de workers de WildFly (y /api/metrics/health sigue respondiendo).
+ * Cada petición tiene un tiempo máximo: al superarlo se responde 503.
+ * El ContextoLectura de la petición (leer de la principal tras escribir) se traslada al hilo virtual.
+ *
+ * Con estudiantes.ejecucion.modo=bloqueante el trabajo se ejecuta en el hilo del
+ * contenedor, como antes (útil para comparar con PruebaCarga).
+ */
+public final class EjecucionAsincrona {
+
+    private static final boolean ASINCRONA =
+            !"bloqueante".equalsIgnoreCase(Configuracion.texto("estudiantes.ejecucion.modo", "asincrona"));
+
+    private static final long TIMEOUT_MS = Configuracion.largo("estudiantes.ejecucion.timeoutMs", 30_000);
+
+    // Un hilo virtual por petición: bloquearse en JDBC no ocupa un hilo del sistema operativo
+    private static final ExecutorService EJECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("estudiantes-", 0).factory());
+
+    // Estadísticas
+    private static final LongAdder ejecutadas = new LongAdder();
+    private static final LongAdder vencidas = new LongAdder();
+    private static final LongAdder rechazadas = new LongAdder();
+
+    private EjecucionAsincrona() {
+    }
+
+    /**
+     * Ejecuta el trabajo de un endpoint y reanuda la respuesta con su resultado
+     * @param respuesta AsyncResponse inyectado con @Suspended
+     * @param tarea Trabajo del endpoint (maneja sus propios errores y arma la Response)
+     */
+    public static void ejecutar(AsyncResponse respuesta, Callable<Response> tarea) {
+        ejecutadas.increment();
+        if (!ASINCRONA) {
+            reanudar(respuesta, tarea);
+            return;
+        }
+
+        // El tiempo máximo se programa antes de enviar la tarea (que podría terminar enseguida)
+        AtomicReference<Future<?>> trabajo = new AtomicReference<>();
+        respuesta.setTimeout(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        respuesta.setTimeoutHandler(vencida -> {
+            vencidas.increment();
+            Future<?> enCurso = trabajo.get();
+            if (enCurso != null) {
+                enCurso.cancel(true);
+            }
+            vencida.resume(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .type(MediaType.APPLICATION_JSON)
+                    .entity(crearMensajeError("La petición superó el tiempo máximo de " + TIMEOUT_MS + "ms"))
+                    .build());
+        });
+
+        boolean primario = ContextoLectura.isPrimario();
+        try {
+            trabajo.set(EJECUTOR.submit(() -> {
+                ContextoLectura.setPrimario(primario);
+                try {
+                    reanudar(respuesta, tarea);
+                } finally {
+                    ContextoLectura.limpiar();
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            // Tras detener() (aplicación replegándose) no se aceptan tareas: responder en vez de dejarla colgada
+            rechazadas.increment();
+            respuesta.resume(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .type(MediaType.APPLICATION_JSON)
+                    .entity(crearMensajeError("El servicio se está deteniendo, intente nuevamente"))
+                    .build());
+        }
+    }
+
+    private static void reanudar(AsyncResponse respuesta, Callable<Response> tarea) {
+        try {
+            respuesta.resume(tarea.call());
+        } catch (Throwable e) {
+            // Excepciones no manejadas por el endpoint (ej: WebApplicationException) siguen el flujo de JAX-RS
+            respuesta.resume(e);
+        }
+    }
+
+    private static Map<String, Object> crearMensajeError(String mensaje) {
+        Map<String, Object> respuesta = new HashMap<>();
+        respuesta.put("error", true);
+        respuesta.put("mensaje", mensaje);
+        respuesta.put("timestamp", System.currentTimeMillis());
+        return respuesta;
+    }
+
+    /**
+     * Modo, tiempo máximo y peticiones vencidas o rechazadas
+     */
+    public static Map<String, Object> getEstadisticas() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("modo", ASINCRONA ? "asincrona" : "bloqueante");
+        stats.put("timeoutMs", TIMEOUT_MS);
+        stats.put("ejecutadas", ejecutadas.sum());
+        stats.put("vencidas", vencidas.sum());
+        stats.put("rechazadas", rechazadas.sum());
+        return stats;
+    }
+
+    /**
+     * Deja de aceptar trabajo (al replegar la aplicación)
+     */
+    public static void detener() {
+        EJECUTOR.shutdown();
+    }
+}
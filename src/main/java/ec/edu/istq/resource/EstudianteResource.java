@@ -1,16 +1,42 @@
 package ec.edu.istq.resource;
 
+import ec.edu.istq.dao.CedulaDuplicadaException;
 import ec.edu.istq.dao.EstudianteDAO;
-import ec.edu.istq.dao.EstudianteDAOImpl;
+import ec.edu.istq.dao.EstudianteDAOFactory;
+import ec.edu.istq.dao.EstudianteExportador;
+import ec.edu.istq.dao.Proyeccion;
+import ec.edu.istq.dao.SobrecargaException;
+import ec.edu.istq.dao.VersionColeccion;
+import ec.edu.istq.model.CambioEstado;
 import ec.edu.istq.model.Estudiante;
+import ec.edu.istq.search.IndiceNgramas;
 import ec.edu.istq.util.CedulaValidator;
+import ec.edu.istq.util.ContextoLectura;
+import ec.edu.istq.util.CursorCodec;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
-
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 /**
  * RECURSO REST PARA ESTUDIANTES
@@ -27,7 +53,23 @@ public class EstudianteResource {
     // DEPENDENCIAS - PATRÓN DAO
     // ==============================================================
 
-    private final EstudianteDAO estudianteDAO = new EstudianteDAOImpl();
+    private final EstudianteDAO estudianteDAO = EstudianteDAOFactory.obtener();
+
+    // Tamaños de página para la paginación por cursor
+    private static final int LIMITE_PAGINA_DEFECTO = 50;
+    private static final int LIMITE_PAGINA_MAXIMO = 500;
+
+    // Máximo de resultados por página de búsqueda
+    private static final int LIMITE_BUSQUEDA_MAXIMO = 200;
+
+    // Máximo de estudiantes aceptados en POST /lote
+    private static final int LOTE_MAXIMO = 5000;
+
+    // Máximo de IDs o cédulas por consulta múltiple (?ids= y POST /cedulas)
+    private static final int CONSULTA_MULTIPLE_MAXIMO = 1000;
+
+    // Máximo de IDs por petición en PUT /estado
+    private static final int CAMBIO_ESTADO_MAXIMO = 50_000;
 
     // ==============================================================
     // ENDPOINTS DE CONSULTA (GET)
@@ -35,96 +77,371 @@ public class EstudianteResource {
 
     /**
      * GET /api/estudiantes
-     * Obtiene todos los estudiantes registrados
-     * @return Response con lista de estudiantes (200) o error (500)
+     * GET /api/estudiantes?limit={n}&after={cursor}
+     * GET /api/estudiantes?stream=true
+     * GET /api/estudiantes?fields=id,nombres,apellidos,carrera
+     * GET /api/estudiantes?ids=3,1,2
+     * Sin parámetros devuelve todos los estudiantes registrados.
+     * Con ids devuelve esos estudiantes en una sola consulta, en el orden pedido (ver consultaMultiple).
+     * Con limit/after devuelve una página (paginación por cursor sobre el ID)
+     * junto con el cursor de la página siguiente.
+     * Con stream=true escribe todos los estudiantes mientras se leen (memoria constante).
+     * Con fields solo se leen y devuelven esos campos (el id siempre se incluye).
+     * Salvo en streaming, la respuesta lleva ETag (total + última actualización + parámetros) y
+     * Last-Modified; con If-None-Match vigente se responde 304 sin leer las filas.
+     * @param after Cursor opaco devuelto en la página anterior (Query Parameter)
+     * @param limit Tamaño de página (1-500, por defecto 50)
+     * @param stream true para respuesta en streaming
+     * @param fields Campos a devolver, separados por comas (opcional)
+     * @param ids IDs separados por comas (opcional, máximo 1000)
+     * @param request Petición, para evaluar If-None-Match
+     * @param asyncResponse Recibe la respuesta con lista o página de estudiantes (200), sin cambios (304),
+     *        parámetros inválidos (400) o error (500)
      */
     @GET
-    public Response obtenerTodos() {
-        try {
-            List<Estudiante> estudiantes = estudianteDAO.obtenerTodos();
-            return Response.ok(estudiantes).build();
-        } catch (Exception e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity(crearMensajeError("Error al obtener estudiantes: " + e.getMessage()))
-                    .build();
-        }
+    public void obtenerTodos(@QueryParam("after") String after,
+                             @QueryParam("limit") Integer limit,
+                             @QueryParam("stream") boolean stream,
+                             @QueryParam("fields") String fields,
+                             @QueryParam("ids") String ids,
+                             @Context Request request,
+                             @Suspended AsyncResponse asyncResponse) {
+        EjecucionAsincrona.ejecutar(asyncResponse, () -> {
+            try {
+                Proyeccion proyeccion = Proyeccion.desde(fields);
+
+                if (stream) {
+                    return Response.ok(new EstudiantesStreamingOutput(
+                            consumidor -> estudianteDAO.recorrerTodos(proyeccion, consumidor))).build();
+                }
+
+                // Se compara la versión antes de leer: un ETag vigente se responde con 304.
+                // Versión y filas se leen de la misma réplica (o de la principal), en ese orden:
+                // el cuerpo nunca es más viejo que la versión de su ETag
+                ContextoLectura.fijarReplica();
+                VersionColeccion version = estudianteDAO.obtenerVersionColeccion();
+                EntityTag etag = crearEtag(version.getTotal() + "." + marcaTiempo(version.getUltimaActualizacion()),
+                        after, limit, proyeccion.toString(), ids, version.getPendientes());
+                Date ultimaModificacion = ultimaModificacion(version.getUltimaActualizacion());
+                // Solo ETag: Last-Modified (MAX de fechas) no cambia al eliminar, If-Modified-Since no basta
+                Response.ResponseBuilder noModificado = request.evaluatePreconditions(etag);
+                if (noModificado != null) {
+                    return conVersion(noModificado, etag, ultimaModificacion);
+                }
+
+                if (ids != null) {
+                    Set<Long> solicitados = new LinkedHashSet<>();
+                    for (String id : ids.split(",")) {
+                        if (!id.trim().isEmpty()) {
+                            try {
+                                solicitados.add(Long.parseLong(id.trim()));
+                            } catch (NumberFormatException e) {
+                                return Response.status(Response.Status.BAD_REQUEST)
+                                        .entity(crearMensajeError("ID inválido: " + id.trim()))
+                                        .build();
+                            }
+                        }
+                    }
+                    if (solicitados.isEmpty() || solicitados.size() > CONSULTA_MULTIPLE_MAXIMO) {
+                        return Response.status(Response.Status.BAD_REQUEST)
+                                .entity(crearMensajeError("Se requieren entre 1 y "
+                                        + CONSULTA_MULTIPLE_MAXIMO + " IDs"))
+                                .build();
+                    }
+                    List<Long> claves = new ArrayList<>(solicitados);
+                    return conVersion(Response.ok(consultaMultiple(claves, estudianteDAO.obtenerPorIds(claves),
+                            Estudiante::getId, proyeccion)), etag, ultimaModificacion);
+                }
+
+                if (after == null && limit == null) {
+                    List<Estudiante> estudiantes = estudianteDAO.obtenerTodos(proyeccion);
+                    return conVersion(Response.ok(estudiantes), etag, ultimaModificacion);
+                }
+
+                int limite = (limit == null) ? LIMITE_PAGINA_DEFECTO : limit;
+                if (limite < 1 || limite > LIMITE_PAGINA_MAXIMO) {
+                    return Response.status(Response.Status.BAD_REQUEST)
+                            .entity(crearMensajeError("El límite debe estar entre 1 y " + LIMITE_PAGINA_MAXIMO))
+                            .build();
+                }
+
+                Long despuesDeId = null;
+                if (after != null && !after.isEmpty()) {
+                    try {
+                        despuesDeId = CursorCodec.decodificar(after);
+                    } catch (IllegalArgumentException e) {
+                        return Response.status(Response.Status.BAD_REQUEST)
+                                .entity(crearMensajeError("El cursor de paginación no es válido"))
+                                .build();
+                    }
+                }
+
+                // Se pide un elemento extra para saber si existe una página siguiente
+                List<Estudiante> estudiantes = estudianteDAO.obtenerPagina(despuesDeId, limite + 1, proyeccion);
+                boolean hayMas = estudiantes.size() > limite;
+                if (hayMas) {
+                    estudiantes = estudiantes.subList(0, limite);
+                }
+
+                Map<String, Object> pagina = new HashMap<>();
+                pagina.put("datos", estudiantes);
+                pagina.put("limite", limite);
+                pagina.put("hayMas", hayMas);
+                pagina.put("siguienteCursor", hayMas
+                        ? CursorCodec.codificar(estudiantes.get(estudiantes.size() - 1).getId())
+                        : null);
+                return conVersion(Response.ok(pagina), etag, ultimaModificacion);
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity(crearMensajeError(e.getMessage()))
+                        .build();
+            } catch (Exception e) {
+                return crearRespuestaError("Error al obtener estudiantes", e);
+            } finally {
+                ContextoLectura.liberarReplica();
+            }
+        });
     }
 
     /**
      * GET /api/estudiantes/{id}
-     * Obtiene un estudiante por su ID
+     * Obtiene un estudiante por su ID.
+     * La respuesta lleva ETag y Last-Modified (fecha_actualizacion); con If-None-Match o
+     * If-Modified-Since vigentes se responde 304 consultando solo la fecha, sin leer la fila.
      * @param id ID del estudiante (Path Parameter)
-     * @return Response con estudiante (200), no encontrado (404) o error (500)
+     * @param fields Campos a devolver, separados por comas (opcional)
+     * @param request Petición, para evaluar If-None-Match / If-Modified-Since
+     * @param asyncResponse Recibe la respuesta con estudiante (200), sin cambios (304), no encontrado (404),
+     *        campos inválidos (400) o error (500)
      */
     @GET
     @Path("/{id}")
-    public Response obtenerPorId(@PathParam("id") Long id) {
-        try {
-            Estudiante estudiante = estudianteDAO.obtenerPorId(id);
-
-            if (estudiante != null) {
-                return Response.ok(estudiante).build();
-            } else {
-                return Response.status(Response.Status.NOT_FOUND)
-                        .entity(crearMensajeError("Estudiante no encontrado"))
+    public void obtenerPorId(@PathParam("id") Long id, @QueryParam("fields") String fields,
+                             @Context Request request,
+                             @Suspended AsyncResponse asyncResponse) {
+        EjecucionAsincrona.ejecutar(asyncResponse, () -> {
+            try {
+                Proyeccion proyeccion = Proyeccion.desde(fields);
+
+                Timestamp version = estudianteDAO.obtenerFechaActualizacion(id);
+                if (version != null) {
+                    EntityTag etag = crearEtag(id + "." + marcaTiempo(version), proyeccion.toString());
+                    Date ultimaModificacion = ultimaModificacion(version);
+                    Response.ResponseBuilder noModificado = request.evaluatePreconditions(ultimaModificacion, etag);
+                    if (noModificado != null) {
+                        return conVersion(noModificado, etag, ultimaModificacion);
+                    }
+                }
+
+                Estudiante estudiante = estudianteDAO.obtenerPorId(id);
+                if (estudiante != null) {
+                    // La versión se toma de la fila leída (pudo cambiar después de la consulta anterior),
+                    // con la misma regla que obtenerFechaActualizacion: sin actualizaciones, la fecha de creación
+                    Timestamp leida = estudiante.getFechaActualizacion() != null
+                            ? estudiante.getFechaActualizacion() : estudiante.getFechaCreacion();
+                    return conVersion(Response.ok(proyeccion.aplicar(estudiante)),
+                            crearEtag(id + "." + marcaTiempo(leida), proyeccion.toString()),
+                            ultimaModificacion(leida));
+                } else {
+                    return Response.status(Response.Status.NOT_FOUND)
+                            .entity(crearMensajeError("Estudiante no encontrado"))
+                            .build();
+                }
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity(crearMensajeError(e.getMessage()))
                         .build();
+            } catch (Exception e) {
+                return crearRespuestaError("Error al obtener estudiante", e);
             }
-        } catch (Exception e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity(crearMensajeError("Error al obtener estudiante: " + e.getMessage()))
-                    .build();
-        }
+        });
     }
 
     /**
      * GET /api/estudiantes/cedula/{cedula}
      * Obtiene un estudiante por su cédula
      * @param cedula Cédula del estudiante (Path Parameter)
-     * @return Response con estudiante (200), no encontrado (404) o error (500)
+     * @param fields Campos a devolver, separados por comas (opcional)
+     * @param asyncResponse Recibe la respuesta con estudiante (200), no encontrado (404),
+     *        campos inválidos (400) o error (500)
      */
     @GET
     @Path("/cedula/{cedula}")
-    public Response obtenerPorCedula(@PathParam("cedula") String cedula) {
-        try {
-            Estudiante estudiante = estudianteDAO.obtenerPorCedula(cedula);
+    public void obtenerPorCedula(@PathParam("cedula") String cedula, @QueryParam("fields") String fields,
+                                 @Suspended AsyncResponse asyncResponse) {
+        EjecucionAsincrona.ejecutar(asyncResponse, () -> {
+            try {
+                Proyeccion proyeccion = Proyeccion.desde(fields);
+                Estudiante estudiante = estudianteDAO.obtenerPorCedula(cedula);
+
+                if (estudiante != null) {
+                    return Response.ok(proyeccion.aplicar(estudiante)).build();
+                } else {
+                    return Response.status(Response.Status.NOT_FOUND)
+                            .entity(crearMensajeError("Estudiante no encontrado"))
+                            .build();
+                }
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity(crearMensajeError(e.getMessage()))
+                        .build();
+            } catch (Exception e) {
+                return crearRespuestaError("Error al obtener estudiante", e);
+            }
+        });
+    }
 
-            if (estudiante != null) {
-                return Response.ok(estudiante).build();
-            } else {
-                return Response.status(Response.Status.NOT_FOUND)
-                        .entity(crearMensajeError("Estudiante no encontrado"))
+    /**
+     * POST /api/estudiantes/cedulas
+     * Obtiene varios estudiantes por cédula en una sola consulta, en el orden pedido.
+     * @param cedulas Arreglo de cédulas (JSON, máximo 1000)
+     * @param fields Campos a devolver, separados por comas (opcional)
+     * @param asyncResponse Recibe la respuesta con encontrados y no encontrados (200),
+     *        petición inválida (400) o error (500)
+     */
+    @POST
+    @Path("/cedulas")
+    public void obtenerPorCedulas(List<String> cedulas, @QueryParam("fields") String fields,
+                                  @Suspended AsyncResponse asyncResponse) {
+        EjecucionAsincrona.ejecutar(asyncResponse, () -> {
+            try {
+                Proyeccion proyeccion = Proyeccion.desde(fields);
+
+                Set<String> solicitadas = new LinkedHashSet<>();
+                if (cedulas != null) {
+                    for (String cedula : cedulas) {
+                        if (cedula != null && !cedula.trim().isEmpty()) {
+                            solicitadas.add(cedula.trim());
+                        }
+                    }
+                }
+                if (solicitadas.isEmpty() || solicitadas.size() > CONSULTA_MULTIPLE_MAXIMO) {
+                    return Response.status(Response.Status.BAD_REQUEST)
+                            .entity(crearMensajeError("Se requiere un arreglo de 1 a "
+                                    + CONSULTA_MULTIPLE_MAXIMO + " cédulas"))
+                            .build();
+                }
+
+                List<String> claves = new ArrayList<>(solicitadas);
+                return Response.ok(consultaMultiple(claves, estudianteDAO.obtenerPorCedulas(claves),
+                        Estudiante::getCedula, proyeccion)).build();
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity(crearMensajeError(e.getMessage()))
                         .build();
+            } catch (Exception e) {
+                return crearRespuestaError("Error al obtener estudiantes", e);
             }
-        } catch (Exception e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity(crearMensajeError("Error al obtener estudiante: " + e.getMessage()))
-                    .build();
-        }
+        });
     }
 
     /**
-     * GET /api/estudiantes/buscar?q={termino}
-     * Busca estudiantes por término en múltiples campos
-     * @param termino Término de búsqueda (Query Parameter)
-     * @return Response con lista de estudiantes (200) o error (400/500)
+     * GET /api/estudiantes/buscar?q={termino}&limit={n}&offset={m}
+     * Busca estudiantes por término en múltiples campos (sin distinguir mayúsculas ni tildes)
+     * Los resultados vienen ordenados por relevancia y paginados.
+     * @param termino Término de búsqueda (Query Parameter, mínimo 3 caracteres)
+     * @param limit Cantidad máxima de resultados (1-200, por defecto 50)
+     * @param offset Resultados a omitir (por defecto 0)
+     * @param stream true para escribir todos los resultados mientras se leen (sin límite)
+     * @param fields Campos a devolver, separados por comas (opcional)
+     * @param asyncResponse Recibe la respuesta con lista de estudiantes (200) o error (400/500)
      */
     @GET
     @Path("/buscar")
-    public Response buscar(@QueryParam("q") String termino) {
-        try {
-            if (termino == null || termino.trim().isEmpty()) {
+    public void buscar(@QueryParam("q") String termino,
+                       @QueryParam("limit") @DefaultValue("50") int limit,
+                       @QueryParam("offset") @DefaultValue("0") int offset,
+                       @QueryParam("stream") boolean stream,
+                       @QueryParam("fields") String fields,
+                       @Suspended AsyncResponse asyncResponse) {
+        EjecucionAsincrona.ejecutar(asyncResponse, () -> {
+            try {
+                Proyeccion proyeccion = Proyeccion.desde(fields);
+
+                if (termino == null || termino.trim().isEmpty()) {
+                    return Response.status(Response.Status.BAD_REQUEST)
+                            .entity(crearMensajeError("El término de búsqueda es requerido"))
+                            .build();
+                }
+
+                // Sin trigramas el índice no puede acotar candidatos: se evita recorrerlo completo
+                if (IndiceNgramas.normalizar(termino.trim()).length() < IndiceNgramas.LONGITUD_MINIMA) {
+                    return Response.status(Response.Status.BAD_REQUEST)
+                            .entity(crearMensajeError("El término de búsqueda debe tener al menos "
+                                    + IndiceNgramas.LONGITUD_MINIMA + " caracteres"))
+                            .build();
+                }
+
+                if (stream) {
+                    return Response.ok(new EstudiantesStreamingOutput(
+                            consumidor -> estudianteDAO.recorrerBusqueda(termino,
+                                    estudiante -> consumidor.aceptar(proyeccion.aplicar(estudiante))))).build();
+                }
+
+                if (limit < 1 || limit > LIMITE_BUSQUEDA_MAXIMO || offset < 0) {
+                    return Response.status(Response.Status.BAD_REQUEST)
+                            .entity(crearMensajeError("El límite debe estar entre 1 y " + LIMITE_BUSQUEDA_MAXIMO
+                                    + " y el desplazamiento no puede ser negativo"))
+                            .build();
+                }
+
+                // La búsqueda se responde desde el índice en memoria: la proyección se aplica al resultado
+                List<Estudiante> estudiantes = estudianteDAO.buscar(termino, limit, offset);
+                if (!proyeccion.esCompleta()) {
+                    estudiantes.replaceAll(proyeccion::aplicar);
+                }
+                return Response.ok(estudiantes).build();
+            } catch (IllegalArgumentException e) {
                 return Response.status(Response.Status.BAD_REQUEST)
-                        .entity(crearMensajeError("El término de búsqueda es requerido"))
+                        .entity(crearMensajeError(e.getMessage()))
                         .build();
+            } catch (Exception e) {
+                return crearRespuestaError("Error al buscar estudiantes", e);
             }
+        });
+    }
 
-            List<Estudiante> estudiantes = estudianteDAO.buscar(termino);
-            return Response.ok(estudiantes).build();
-        } catch (Exception e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity(crearMensajeError("Error al buscar estudiantes: " + e.getMessage()))
+    /**
+     * GET /api/estudiantes/export?format=csv|ndjson&carrera={carrera}&activo={true|false}
+     * Exporta todos los estudiantes (o los filtrados) directamente desde COPY de PostgreSQL.
+     * Pensado para procesos de análisis que necesitan la nómina completa.
+     * @param formato csv (por defecto) o ndjson
+     * @param carrera Filtro opcional por carrera
+     * @param activo Filtro opcional por estado
+     * @return Response en streaming (200) o formato inválido (400)
+     */
+    @GET
+    @Path("/export")
+    @Produces({"text/csv", "application/x-ndjson", MediaType.APPLICATION_JSON})
+    public Response exportar(@QueryParam("format") @DefaultValue("csv") String formato,
+                             @QueryParam("carrera") String carrera,
+                             @QueryParam("activo") Boolean activo) {
+        boolean ndjson = "ndjson".equalsIgnoreCase(formato);
+        if (!ndjson && !"csv".equalsIgnoreCase(formato)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .type(MediaType.APPLICATION_JSON)
+                    .entity(crearMensajeError("Formato no soportado: use csv o ndjson"))
                     .build();
         }
+
+        EstudianteExportador exportador = new EstudianteExportador();
+        StreamingOutput salida = output -> {
+            try {
+                if (ndjson) {
+                    exportador.exportarNdjson(output, carrera, activo);
+                } else {
+                    exportador.exportarCsv(output, carrera, activo);
+                }
+            } catch (SQLException e) {
+                throw new WebApplicationException(e, Response.Status.INTERNAL_SERVER_ERROR);
+            }
+        };
+
+        String extension = ndjson ? "ndjson" : "csv";
+        return Response.ok(salida)
+                .type(ndjson ? "application/x-ndjson" : "text/csv; charset=UTF-8")
+                .header("Content-Disposition", "attachment; filename=\"estudiantes." + extension + "\"")
+                .build();
     }
 
     // ==============================================================
@@ -133,45 +450,149 @@ public class EstudianteResource {
 
     /**
      * POST /api/estudiantes
-     * Crea un nuevo estudiante
+     * Crea un nuevo estudiante con un único INSERT ... ON CONFLICT (sin consulta previa);
+     * si no se inserta ninguna fila es porque la cédula ya existe.
      * @param estudiante Datos del estudiante en cuerpo de petición (JSON)
-     * @return Response con estudiante creado (201), error validación (400),
+     * @param asyncResponse Recibe la respuesta con estudiante creado (201), error validación (400),
      *         conflicto (409) o error (500)
      */
     @POST
-    public Response crear(Estudiante estudiante) {
-        try {
-            // Validar datos del estudiante
-            String errorValidacion = validarEstudiante(estudiante, true);
-            if (errorValidacion != null) {
-                return Response.status(Response.Status.BAD_REQUEST)
-                        .entity(crearMensajeError(errorValidacion))
-                        .build();
+    public void crear(Estudiante estudiante, @Suspended AsyncResponse asyncResponse) {
+        EjecucionAsincrona.ejecutar(asyncResponse, () -> {
+            try {
+                // Validar datos del estudiante
+                String errorValidacion = validarEstudiante(estudiante, true);
+                if (errorValidacion != null) {
+                    return Response.status(Response.Status.BAD_REQUEST)
+                            .entity(crearMensajeError(errorValidacion))
+                            .build();
+                }
+
+                // Crear estudiante
+                estudiante.setId(null);
+                Estudiante estudianteCreado = estudianteDAO.crear(estudiante);
+
+                if (estudianteCreado.getId() != null) {
+                    return Response.status(Response.Status.CREATED)
+                            .entity(estudianteCreado)
+                            .build();
+                } else {
+                    return Response.status(Response.Status.CONFLICT)
+                            .entity(crearMensajeError("Ya existe un estudiante con esa cédula"))
+                            .build();
+                }
+            } catch (Exception e) {
+                return crearRespuestaError("Error al crear estudiante", e);
             }
+        });
+    }
 
-            // Verificar que no exista otro estudiante con la misma cédula
-            if (estudianteDAO.existePorCedula(estudiante.getCedula())) {
-                return Response.status(Response.Status.CONFLICT)
-                        .entity(crearMensajeError("Ya existe un estudiante con esa cédula"))
-                        .build();
+    /**
+     * POST /api/estudiantes/lote
+     * Crea varios estudiantes en una sola transacción.
+     * Cada elemento se valida por separado; los inválidos o con cédula repetida
+     * se reportan sin impedir la creación del resto.
+     * @param estudiantes Arreglo de estudiantes (JSON)
+     * @param asyncResponse Recibe la respuesta con el resultado por elemento (200),
+     *        petición inválida (400) o error (500)
+     */
+    @POST
+    @Path("/lote")
+    public void crearLote(List<Estudiante> estudiantes, @Suspended AsyncResponse asyncResponse) {
+        EjecucionAsincrona.ejecutar(asyncResponse, () -> {
+            try {
+                if (estudiantes == null || estudiantes.isEmpty()) {
+                    return Response.status(Response.Status.BAD_REQUEST)
+                            .entity(crearMensajeError("Se requiere un arreglo de estudiantes"))
+                            .build();
+                }
+                if (estudiantes.size() > LOTE_MAXIMO) {
+                    return Response.status(Response.Status.BAD_REQUEST)
+                            .entity(crearMensajeError("El lote no puede superar " + LOTE_MAXIMO + " estudiantes"))
+                            .build();
+                }
+
+                // Validar cada elemento y descartar cédulas repetidas dentro del mismo lote
+                List<Map<String, Object>> resultados = new ArrayList<>(estudiantes.size());
+                List<Estudiante> validos = new ArrayList<>(estudiantes.size());
+                Set<String> cedulasVistas = new HashSet<>();
+
+                for (int i = 0; i < estudiantes.size(); i++) {
+                    Estudiante estudiante = estudiantes.get(i);
+                    Map<String, Object> resultado = new HashMap<>();
+                    resultado.put("indice", i);
+                    resultados.add(resultado);
+
+                    String errorValidacion = validarEstudiante(estudiante, true);
+                    if (errorValidacion != null) {
+                        resultado.put("estado", Response.Status.BAD_REQUEST.getStatusCode());
+                        resultado.put("mensaje", errorValidacion);
+                    } else if (!cedulasVistas.add(estudiante.getCedula())) {
+                        resultado.put("estado", Response.Status.CONFLICT.getStatusCode());
+                        resultado.put("mensaje", "Cédula repetida dentro del lote");
+                    } else {
+                        estudiante.setId(null);
+                        validos.add(estudiante);
+                    }
+                }
+
+                int creados = validos.isEmpty() ? 0 : estudianteDAO.crearLote(validos);
+
+                // Completar el resultado de los elementos enviados a la base de datos
+                for (int i = 0; i < estudiantes.size(); i++) {
+                    Map<String, Object> resultado = resultados.get(i);
+                    if (resultado.containsKey("estado")) {
+                        continue;
+                    }
+                    Estudiante estudiante = estudiantes.get(i);
+                    if (estudiante.getId() != null) {
+                        resultado.put("estado", Response.Status.CREATED.getStatusCode());
+                        resultado.put("id", estudiante.getId());
+                    } else {
+                        resultado.put("estado", Response.Status.CONFLICT.getStatusCode());
+                        resultado.put("mensaje", "Ya existe un estudiante con esa cédula");
+                    }
+                }
+
+                Map<String, Object> respuesta = new HashMap<>();
+                respuesta.put("total", estudiantes.size());
+                respuesta.put("creados", creados);
+                respuesta.put("fallidos", estudiantes.size() - creados);
+                respuesta.put("resultados", resultados);
+                respuesta.put("timestamp", System.currentTimeMillis());
+                return Response.ok(respuesta).build();
+            } catch (Exception e) {
+                return crearRespuestaError("Error al crear lote de estudiantes", e);
             }
+        });
+    }
 
-            // Crear estudiante
-            Estudiante estudianteCreado = estudianteDAO.crear(estudiante);
-
-            if (estudianteCreado.getId() != null) {
-                return Response.status(Response.Status.CREATED)
-                        .entity(estudianteCreado)
-                        .build();
-            } else {
-                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                        .entity(crearMensajeError("No se pudo crear el estudiante"))
-                        .build();
-            }
-        } catch (Exception e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity(crearMensajeError("Error al crear estudiante: " + e.getMessage()))
+    /**
+     * POST /api/estudiantes/importar
+     * Importa un archivo CSV (con encabezado) usando COPY de PostgreSQL.
+     * Columnas: cedula,nombres,apellidos,email,telefono,carrera,nivel
+     * El archivo se procesa en streaming; las filas inválidas o duplicadas se reportan.
+     * @param csv Contenido del archivo CSV en el cuerpo de la petición
+     * @return Response con el reporte de importación (200), CSV mal formado (400) o error (500)
+     */
+    @POST
+    @Path("/importar")
+    @Consumes({"text/csv", MediaType.TEXT_PLAIN, MediaType.APPLICATION_OCTET_STREAM})
+    public Response importar(InputStream csv) {
+        try {
+            Map<String, Object> reporte = estudianteDAO.importarCsv(csv);
+            return Response.ok(reporte).build();
+        } catch (SobrecargaException e) {
+            return crearRespuestaError("Error al importar estudiantes", e);
+        } catch (SQLException e) {
+            // 22xxx: datos con formato inválido (ej: columnas de más o de menos en el CSV)
+            Response.Status estado = (e.getSQLState() != null && e.getSQLState().startsWith("22"))
+                    ? Response.Status.BAD_REQUEST : Response.Status.INTERNAL_SERVER_ERROR;
+            return Response.status(estado)
+                    .entity(crearMensajeError("Error al importar estudiantes: " + e.getMessage()))
                     .build();
+        } catch (Exception e) {
+            return crearRespuestaError("Error al importar estudiantes", e);
         }
     }
 
@@ -181,107 +602,214 @@ public class EstudianteResource {
 
     /**
      * PUT /api/estudiantes/{id}
-     * Actualiza un estudiante existente
+     * Actualiza un estudiante existente con un único UPDATE ... RETURNING
+     * (la existencia y la cédula única las resuelve la propia sentencia)
      * @param id ID del estudiante a actualizar (Path Parameter)
-     * @param estudiante Datos actualizados en cuerpo de petición (JSON)
-     * @return Response con estudiante actualizado (200), no encontrado (404),
+     * @param estudiante Datos actualizados en cuerpo de petición (JSON; sin "activo" se conserva el estado)
+     * @param asyncResponse Recibe la respuesta con estudiante guardado (200), no encontrado (404),
      *         error validación (400), conflicto (409) o error (500)
      */
     @PUT
     @Path("/{id}")
-    public Response actualizar(@PathParam("id") Long id, Estudiante estudiante) {
-        try {
-            // Verificar que el estudiante existe
-            Estudiante existente = estudianteDAO.obtenerPorId(id);
-            if (existente == null) {
-                return Response.status(Response.Status.NOT_FOUND)
-                        .entity(crearMensajeError("Estudiante no encontrado"))
-                        .build();
-            }
-
-            // Asignar ID del path al objeto
-            estudiante.setId(id);
-
-            // Validar datos del estudiante
-            String errorValidacion = validarEstudiante(estudiante, false);
-            if (errorValidacion != null) {
-                return Response.status(Response.Status.BAD_REQUEST)
-                        .entity(crearMensajeError(errorValidacion))
-                        .build();
-            }
-
-            // Verificar que no exista otro estudiante con la misma cédula
-            if (estudianteDAO.existePorCedulaExcluyendo(estudiante.getCedula(), id)) {
+    public void actualizar(@PathParam("id") Long id, Estudiante estudiante, @Suspended AsyncResponse asyncResponse) {
+        EjecucionAsincrona.ejecutar(asyncResponse, () -> {
+            try {
+                // Validar datos del estudiante
+                String errorValidacion = validarEstudiante(estudiante, false);
+                if (errorValidacion != null) {
+                    return Response.status(Response.Status.BAD_REQUEST)
+                            .entity(crearMensajeError(errorValidacion))
+                            .build();
+                }
+
+                // Asignar ID del path al objeto
+                estudiante.setId(id);
+
+                // Actualizar estudiante y responder con la fila guardada
+                Estudiante actualizado = estudianteDAO.actualizar(estudiante);
+
+                if (actualizado != null) {
+                    return Response.ok(actualizado).build();
+                } else {
+                    return Response.status(Response.Status.NOT_FOUND)
+                            .entity(crearMensajeError("Estudiante no encontrado"))
+                            .build();
+                }
+            } catch (CedulaDuplicadaException e) {
                 return Response.status(Response.Status.CONFLICT)
                         .entity(crearMensajeError("Ya existe otro estudiante con esa cédula"))
                         .build();
+            } catch (Exception e) {
+                return crearRespuestaError("Error al actualizar estudiante", e);
             }
+        });
+    }
 
-            // Actualizar estudiante
-            boolean actualizado = estudianteDAO.actualizar(estudiante);
-
-            if (actualizado) {
-                return Response.ok(estudiante).build();
-            } else {
-                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                        .entity(crearMensajeError("No se pudo actualizar el estudiante"))
+    /**
+     * PUT /api/estudiantes/cedula/{cedula}
+     * Crea o actualiza un estudiante identificado por su cédula (upsert), en una sola sentencia.
+     * Pensado para procesos de sincronización que no conocen el ID interno.
+     * @param cedula Cédula del estudiante (Path Parameter, prevalece sobre la del cuerpo)
+     * @param estudiante Datos completos del estudiante (JSON; sin "activo" se crea activo o se conserva el estado)
+     * @param asyncResponse Recibe la respuesta con estudiante creado (201) o actualizado (200),
+     *         error validación (400) o error (500)
+     */
+    @PUT
+    @Path("/cedula/{cedula}")
+    public void guardarPorCedula(@PathParam("cedula") String cedula, Estudiante estudiante,
+                                 @Suspended AsyncResponse asyncResponse) {
+        EjecucionAsincrona.ejecutar(asyncResponse, () -> {
+            try {
+                if (estudiante != null) {
+                    estudiante.setCedula(cedula);
+                    estudiante.setId(null);
+                }
+
+                String errorValidacion = validarEstudiante(estudiante, true);
+                if (errorValidacion != null) {
+                    return Response.status(Response.Status.BAD_REQUEST)
+                            .entity(crearMensajeError(errorValidacion))
+                            .build();
+                }
+
+                boolean insertado = estudianteDAO.guardarPorCedula(estudiante);
+                return Response.status(insertado ? Response.Status.CREATED : Response.Status.OK)
+                        .entity(estudiante)
                         .build();
+            } catch (Exception e) {
+                return crearRespuestaError("Error al guardar estudiante", e);
             }
-        } catch (Exception e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity(crearMensajeError("Error al actualizar estudiante: " + e.getMessage()))
-                    .build();
-        }
+        });
     }
 
     /**
      * PUT /api/estudiantes/{id}/activar
      * Activa un estudiante (cambia estado activo = true)
      * @param id ID del estudiante a activar
-     * @return Response con mensaje de éxito (200), no encontrado (404) o error (500)
+     * @param asyncResponse Recibe la respuesta con mensaje de éxito (200),
+     *        aceptado en modo de escritura diferida (202),
+     *         no encontrado (404) o error (500)
      */
     @PUT
     @Path("/{id}/activar")
-    public Response activar(@PathParam("id") Long id) {
-        try {
-            boolean activado = estudianteDAO.activar(id);
-            if (activado) {
-                return Response.ok(crearMensajeExito("Estudiante activado correctamente")).build();
-            } else {
-                return Response.status(Response.Status.NOT_FOUND)
-                        .entity(crearMensajeError("Estudiante no encontrado"))
-                        .build();
+    public void activar(@PathParam("id") Long id, @Suspended AsyncResponse asyncResponse) {
+        EjecucionAsincrona.ejecutar(asyncResponse, () -> {
+            try {
+                boolean activado = estudianteDAO.activar(id);
+                if (activado && EstudianteDAOFactory.isEscrituraDiferida()) {
+                    // Se escribirá en la próxima ventana: aceptado, sin confirmar que el ID exista
+                    return Response.accepted(crearMensajeExito("Cambio de estado aceptado")).build();
+                }
+                if (activado) {
+                    return Response.ok(crearMensajeExito("Estudiante activado correctamente")).build();
+                } else {
+                    return Response.status(Response.Status.NOT_FOUND)
+                            .entity(crearMensajeError("Estudiante no encontrado"))
+                            .build();
+                }
+            } catch (Exception e) {
+                return crearRespuestaError("Error al activar estudiante", e);
             }
-        } catch (Exception e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity(crearMensajeError("Error al activar estudiante: " + e.getMessage()))
-                    .build();
-        }
+        });
     }
 
     /**
      * PUT /api/estudiantes/{id}/desactivar
      * Desactiva un estudiante (cambia estado activo = false)
      * @param id ID del estudiante a desactivar
-     * @return Response con mensaje de éxito (200), no encontrado (404) o error (500)
+     * @param asyncResponse Recibe la respuesta con mensaje de éxito (200),
+     *        aceptado en modo de escritura diferida (202),
+     *         no encontrado (404) o error (500)
      */
     @PUT
     @Path("/{id}/desactivar")
-    public Response desactivar(@PathParam("id") Long id) {
-        try {
-            boolean desactivado = estudianteDAO.desactivar(id);
-            if (desactivado) {
-                return Response.ok(crearMensajeExito("Estudiante desactivado correctamente")).build();
-            } else {
-                return Response.status(Response.Status.NOT_FOUND)
-                        .entity(crearMensajeError("Estudiante no encontrado"))
-                        .build();
+    public void desactivar(@PathParam("id") Long id, @Suspended AsyncResponse asyncResponse) {
+        EjecucionAsincrona.ejecutar(asyncResponse, () -> {
+            try {
+                boolean desactivado = estudianteDAO.desactivar(id);
+                if (desactivado && EstudianteDAOFactory.isEscrituraDiferida()) {
+                    // Se escribirá en la próxima ventana: aceptado, sin confirmar que el ID exista
+                    return Response.accepted(crearMensajeExito("Cambio de estado aceptado")).build();
+                }
+                if (desactivado) {
+                    return Response.ok(crearMensajeExito("Estudiante desactivado correctamente")).build();
+                } else {
+                    return Response.status(Response.Status.NOT_FOUND)
+                            .entity(crearMensajeError("Estudiante no encontrado"))
+                            .build();
+                }
+            } catch (Exception e) {
+                return crearRespuestaError("Error al desactivar estudiante", e);
             }
-        } catch (Exception e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity(crearMensajeError("Error al desactivar estudiante: " + e.getMessage()))
-                    .build();
-        }
+        });
+    }
+
+    /**
+     * PUT /api/estudiantes/estado
+     * Activa o desactiva muchos estudiantes a la vez (ej: cierre de semestre).
+     * Por IDs:    {"ids": [1, 2, 3], "activo": false}
+     * Por filtro: {"carrera": "Software", "nivel": 6, "activo": false}
+     * Se ejecuta con UPDATE por conjuntos, en bloques que se confirman por separado.
+     * @param cambio IDs o filtro, y el nuevo estado
+     * @param asyncResponse Recibe la respuesta con cantidad actualizada y IDs no encontrados (200),
+     *         petición inválida (400) o error (500)
+     */
+    @PUT
+    @Path("/estado")
+    public void cambiarEstado(CambioEstado cambio, @Suspended AsyncResponse asyncResponse) {
+        EjecucionAsincrona.ejecutar(asyncResponse, () -> {
+            try {
+                if (cambio == null || cambio.getActivo() == null) {
+                    return Response.status(Response.Status.BAD_REQUEST)
+                            .entity(crearMensajeError("El nuevo estado (activo) es requerido"))
+                            .build();
+                }
+
+                boolean porIds = cambio.getIds() != null;
+                boolean porFiltro = cambio.getCarrera() != null || cambio.getNivel() != null;
+                if (porIds == porFiltro) {
+                    return Response.status(Response.Status.BAD_REQUEST)
+                            .entity(crearMensajeError("Indique ids o un filtro (carrera y/o nivel), no ambos"))
+                            .build();
+                }
+
+                Map<String, Object> respuesta = new HashMap<>();
+                respuesta.put("activo", cambio.getActivo());
+
+                if (porIds) {
+                    Set<Long> solicitados = new LinkedHashSet<>(cambio.getIds());
+                    solicitados.remove(null);
+                    if (solicitados.isEmpty() || solicitados.size() > CAMBIO_ESTADO_MAXIMO) {
+                        return Response.status(Response.Status.BAD_REQUEST)
+                                .entity(crearMensajeError("Se requieren entre 1 y " + CAMBIO_ESTADO_MAXIMO + " IDs"))
+                                .build();
+                    }
+
+                    List<Long> actualizados = estudianteDAO.cambiarEstadoLote(new ArrayList<>(solicitados),
+                            cambio.getActivo());
+                    solicitados.removeAll(new HashSet<>(actualizados));
+
+                    respuesta.put("solicitados", actualizados.size() + solicitados.size());
+                    respuesta.put("actualizados", actualizados.size());
+                    respuesta.put("noEncontrados", new ArrayList<>(solicitados));
+                } else {
+                    if (cambio.getNivel() != null && (cambio.getNivel() < 1 || cambio.getNivel() > 10)) {
+                        return Response.status(Response.Status.BAD_REQUEST)
+                                .entity(crearMensajeError("El nivel debe estar entre 1 y 10"))
+                                .build();
+                    }
+
+                    List<Long> actualizados = estudianteDAO.cambiarEstadoPorFiltro(cambio.getCarrera(),
+                            cambio.getNivel(), cambio.getActivo());
+                    respuesta.put("actualizados", actualizados.size());
+                }
+
+                respuesta.put("timestamp", System.currentTimeMillis());
+                return Response.ok(respuesta).build();
+            } catch (Exception e) {
+                return crearRespuestaError("Error al cambiar estado de estudiantes", e);
+            }
+        });
     }
 
     // ==============================================================
@@ -292,34 +820,27 @@ public class EstudianteResource {
      * DELETE /api/estudiantes/{id}
      * Elimina permanentemente un estudiante
      * @param id ID del estudiante a eliminar
-     * @return Response con mensaje de éxito (200), no encontrado (404) o error (500)
+     * @param asyncResponse Recibe la respuesta con mensaje de éxito (200), no encontrado (404) o error (500)
      */
     @DELETE
     @Path("/{id}")
-    public Response eliminar(@PathParam("id") Long id) {
-        try {
-            // Verificar que el estudiante existe
-            Estudiante existente = estudianteDAO.obtenerPorId(id);
-            if (existente == null) {
-                return Response.status(Response.Status.NOT_FOUND)
-                        .entity(crearMensajeError("Estudiante no encontrado"))
-                        .build();
+    public void eliminar(@PathParam("id") Long id, @Suspended AsyncResponse asyncResponse) {
+        EjecucionAsincrona.ejecutar(asyncResponse, () -> {
+            try {
+                // DELETE ... RETURNING: sin filas = no existía
+                boolean eliminado = estudianteDAO.eliminar(id);
+
+                if (eliminado) {
+                    return Response.ok(crearMensajeExito("Estudiante eliminado correctamente")).build();
+                } else {
+                    return Response.status(Response.Status.NOT_FOUND)
+                            .entity(crearMensajeError("Estudiante no encontrado"))
+                            .build();
+                }
+            } catch (Exception e) {
+                return crearRespuestaError("Error al eliminar estudiante", e);
             }
-
-            boolean eliminado = estudianteDAO.eliminar(id);
-
-            if (eliminado) {
-                return Response.ok(crearMensajeExito("Estudiante eliminado correctamente")).build();
-            } else {
-                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                        .entity(crearMensajeError("No se pudo eliminar el estudiante"))
-                        .build();
-            }
-        } catch (Exception e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity(crearMensajeError("Error al eliminar estudiante: " + e.getMessage()))
-                    .build();
-        }
+        });
     }
 
     // ==============================================================
@@ -400,6 +921,93 @@ public class EstudianteResource {
         return respuesta;
     }
 
+    /**
+     * Respuesta de error común a los endpoints:
+     * 503 con Retry-After si el control de admisión rechazó la operación, 500 en otro caso
+     * @param contexto Descripción de la operación (ej: "Error al crear estudiante")
+     */
+    private Response crearRespuestaError(String contexto, Exception e) {
+        if (e instanceof SobrecargaException sobrecarga) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", sobrecarga.getReintentarEnSegundos())
+                    .entity(crearMensajeError(sobrecarga.getMessage()))
+                    .build();
+        }
+        return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                .entity(crearMensajeError(contexto + ": " + e.getMessage()))
+                .build();
+    }
+
+    /**
+     * ETag fuerte: versión de los datos + variante de la representación (parámetros de la consulta)
+     * @param version Identifica el estado de los datos (ej: "id.microsegundos")
+     * @param variante Parámetros que cambian el contenido de la respuesta (fields, limit, ...)
+     */
+    private static EntityTag crearEtag(String version, Object... variante) {
+        return new EntityTag(version + "-" + Integer.toHexString(Arrays.hashCode(variante)));
+    }
+
+    /**
+     * Fecha en microsegundos desde la época (la precisión de PostgreSQL), 0 si es null
+     */
+    private static long marcaTiempo(Timestamp fecha) {
+        if (fecha == null) {
+            return 0L;
+        }
+        return Math.floorDiv(fecha.getTime(), 1000L) * 1_000_000L + fecha.getNanos() / 1000;
+    }
+
+    /**
+     * Fecha para Last-Modified, truncada a segundos como la envía HTTP
+     * (si no, If-Modified-Since nunca alcanzaría a la fecha con milisegundos)
+     */
+    private static Date ultimaModificacion(Timestamp fecha) {
+        return new Date(fecha == null ? 0L : Math.floorDiv(fecha.getTime(), 1000L) * 1000L);
+    }
+
+    /**
+     * Agrega ETag, Last-Modified y Cache-Control: no-cache (el cliente puede guardar la respuesta
+     * pero debe revalidarla en cada uso)
+     */
+    private static Response conVersion(Response.ResponseBuilder respuesta, EntityTag etag, Date ultimaModificacion) {
+        CacheControl revalidar = new CacheControl();
+        revalidar.setNoCache(true);
+        return respuesta.tag(etag).lastModified(ultimaModificacion).cacheControl(revalidar).build();
+    }
+
+    /**
+     * Arma la respuesta de una consulta múltiple: los encontrados en el orden pedido
+     * y las claves (IDs o cédulas) que no existen.
+     * @param claves Claves solicitadas, sin repetidas, en el orden del cliente
+     * @param encontrados Estudiantes devueltos por el DAO (en cualquier orden)
+     * @param clave Obtiene la clave de un estudiante
+     */
+    private <K> Map<String, Object> consultaMultiple(List<K> claves, List<Estudiante> encontrados,
+                                                     Function<Estudiante, K> clave, Proyeccion proyeccion) {
+        Map<K, Estudiante> porClave = new HashMap<>(encontrados.size() * 2);
+        for (Estudiante estudiante : encontrados) {
+            porClave.put(clave.apply(estudiante), estudiante);
+        }
+
+        List<Estudiante> datos = new ArrayList<>(encontrados.size());
+        List<K> noEncontrados = new ArrayList<>();
+        for (K k : claves) {
+            Estudiante estudiante = porClave.get(k);
+            if (estudiante != null) {
+                datos.add(proyeccion.aplicar(estudiante));
+            } else {
+                noEncontrados.add(k);
+            }
+        }
+
+        Map<String, Object> respuesta = new HashMap<>();
+        respuesta.put("datos", datos);
+        respuesta.put("noEncontrados", noEncontrados);
+        respuesta.put("solicitados", claves.size());
+        respuesta.put("encontrados", datos.size());
+        return respuesta;
+    }
+
     /**
      * Crea un objeto JSON con mensaje de éxito
      */
@@ -0,0 +1,72 @@
+package ec.edu.istq.resource;
+
+import ec.edu.istq.dao.ConsumidorEstudiante;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * SALIDA JSON EN STREAMING PARA LISTAS DE ESTUDIANTES
+ * Escribe el arreglo JSON a medida que el DAO lee las filas del cursor,
+ * sin construir la lista completa. El primer byte se envía con la primera fila.
+ */
+public class EstudiantesStreamingOutput implements StreamingOutput {
+
+    // Jsonb es thread-safe y costoso de crear: una sola instancia
+    private static final Jsonb JSONB = JsonbBuilder.create();
+
+    // Cada cuántos estudiantes se vacía el buffer hacia el cliente
+    private static final int FLUSH_CADA = 500;
+
+    /**
+     * Operación del DAO que entrega los estudiantes al consumidor
+     */
+    @FunctionalInterface
+    public interface Recorrido {
+        void ejecutar(ConsumidorEstudiante consumidor) throws SQLException, IOException;
+    }
+
+    private final Recorrido recorrido;
+
+    public EstudiantesStreamingOutput(Recorrido recorrido) {
+        this.recorrido = recorrido;
+    }
+
+    @Override
+    public void write(OutputStream salida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        int[] escritos = {0};
+
+        writer.write('[');
+        try {
+            recorrido.ejecutar(estudiante -> {
+                if (escritos[0] > 0) {
+                    writer.write(',');
+                }
+                writer.write(JSONB.toJson(estudiante));
+                escritos[0]++;
+
+                // Enviar pronto la primera fila y luego por bloques
+                if (escritos[0] == 1 || escritos[0] % FLUSH_CADA == 0) {
+                    writer.flush();
+                }
+            });
+        } catch (SQLException e) {
+            // Si ya se enviaron datos, el cliente recibe un JSON truncado (conexión abortada)
+            System.err.println("Error durante el streaming de estudiantes: " + e.getMessage());
+            throw new WebApplicationException(e, Response.Status.INTERNAL_SERVER_ERROR);
+        }
+        writer.write(']');
+        writer.flush();
+    }
+}
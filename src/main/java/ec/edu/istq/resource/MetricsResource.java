@@ -1,5 +1,6 @@
 package ec.edu.istq.resource;
 
+import ec.edu.istq.metrics.ExportadorPrometheus;
 import ec.edu.istq.metrics.MetricsCollector;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
@@ -36,6 +37,20 @@ public class MetricsResource {
         }
     }
 
+    /**
+     * GET /api/metrics/prometheus
+     * Métricas en formato OpenMetrics para Prometheus: peticiones por endpoint y clase de estado,
+     * histogramas de latencia por endpoint y gauges de los componentes (pool, caché, ...).
+     * Se escribe directamente desde los contadores, apto para scrapes frecuentes.
+     * @return Texto OpenMetrics (terminado en "# EOF")
+     */
+    @GET
+    @Path("/prometheus")
+    @Produces({ExportadorPrometheus.CONTENT_TYPE, MediaType.TEXT_PLAIN + "; charset=utf-8"})
+    public Response getPrometheus() {
+        return Response.ok(ExportadorPrometheus.generar()).build();
+    }
+
     /**
      * DELETE /api/metrics
      * Resetea todas las métricas a cero
@@ -0,0 +1,434 @@
+package ec.edu.istq.search;
+
+import ec.edu.istq.model.Estudiante;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * ÍNDICE INVERTIDO DE TRIGRAMAS EN MEMORIA
+ * Indexa nombres, apellidos, cédula, email y carrera de cada estudiante.
+ * Cada trigrama (3 caracteres consecutivos del texto normalizado) apunta a una
+ * lista ordenada de IDs (arreglo primitivo long[]).
+ *
+ * Búsqueda: se intersectan las listas de los trigramas del término y se verifica
+ * que el texto contenga el término completo. Mismo filtro que la búsqueda SQL:
+ * subcadena sin distinguir mayúsculas ni tildes. Los términos de menos de LONGITUD_MINIMA
+ * caracteres no tienen trigramas y no se buscan (recorrer todo el índice con el lock tomado
+ * en cada tecla de una búsqueda incremental sería O(n)).
+ *
+ * El ORDEN no es el mismo que el de la base de datos: aquí se puntúa si el término empieza
+ * o termina en borde de palabra; EstudianteDAOImpl (usado cuando el índice no está listo)
+ * ordena por word_similarity(). Ambos desempatan por ID descendente.
+ *
+ * Thread-safe: lecturas concurrentes, escrituras exclusivas (ReadWriteLock).
+ */
+public class IndiceNgramas {
+
+    private static final int N = 3;
+
+    // Largo mínimo (ya normalizado) de un término buscable: un trigrama
+    public static final int LONGITUD_MINIMA = N;
+
+    // Marcas diacríticas que quedan separadas tras la normalización NFD (tildes, diéresis, virgulilla)
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+
+    // Estimaciones de memoria (JVM de 64 bits con compressed oops)
+    private static final long BYTES_ENTRADA_MAPA = 32 + 16;     // Nodo de HashMap + clave Long
+    private static final long BYTES_POSTINGS = 24 + 16;         // Objeto Postings + cabecera del arreglo
+    private static final long BYTES_DOCUMENTO = 16 + 64 + 2 * 32; // Documento + Estudiante + 2 Timestamp
+    private static final long BYTES_STRING = 24 + 16;           // String + cabecera del arreglo de bytes
+
+    private final Map<Long, Documento> documentos = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Protegidos por el lock de escritura
+    private long bytesDocumentos = 0;
+    private long bytesPostings = 0;
+
+    // ==============================================================
+    // CONSTRUCCIÓN
+    // ==============================================================
+
+    /**
+     * Agrega un estudiante durante la carga inicial.
+     * Las listas no se mantienen ordenadas: llamar a finalizarCarga() al terminar.
+     */
+    public void agregarEnCarga(Estudiante estudiante) {
+        lock.writeLock().lock();
+        try {
+            Documento documento = new Documento(new Estudiante(estudiante));
+            documentos.put(estudiante.getId(), documento);
+            bytesDocumentos += documento.bytes;
+            for (long grama : ngramas(documento.texto)) {
+                obtenerOCrear(grama).agregarAlFinal(estudiante.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ordena las listas de IDs tras la carga inicial
+     */
+    public void finalizarCarga() {
+        lock.writeLock().lock();
+        try {
+            for (Postings lista : postings.values()) {
+                lista.ordenar();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==============================================================
+    // ACTUALIZACIÓN INCREMENTAL
+    // ==============================================================
+
+    /**
+     * Inserta o reemplaza un estudiante en el índice
+     */
+    public void guardar(Estudiante estudiante) {
+        lock.writeLock().lock();
+        try {
+            quitarInterno(estudiante.getId());
+            Documento documento = new Documento(new Estudiante(estudiante));
+            documentos.put(estudiante.getId(), documento);
+            bytesDocumentos += documento.bytes;
+            for (long grama : ngramas(documento.texto)) {
+                obtenerOCrear(grama).agregar(estudiante.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita un estudiante del índice
+     */
+    public void eliminar(long id) {
+        lock.writeLock().lock();
+        try {
+            quitarInterno(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Cambia el estado activo de un estudiante indexado (no afecta los trigramas)
+     */
+    public void cambiarEstado(long id, boolean activo) {
+        lock.writeLock().lock();
+        try {
+            Documento actual = documentos.get(id);
+            if (actual != null) {
+                Estudiante copia = new Estudiante(actual.estudiante);
+                copia.setActivo(activo);
+                documentos.put(id, new Documento(copia, actual.texto, actual.bytes));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void quitarInterno(long id) {
+        Documento anterior = documentos.remove(id);
+        if (anterior == null) {
+            return;
+        }
+        bytesDocumentos -= anterior.bytes;
+        for (long grama : ngramas(anterior.texto)) {
+            Postings lista = postings.get(grama);
+            if (lista != null && lista.quitar(id) && lista.size == 0) {
+                postings.remove(grama);
+                bytesPostings -= BYTES_ENTRADA_MAPA + BYTES_POSTINGS + 8L * lista.ids.length;
+            }
+        }
+    }
+
+    private Postings obtenerOCrear(long grama) {
+        Postings lista = postings.get(grama);
+        if (lista == null) {
+            lista = new Postings();
+            postings.put(grama, lista);
+            bytesPostings += BYTES_ENTRADA_MAPA + BYTES_POSTINGS + 8L * lista.ids.length;
+        }
+        return lista;
+    }
+
+    // ==============================================================
+    // BÚSQUEDA
+    // ==============================================================
+
+    /**
+     * BUSCA ESTUDIANTES QUE CONTENGAN EL TÉRMINO
+     * Orden: coincidencias al inicio y al final de palabra primero, luego ID descendente.
+     * @param termino Texto a buscar (con menos de LONGITUD_MINIMA caracteres no hay resultados)
+     * @param limite Cantidad máxima de resultados
+     * @param desplazamiento Resultados a omitir
+     * @return Copias de los estudiantes encontrados
+     */
+    public List<Estudiante> buscar(String termino, int limite, int desplazamiento) {
+        String normalizado = normalizar(termino.trim());
+        if (normalizado.length() < LONGITUD_MINIMA) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            long[] gramas = ngramas(normalizado);
+            Postings[] listas = new Postings[gramas.length];
+            for (int i = 0; i < gramas.length; i++) {
+                listas[i] = postings.get(gramas[i]);
+                if (listas[i] == null) {
+                    return Collections.emptyList();
+                }
+            }
+            // Intersección empezando por la lista más corta
+            Arrays.sort(listas, (a, b) -> Integer.compare(a.size, b.size));
+
+            // Cada resultado se codifica como (puntaje << 56 | id) para ordenar sin objetos
+            long[] claves = new long[16];
+            int encontrados = 0;
+
+            Postings base = listas[0];
+            candidatos:
+            for (int i = 0; i < base.size; i++) {
+                long id = base.ids[i];
+                for (int j = 1; j < listas.length; j++) {
+                    if (!listas[j].contiene(id)) {
+                        continue candidatos;
+                    }
+                }
+                int puntaje = puntaje(documentos.get(id).texto, normalizado);
+                if (puntaje >= 0) {
+                    claves = asegurarCapacidad(claves, encontrados);
+                    claves[encontrados++] = clave(puntaje, id);
+                }
+            }
+
+            Arrays.sort(claves, 0, encontrados);
+
+            List<Estudiante> resultados = new ArrayList<>(Math.min(limite, encontrados));
+            for (int i = encontrados - 1 - desplazamiento; i >= 0 && resultados.size() < limite; i--) {
+                long id = claves[i] & ((1L << 56) - 1);
+                resultados.add(new Estudiante(documentos.get(id).estudiante));
+            }
+            return resultados;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Puntaje de coincidencia: -1 si no contiene el término;
+     * +2 si empieza al inicio de una palabra, +1 si termina al final de una palabra
+     */
+    private static int puntaje(String texto, String termino) {
+        int mejor = -1;
+        int desde = texto.indexOf(termino);
+        while (desde >= 0 && mejor < 3) {
+            int fin = desde + termino.length();
+            int puntaje = 0;
+            if (desde == 0 || !Character.isLetterOrDigit(texto.charAt(desde - 1))) {
+                puntaje += 2;
+            }
+            if (fin == texto.length() || !Character.isLetterOrDigit(texto.charAt(fin))) {
+                puntaje += 1;
+            }
+            mejor = Math.max(mejor, puntaje);
+            desde = texto.indexOf(termino, desde + 1);
+        }
+        return mejor;
+    }
+
+    private static long clave(int puntaje, long id) {
+        return ((long) puntaje << 56) | id;
+    }
+
+    private static long[] asegurarCapacidad(long[] arreglo, int usados) {
+        return (usados < arreglo.length) ? arreglo : Arrays.copyOf(arreglo, arreglo.length * 2);
+    }
+
+    // ==============================================================
+    // ESTADÍSTICAS
+    // ==============================================================
+
+    public int getDocumentos() {
+        lock.readLock().lock();
+        try {
+            return documentos.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getNgramas() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Memoria estimada del índice (documentos + listas de trigramas), en bytes
+     */
+    public long getBytesEstimados() {
+        lock.readLock().lock();
+        try {
+            return bytesDocumentos + bytesPostings;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==============================================================
+    // NORMALIZACIÓN Y TRIGRAMAS
+    // ==============================================================
+
+    /**
+     * Minúsculas y sin tildes, equivalente a estudiantes_normalizar() en PostgreSQL
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        boolean ascii = true;
+        for (int i = 0; i < texto.length() && ascii; i++) {
+            ascii = texto.charAt(i) < 128;
+        }
+        String base = ascii ? texto : MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return base.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Texto indexado: los cinco campos separados por espacio, como estudiantes_documento()
+     */
+    static String documento(Estudiante e) {
+        return normalizar(valor(e.getNombres()) + ' ' + valor(e.getApellidos()) + ' '
+                + valor(e.getCedula()) + ' ' + valor(e.getEmail()) + ' ' + valor(e.getCarrera()));
+    }
+
+    private static String valor(String texto) {
+        return texto == null ? "" : texto;
+    }
+
+    /**
+     * Trigramas distintos de un texto, cada uno empaquetado en un long (3 chars de 16 bits)
+     */
+    static long[] ngramas(String texto) {
+        int total = texto.length() - N + 1;
+        if (total <= 0) {
+            return new long[0];
+        }
+        long[] gramas = new long[total];
+        for (int i = 0; i < total; i++) {
+            gramas[i] = ((long) texto.charAt(i) << 32) | ((long) texto.charAt(i + 1) << 16) | texto.charAt(i + 2);
+        }
+        Arrays.sort(gramas);
+
+        int distintos = 1;
+        for (int i = 1; i < total; i++) {
+            if (gramas[i] != gramas[distintos - 1]) {
+                gramas[distintos++] = gramas[i];
+            }
+        }
+        return Arrays.copyOf(gramas, distintos);
+    }
+
+    // ==============================================================
+    // CLASES INTERNAS
+    // ==============================================================
+
+    /**
+     * Estudiante indexado junto con su texto normalizado
+     */
+    private static final class Documento {
+        private final Estudiante estudiante;
+        private final String texto;
+        private final long bytes;
+
+        Documento(Estudiante estudiante) {
+            this.estudiante = estudiante;
+            this.texto = documento(estudiante);
+            this.bytes = BYTES_ENTRADA_MAPA + BYTES_DOCUMENTO + 7 * BYTES_STRING + 2L * texto.length();
+        }
+
+        Documento(Estudiante estudiante, String texto, long bytes) {
+            this.estudiante = estudiante;
+            this.texto = texto;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Lista de IDs de un trigrama (arreglo primitivo ordenado ascendente)
+     */
+    private final class Postings {
+        private long[] ids = new long[4];
+        private int size = 0;
+        private boolean ordenada = true;
+
+        void agregarAlFinal(long id) {
+            crecerSiHaceFalta();
+            if (size > 0 && ids[size - 1] >= id) {
+                ordenada = false;
+            }
+            ids[size++] = id;
+        }
+
+        void agregar(long id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                return;
+            }
+            pos = -pos - 1;
+            crecerSiHaceFalta();
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        boolean quitar(long id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        boolean contiene(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void ordenar() {
+            if (!ordenada) {
+                Arrays.sort(ids, 0, size);
+                ordenada = true;
+            }
+        }
+
+        private void crecerSiHaceFalta() {
+            if (size == ids.length) {
+                int nuevo = ids.length + (ids.length >> 1) + 1;
+                bytesPostings += 8L * (nuevo - ids.length);
+                ids = Arrays.copyOf(ids, nuevo);
+            }
+        }
+    }
+}
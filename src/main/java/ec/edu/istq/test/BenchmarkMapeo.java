@@ -0,0 +1,99 @@
+package ec.edu.istq.test;
+
+import ec.edu.istq.dao.EstudianteDAOImpl;
+import ec.edu.istq.dao.Proyeccion;
+import ec.edu.istq.model.Estudiante;
+import ec.edu.istq.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * COMPARACIÓN DE MAPEO DE FILAS (ANTES / DESPUÉS)
+ * Uso: java ec.edu.istq.test.BenchmarkMapeo [repeticiones]
+ * Recorre toda la tabla con cursor y mide filas por segundo para:
+ *   1. SELECT * con lectura de columnas por nombre (implementación anterior)
+ *   2. Columnas explícitas con lectura por posición (EstudianteDAOImpl actual)
+ *   3. Proyección id,nombres,apellidos,carrera (?fields= de las vistas de lista)
+ * Conviene ejecutarlo sobre una tabla grande (ej: cargada con ImportarCsv).
+ */
+public class BenchmarkMapeo {
+
+    private static final int FILAS_POR_LOTE_CURSOR = 500;
+
+    public static void main(String[] args) {
+        int repeticiones = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        EstudianteDAOImpl dao = new EstudianteDAOImpl();
+        Proyeccion lista = Proyeccion.desde("id,nombres,apellidos,carrera");
+
+        try {
+            // Calentamiento (JIT y caché de la base de datos)
+            recorrerPorNombre();
+            dao.recorrerTodos(Proyeccion.COMPLETA, e -> { });
+
+            for (int i = 1; i <= repeticiones; i++) {
+                System.out.println("🔁 Repetición " + i);
+
+                long inicio = System.nanoTime();
+                long filas = recorrerPorNombre();
+                imprimir("SELECT * / por nombre", filas, inicio);
+
+                long[] contador = {0};
+                inicio = System.nanoTime();
+                dao.recorrerTodos(Proyeccion.COMPLETA, e -> contador[0]++);
+                imprimir("Columnas / por posición", contador[0], inicio);
+
+                contador[0] = 0;
+                inicio = System.nanoTime();
+                dao.recorrerTodos(lista, e -> contador[0]++);
+                imprimir("Proyección " + lista, contador[0], inicio);
+            }
+
+        } catch (Exception e) {
+            System.err.println("❌ ERROR: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            DatabaseConnection.cerrarPool();
+        }
+    }
+
+    /**
+     * Reproduce la lectura anterior: SELECT * y getXxx("columna") en cada fila
+     */
+    private static long recorrerPorNombre() throws Exception {
+        long filas = 0;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT * FROM estudiantes ORDER BY id DESC")) {
+                pstmt.setFetchSize(FILAS_POR_LOTE_CURSOR);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        Estudiante estudiante = new Estudiante();
+                        estudiante.setId(rs.getLong("id"));
+                        estudiante.setCedula(rs.getString("cedula"));
+                        estudiante.setNombres(rs.getString("nombres"));
+                        estudiante.setApellidos(rs.getString("apellidos"));
+                        estudiante.setEmail(rs.getString("email"));
+                        estudiante.setTelefono(rs.getString("telefono"));
+                        estudiante.setCarrera(rs.getString("carrera"));
+                        estudiante.setNivel(rs.getInt("nivel"));
+                        estudiante.setActivo(rs.getBoolean("activo"));
+                        estudiante.setFechaCreacion(rs.getTimestamp("fecha_creacion"));
+                        estudiante.setFechaActualizacion(rs.getTimestamp("fecha_actualizacion"));
+                        filas++;
+                    }
+                }
+            }
+            conn.commit();
+        }
+        return filas;
+    }
+
+    private static void imprimir(String nombre, long filas, long inicioNanos) {
+        double ms = (System.nanoTime() - inicioNanos) / 1_000_000.0;
+        System.out.printf("   %-45s %,10d filas %10.1f ms %,12.0f filas/s%n",
+                nombre, filas, ms, filas / (ms / 1000.0));
+    }
+}
@@ -0,0 +1,48 @@
+package ec.edu.istq.test;
+
+import ec.edu.istq.dao.EstudianteImportador;
+import ec.edu.istq.util.DatabaseConnection;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * IMPORTACIÓN MASIVA DESDE LÍNEA DE COMANDOS
+ * Uso: java ec.edu.istq.test.ImportarCsv archivo.csv
+ * Misma lógica que POST /api/estudiantes/importar (COPY + validación en bloque).
+ */
+public class ImportarCsv {
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.err.println("Uso: ImportarCsv <archivo.csv>");
+            System.exit(1);
+        }
+
+        try (InputStream csv = new BufferedInputStream(new FileInputStream(args[0]), 1 << 16)) {
+            System.out.println("📥 Importando " + args[0] + "...");
+            Map<String, Object> reporte = new EstudianteImportador().importar(csv);
+
+            System.out.println("✅ Filas leídas: " + reporte.get("filasLeidas"));
+            System.out.println("✅ Insertadas: " + reporte.get("insertadas"));
+            System.out.println("⚠️ Rechazadas: " + reporte.get("rechazadas") + " " + reporte.get("rechazosPorMotivo"));
+            System.out.println("⏱️ Duración: " + reporte.get("duracionMs") + "ms ("
+                    + reporte.get("filasPorSegundo") + " filas/s)");
+
+            Object errores = reporte.get("errores");
+            if (errores instanceof Iterable) {
+                for (Object error : (Iterable<?>) errores) {
+                    System.out.println("   " + error);
+                }
+            }
+
+        } catch (Exception e) {
+            System.err.println("❌ ERROR: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            DatabaseConnection.cerrarPool();
+        }
+    }
+}
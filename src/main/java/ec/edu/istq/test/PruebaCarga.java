@@ -0,0 +1,104 @@
+package ec.edu.istq.test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PRUEBA DE CARGA DE LA API
+ * Uso: java ec.edu.istq.test.PruebaCarga <url> [concurrencia] [segundos]
+ * Ej:  java ec.edu.istq.test.PruebaCarga "http://localhost:8080/estudiantes-api/api/estudiantes?limit=50" 500 60
+ *
+ * Lanza 'concurrencia' clientes (un hilo virtual cada uno) que repiten GET sobre la URL
+ * durante el tiempo indicado, e imprime throughput, percentiles de latencia y códigos HTTP.
+ * Para comparar modos, ejecutarlo con el servidor en estudiantes.ejecucion.modo=bloqueante
+ * y luego en asincrona (por defecto), con la misma concurrencia y la misma base de datos.
+ */
+public class PruebaCarga {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Uso: PruebaCarga <url> [concurrencia] [segundos]");
+            System.exit(1);
+        }
+        String url = args[0];
+        int concurrencia = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int segundos = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        HttpClient cliente = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+
+        Map<Integer, LongAdder> codigos = new ConcurrentHashMap<>();
+        LongAdder fallidas = new LongAdder();
+
+        System.out.println("🚀 " + concurrencia + " clientes durante " + segundos + "s contra " + url);
+        long inicio = System.nanoTime();
+        long fin = inicio + segundos * 1_000_000_000L;
+
+        List<Future<long[]>> clientes = new ArrayList<>(concurrencia);
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrencia; i++) {
+                clientes.add(ejecutor.submit(() -> {
+                    long[] latencias = new long[1024];
+                    int cantidad = 0;
+                    while (System.nanoTime() < fin) {
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<Void> respuesta = cliente.send(peticion, HttpResponse.BodyHandlers.discarding());
+                            codigos.computeIfAbsent(respuesta.statusCode(), c -> new LongAdder()).increment();
+                        } catch (Exception e) {
+                            fallidas.increment();
+                            continue;
+                        }
+                        if (cantidad == latencias.length) {
+                            latencias = Arrays.copyOf(latencias, cantidad * 2);
+                        }
+                        latencias[cantidad++] = System.nanoTime() - t0;
+                    }
+                    return Arrays.copyOf(latencias, cantidad);
+                }));
+            }
+        }
+
+        double duracion = (System.nanoTime() - inicio) / 1e9;
+        long[] todas = clientes.stream().flatMapToLong(f -> {
+            try {
+                return Arrays.stream(f.get());
+            } catch (Exception e) {
+                return Arrays.stream(new long[0]);
+            }
+        }).sorted().toArray();
+
+        System.out.printf("✅ Respuestas: %,d en %.1fs → %,.0f req/s%n", todas.length, duracion, todas.length / duracion);
+        System.out.println("⚠️ Fallidas (sin respuesta): " + fallidas.sum());
+        System.out.println("📊 Códigos HTTP: " + new TreeMap<>(codigos));
+        if (todas.length > 0) {
+            System.out.printf("⏱️ Latencia ms  p50=%.1f  p90=%.1f  p99=%.1f  p99.9=%.1f  max=%.1f%n",
+                    percentil(todas, 50), percentil(todas, 90), percentil(todas, 99),
+                    percentil(todas, 99.9), todas[todas.length - 1] / 1e6);
+        }
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        int indice = (int) Math.ceil(p / 100.0 * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, Math.min(indice, ordenadas.length - 1))] / 1e6;
+    }
+}
@@ -0,0 +1,67 @@
+package ec.edu.istq.util;
+
+/**
+ * LECTOR DE CONFIGURACIÓN DE LA APLICACIÓN
+ * Busca cada clave primero como propiedad del sistema (-Dclave=valor)
+ * y luego como variable de entorno (ESTUDIANTES_DB_URL para estudiantes.db.url).
+ * Si no se encuentra, se usa el valor por defecto indicado.
+ */
+public class Configuracion {
+
+    private Configuracion() {
+    }
+
+    /**
+     * Obtiene un valor de texto
+     * @param clave Clave de la propiedad (ej: estudiantes.db.url)
+     * @param porDefecto Valor si la clave no está definida
+     * @return Valor configurado o el valor por defecto
+     */
+    public static String texto(String clave, String porDefecto) {
+        String valor = System.getProperty(clave);
+        if (valor == null || valor.trim().isEmpty()) {
+            valor = System.getenv(clave.toUpperCase().replace('.', '_'));
+        }
+        return (valor == null || valor.trim().isEmpty()) ? porDefecto : valor.trim();
+    }
+
+    /**
+     * Obtiene un valor entero
+     */
+    public static int entero(String clave, int porDefecto) {
+        String valor = texto(clave, null);
+        if (valor == null) {
+            return porDefecto;
+        }
+        try {
+            return Integer.parseInt(valor);
+        } catch (NumberFormatException e) {
+            System.err.println("⚠️ Valor inválido para " + clave + ": " + valor + " (se usa " + porDefecto + ")");
+            return porDefecto;
+        }
+    }
+
+    /**
+     * Obtiene un valor entero largo
+     */
+    public static long largo(String clave, long porDefecto) {
+        String valor = texto(clave, null);
+        if (valor == null) {
+            return porDefecto;
+        }
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            System.err.println("⚠️ Valor inválido para " + clave + ": " + valor + " (se usa " + porDefecto + ")");
+            return porDefecto;
+        }
+    }
+
+    /**
+     * Obtiene un valor booleano (true/false)
+     */
+    public static boolean booleano(String clave, boolean porDefecto) {
+        String valor = texto(clave, null);
+        return (valor == null) ? porDefecto : Boolean.parseBoolean(valor);
+    }
+}
@@ -0,0 +1,554 @@
+package ec.edu.istq.util;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * POOL DE CONEXIONES JDBC ACOTADO E INSTRUMENTADO
+ * Mantiene conexiones físicas abiertas y las presta a los DAOs.
+ * Al llamar close() sobre la conexión prestada, esta vuelve al pool en lugar de cerrarse.
+ *
+ * Características:
+ *   - Tamaño mínimo (pre-calentado al iniciar) y máximo (semáforo justo)
+ *   - Validación al prestar si la conexión estuvo inactiva un tiempo
+ *   - Vida máxima por conexión (con variación aleatoria para no expirar todas a la vez)
+ *   - Detección de fugas (conexiones prestadas demasiado tiempo)
+ *   - Estadísticas de espera, uso e inactividad
+ */
+public class ConnectionPool implements DataSource, AutoCloseable {
+
+    // ==============================================================
+    // CONFIGURACIÓN
+    // ==============================================================
+
+    private final String nombre;
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minimo;
+    private final int maximo;
+
+    private long connectionTimeoutMs = 30_000;       // Espera máxima para obtener una conexión
+    private long maxLifetimeMs = 30 * 60_000;        // Vida máxima de una conexión física
+    private long leakDetectionThresholdMs = 60_000;  // 0 = detección de fugas desactivada
+    private long validationIntervalMs = 500;         // Validar si estuvo inactiva más que esto
+    private int validationTimeoutSec = 5;
+    private long housekeepingIntervalMs = 30_000;
+
+    // ==============================================================
+    // ESTADO DEL POOL
+    // ==============================================================
+
+    // Conexiones inactivas (LIFO: se reutiliza primero la más reciente)
+    private final LinkedBlockingDeque<PooledConnection> inactivas = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> enUso = ConcurrentHashMap.newKeySet();
+    private final Semaphore permisos;
+    private final AtomicInteger total = new AtomicInteger(0);
+    private final AtomicBoolean iniciado = new AtomicBoolean(false);
+    private volatile boolean cerrado = false;
+    private ScheduledExecutorService mantenimiento;
+
+    // ==============================================================
+    // ESTADÍSTICAS
+    // ==============================================================
+
+    private final LongAdder prestamos = new LongAdder();
+    private final LongAdder esperaTotalNanos = new LongAdder();
+    private final LongAccumulator esperaMaximaNanos = new LongAccumulator(Long::max, 0);
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder creadas = new LongAdder();
+    private final LongAdder destruidas = new LongAdder();
+    private final LongAdder validacionesFallidas = new LongAdder();
+    private final LongAdder fugasDetectadas = new LongAdder();
+
+    /**
+     * CONSTRUCTOR
+     * @param nombre Nombre del pool (para logs y métricas)
+     * @param url URL JDBC
+     * @param user Usuario de la base de datos
+     * @param password Contraseña
+     * @param minimo Conexiones que se mantienen abiertas como mínimo
+     * @param maximo Conexiones que pueden existir como máximo
+     */
+    public ConnectionPool(String nombre, String url, String user, String password, int minimo, int maximo) {
+        if (maximo < 1 || minimo < 0 || minimo > maximo) {
+            throw new IllegalArgumentException("Tamaños de pool inválidos: minimo=" + minimo + ", maximo=" + maximo);
+        }
+        this.nombre = nombre;
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.permisos = new Semaphore(maximo, true);
+    }
+
+    // ==============================================================
+    // CICLO DE VIDA
+    // ==============================================================
+
+    /**
+     * INICIA EL POOL
+     * Abre las conexiones mínimas (pre-calentamiento) y programa el mantenimiento
+     * periódico: expiración, reposición del mínimo y detección de fugas.
+     */
+    public void start() {
+        if (!iniciado.compareAndSet(false, true)) {
+            return;
+        }
+
+        for (int i = 0; i < minimo; i++) {
+            try {
+                inactivas.offerLast(crearFisica());
+            } catch (SQLException e) {
+                System.err.println("⚠️ Pool '" + nombre + "': no se pudo pre-calentar la conexión "
+                        + (i + 1) + "/" + minimo + ": " + e.getMessage());
+                break;
+            }
+        }
+
+        mantenimiento = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pool-" + nombre + "-mantenimiento");
+            t.setDaemon(true);
+            return t;
+        });
+        mantenimiento.scheduleWithFixedDelay(this::mantener,
+                housekeepingIntervalMs, housekeepingIntervalMs, TimeUnit.MILLISECONDS);
+
+        System.out.println("✅ Pool '" + nombre + "' iniciado: " + total.get()
+                + " conexiones (min " + minimo + ", max " + maximo + ")");
+    }
+
+    /**
+     * CIERRA EL POOL
+     * Cierra las conexiones inactivas; las que están en uso se cierran al devolverse.
+     */
+    @Override
+    public void close() {
+        cerrado = true;
+        if (mantenimiento != null) {
+            mantenimiento.shutdownNow();
+        }
+        PooledConnection pc;
+        while ((pc = inactivas.pollFirst()) != null) {
+            destruir(pc);
+        }
+        System.out.println("🔒 Pool '" + nombre + "' cerrado");
+    }
+
+    // ==============================================================
+    // PRÉSTAMO Y DEVOLUCIÓN DE CONEXIONES
+    // ==============================================================
+
+    /**
+     * OBTIENE UNA CONEXIÓN DEL POOL
+     * Espera como máximo connectionTimeoutMs si todas las conexiones están en uso.
+     * @return Conexión prestada (close() la devuelve al pool)
+     * @throws SQLException Si el pool está cerrado, se agota el tiempo o falla la conexión
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (cerrado) {
+            throw new SQLException("El pool '" + nombre + "' está cerrado");
+        }
+
+        long inicio = System.nanoTime();
+        boolean obtenido;
+        try {
+            obtenido = permisos.tryAcquire(connectionTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido mientras se esperaba una conexión", e);
+        }
+
+        if (!obtenido) {
+            timeouts.increment();
+            throw new SQLTransientConnectionException("Pool '" + nombre + "': no hay conexiones disponibles tras "
+                    + connectionTimeoutMs + "ms (en uso: " + enUso.size() + ", máximo: " + maximo + ")");
+        }
+
+        try {
+            PooledConnection pc = tomarOCrear();
+
+            long espera = System.nanoTime() - inicio;
+            prestamos.increment();
+            esperaTotalNanos.add(espera);
+            esperaMaximaNanos.accumulate(espera);
+
+            pc.prestadaEn = System.nanoTime();
+            pc.origen = (leakDetectionThresholdMs > 0) ? new Exception("Conexión obtenida aquí") : null;
+            pc.fugaReportada = false;
+            enUso.add(pc);
+
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new ConexionPrestada(pc));
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("El pool usa credenciales fijas");
+    }
+
+    /**
+     * Toma una conexión inactiva válida o crea una nueva.
+     * Se llama con un permiso ya adquirido, por lo que nunca se supera el máximo.
+     */
+    private PooledConnection tomarOCrear() throws SQLException {
+        PooledConnection pc;
+        while ((pc = inactivas.pollFirst()) != null) {
+            if (expirada(pc)) {
+                destruir(pc);
+                continue;
+            }
+            long inactivaMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pc.ultimoUso);
+            if (inactivaMs > validationIntervalMs && !esValida(pc)) {
+                validacionesFallidas.increment();
+                destruir(pc);
+                continue;
+            }
+            return pc;
+        }
+        return crearFisica();
+    }
+
+    /**
+     * Devuelve una conexión al pool, restaurando su estado por defecto
+     */
+    private void devolver(PooledConnection pc) {
+        enUso.remove(pc);
+        pc.origen = null;
+
+        boolean descartar = pc.rota || cerrado || expirada(pc);
+        if (!descartar) {
+            try {
+                Connection fisica = pc.fisica;
+                if (!fisica.getAutoCommit()) {
+                    fisica.rollback();
+                    fisica.setAutoCommit(true);
+                }
+                if (fisica.isReadOnly()) {
+                    fisica.setReadOnly(false);
+                }
+                fisica.clearWarnings();
+            } catch (SQLException e) {
+                descartar = true;
+            }
+        }
+
+        if (descartar) {
+            destruir(pc);
+        } else {
+            pc.ultimoUso = System.nanoTime();
+            inactivas.offerFirst(pc);
+        }
+        permisos.release();
+    }
+
+    // ==============================================================
+    // CONEXIONES FÍSICAS
+    // ==============================================================
+
+    private PooledConnection crearFisica() throws SQLException {
+        try {
+            Connection fisica = DriverManager.getConnection(url, user, password);
+            total.incrementAndGet();
+            creadas.increment();
+
+            // Variación de hasta 2.5% para que no expiren todas juntas
+            long variacion = maxLifetimeMs > 0 ? ThreadLocalRandom.current().nextLong(maxLifetimeMs / 40 + 1) : 0;
+            return new PooledConnection(fisica, maxLifetimeMs - variacion);
+        } catch (SQLException e) {
+            System.err.println("❌ ERROR de conexión a PostgreSQL (pool '" + nombre + "'):");
+            System.err.println("   URL: " + url);
+            System.err.println("   User: " + user);
+            System.err.println("   Error: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    private void destruir(PooledConnection pc) {
+        try {
+            pc.fisica.close();
+        } catch (SQLException ignored) {
+            // La conexión ya estaba rota
+        }
+        total.decrementAndGet();
+        destruidas.increment();
+    }
+
+    private boolean expirada(PooledConnection pc) {
+        return pc.vidaMs > 0
+                && TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pc.creadaEn) > pc.vidaMs;
+    }
+
+    private boolean esValida(PooledConnection pc) {
+        try {
+            return pc.fisica.isValid(validationTimeoutSec);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * TAREA DE MANTENIMIENTO PERIÓDICO
+     * Retira conexiones inactivas expiradas, repone el mínimo y reporta fugas.
+     * La reposición toma un permiso como cualquier préstamo, así que nunca se supera el máximo;
+     * la detección de fugas corre aunque la reposición falle.
+     */
+    private void mantener() {
+        try {
+            for (PooledConnection pc : inactivas) {
+                if (expirada(pc) && inactivas.remove(pc)) {
+                    destruir(pc);
+                }
+            }
+
+            // Sin permiso libre todas las conexiones están prestadas: no hace falta reponer
+            while (!cerrado && total.get() < minimo && permisos.tryAcquire()) {
+                try {
+                    inactivas.offerLast(crearFisica());
+                } finally {
+                    permisos.release();
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error en mantenimiento del pool '" + nombre + "': " + e.getMessage());
+        } finally {
+            reportarFugas();
+        }
+    }
+
+    /**
+     * Reporta (una sola vez) las conexiones prestadas hace más de leakDetectionThresholdMs
+     */
+    private void reportarFugas() {
+        if (leakDetectionThresholdMs <= 0) {
+            return;
+        }
+        long ahora = System.nanoTime();
+        for (PooledConnection pc : enUso) {
+            Exception origen = pc.origen;
+            if (!pc.fugaReportada && origen != null
+                    && TimeUnit.NANOSECONDS.toMillis(ahora - pc.prestadaEn) > leakDetectionThresholdMs) {
+                pc.fugaReportada = true;
+                fugasDetectadas.increment();
+                System.err.println("⚠️ Pool '" + nombre + "': posible fuga, conexión prestada hace más de "
+                        + leakDetectionThresholdMs + "ms");
+                origen.printStackTrace();
+            }
+        }
+    }
+
+    // ==============================================================
+    // ESTADÍSTICAS
+    // ==============================================================
+
+    /**
+     * OBTIENE LAS ESTADÍSTICAS DEL POOL
+     * @return Mapa con tamaño, uso, esperas y eventos del pool
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long totalPrestamos = prestamos.sum();
+
+        stats.put("nombre", nombre);
+        stats.put("minimo", minimo);
+        stats.put("maximo", maximo);
+        stats.put("total", total.get());
+        stats.put("enUso", enUso.size());
+        stats.put("inactivas", inactivas.size());
+        stats.put("esperando", permisos.getQueueLength());
+        stats.put("prestamos", totalPrestamos);
+        stats.put("esperaPromedioMs", totalPrestamos > 0
+                ? esperaTotalNanos.sum() / (double) totalPrestamos / 1_000_000.0 : 0.0);
+        stats.put("esperaMaximaMs", esperaMaximaNanos.get() / 1_000_000.0);
+        stats.put("timeouts", timeouts.sum());
+        stats.put("creadas", creadas.sum());
+        stats.put("destruidas", destruidas.sum());
+        stats.put("validacionesFallidas", validacionesFallidas.sum());
+        stats.put("fugasDetectadas", fugasDetectadas.sum());
+        return stats;
+    }
+
+    // ==============================================================
+    // SETTERS DE AJUSTE (llamar antes de start())
+    // ==============================================================
+
+    public void setConnectionTimeoutMs(long connectionTimeoutMs) {
+        this.connectionTimeoutMs = connectionTimeoutMs;
+    }
+
+    public void setMaxLifetimeMs(long maxLifetimeMs) {
+        this.maxLifetimeMs = maxLifetimeMs;
+    }
+
+    public void setLeakDetectionThresholdMs(long leakDetectionThresholdMs) {
+        this.leakDetectionThresholdMs = leakDetectionThresholdMs;
+    }
+
+    public void setValidationIntervalMs(long validationIntervalMs) {
+        this.validationIntervalMs = validationIntervalMs;
+    }
+
+    public void setValidationTimeoutSec(int validationTimeoutSec) {
+        this.validationTimeoutSec = validationTimeoutSec;
+    }
+
+    public void setHousekeepingIntervalMs(long housekeepingIntervalMs) {
+        this.housekeepingIntervalMs = housekeepingIntervalMs;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    // ==============================================================
+    // MÉTODOS DE DataSource NO UTILIZADOS
+    // ==============================================================
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        // No se usa: el pool escribe en la consola
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("No es un wrapper de " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    // ==============================================================
+    // CLASES INTERNAS
+    // ==============================================================
+
+    /**
+     * Conexión física administrada por el pool
+     */
+    private static class PooledConnection {
+        private final Connection fisica;
+        private final long creadaEn = System.nanoTime();
+        private final long vidaMs;
+        private volatile long ultimoUso = System.nanoTime();
+        private volatile long prestadaEn;
+        private volatile Exception origen;      // Dónde se prestó (para reportar fugas)
+        private volatile boolean fugaReportada;
+        private volatile boolean rota;          // Falló con error de conexión (SQLState 08xxx)
+
+        PooledConnection(Connection fisica, long vidaMs) {
+            this.fisica = fisica;
+            this.vidaMs = vidaMs;
+        }
+    }
+
+    /**
+     * Manejador del proxy entregado al DAO.
+     * Intercepta close() para devolver la conexión y bloquea su uso posterior.
+     */
+    private final class ConexionPrestada implements InvocationHandler {
+        private final AtomicBoolean devuelta = new AtomicBoolean(false);
+        private final PooledConnection pc;
+
+        ConexionPrestada(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (devuelta.compareAndSet(false, true)) {
+                        devolver(pc);
+                    }
+                    return null;
+                case "isClosed":
+                    return devuelta.get() || pc.fisica.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ConexionPrestada[" + nombre + "]";
+                default:
+                    break;
+            }
+
+            if (devuelta.get()) {
+                throw new SQLException("La conexión ya fue devuelta al pool");
+            }
+
+            try {
+                return method.invoke(pc.fisica, args);
+            } catch (InvocationTargetException e) {
+                Throwable causa = e.getCause();
+                if (causa instanceof SQLException) {
+                    String estado = ((SQLException) causa).getSQLState();
+                    if (estado != null && estado.startsWith("08")) {
+                        pc.rota = true;
+                    }
+                }
+                throw causa;
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ec.edu.istq.util;
+
+import java.sql.SQLException;
+
+/**
+ * CONTEXTO DE LECTURA DE LA PETICIÓN ACTUAL
+ * Indica si las lecturas deben ir a la base de datos principal en lugar de a una réplica.
+ * Se marca cuando el cliente escribió hace poco (read-your-writes): una réplica con retraso
+ * todavía no tendría sus cambios.
+ *
+ * También puede fijar una réplica (fijarReplica): las lecturas siguientes del hilo van a la misma
+ * réplica que atendió la primera, o a la principal si esa réplica deja de estar disponible.
+ * Como cada réplica aplica los cambios en orden, una lectura posterior nunca ve datos más viejos
+ * que una anterior (ej: la versión de la colección y luego sus filas).
+ *
+ * Es por hilo: quien cambia de hilo (ej: EjecucionAsincrona) debe capturarlo y restaurarlo.
+ */
+public final class ContextoLectura {
+
+    private static final ThreadLocal<Boolean> PRIMARIO = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    // Réplica fijada: índice en ReplicasLectura, SIN_ELEGIR o PRINCIPAL; sin valor = lecturas sin fijar
+    static final int SIN_ELEGIR = -1;
+    static final int PRINCIPAL = -2;
+    private static final ThreadLocal<int[]> REPLICA = new ThreadLocal<>();
+
+    private ContextoLectura() {
+    }
+
+    /**
+     * true si las lecturas del hilo actual deben ir a la principal
+     */
+    public static boolean isPrimario() {
+        return PRIMARIO.get();
+    }
+
+    /**
+     * Marca (o desmarca) las lecturas del hilo actual para la principal
+     */
+    public static void setPrimario(boolean primario) {
+        PRIMARIO.set(primario);
+    }
+
+    /**
+     * Ejecuta una consulta leyendo de la principal y restaura la marca anterior
+     */
+    public static <T> T enPrimario(Consulta<T> consulta) throws SQLException {
+        boolean anterior = isPrimario();
+        PRIMARIO.set(Boolean.TRUE);
+        try {
+            return consulta.ejecutar();
+        } finally {
+            PRIMARIO.set(anterior);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Consulta<T> {
+        T ejecutar() throws SQLException;
+    }
+
+    /**
+     * Fija las lecturas siguientes del hilo a la réplica que atienda la primera (hasta liberarReplica())
+     */
+    public static void fijarReplica() {
+        REPLICA.set(new int[]{SIN_ELEGIR});
+    }
+
+    /**
+     * Deja de fijar la réplica del hilo actual
+     */
+    public static void liberarReplica() {
+        REPLICA.remove();
+    }
+
+    /**
+     * Réplica fijada del hilo actual (ReplicasLectura la lee y la elige), o null si no hay
+     */
+    static int[] getReplicaFijada() {
+        return REPLICA.get();
+    }
+
+    /**
+     * Quita la marca y la réplica fijada del hilo actual
+     */
+    public static void limpiar() {
+        PRIMARIO.remove();
+        REPLICA.remove();
+    }
+}
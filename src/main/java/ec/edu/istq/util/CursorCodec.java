@@ -0,0 +1,47 @@
+package ec.edu.istq.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * CODIFICADOR DE CURSORES DE PAGINACIÓN
+ * Convierte la última clave vista (id) en un texto opaco para el cliente.
+ * El cliente no debe interpretar el cursor, solo devolverlo en ?after=
+ */
+public class CursorCodec {
+
+    private static final String PREFIJO = "v1:";
+
+    private CursorCodec() {
+    }
+
+    /**
+     * Codifica el id del último elemento de la página
+     * @param ultimoId ID del último estudiante devuelto
+     * @return Cursor opaco (Base64 URL-safe)
+     */
+    public static String codificar(long ultimoId) {
+        String valor = PREFIJO + ultimoId;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente
+     * @param cursor Cursor opaco
+     * @return ID a partir del cual continuar
+     * @throws IllegalArgumentException Si el cursor no es válido
+     */
+    public static long decodificar(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!valor.startsWith(PREFIJO)) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return Long.parseLong(valor.substring(PREFIJO.length()));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException también es IllegalArgumentException
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+}
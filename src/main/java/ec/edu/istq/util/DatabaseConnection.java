@@ -1,13 +1,20 @@
 package ec.edu.istq.util;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /**
  * GESTOR DE CONEXIONES A BASE DE DATOS
- * Implementa el patrón Singleton para reutilizar conexiones.
+ * Administra un pool de conexiones (ConnectionPool) compartido por toda la aplicación.
+ * Las conexiones se reutilizan: close() las devuelve al pool.
  * Configurado para PostgreSQL en contenedor Docker.
+ *
+ * Opcionalmente se configuran réplicas de lectura (estudiantes.db.replicas, URLs JDBC separadas por coma):
+ * getConnectionLectura() presta una conexión de una réplica y getConnection() siempre de la principal.
  */
 public class DatabaseConnection {
 
@@ -17,11 +24,12 @@ public class DatabaseConnection {
 
     // URL de conexión JDBC para PostgreSQL
     // Formato: jdbc:postgresql://host:puerto/base_de_datos
-    private static final String URL = "jdbc:postgresql://localhost:5432/estudiantes_db";
+    private static final String URL =
+            Configuracion.texto("estudiantes.db.url", "jdbc:postgresql://localhost:5432/estudiantes_db");
 
     // Credenciales de acceso (definidas en docker-compose.yml)
-    private static final String USER = "postgres";
-    private static final String PASSWORD = "admin123";
+    private static final String USER = Configuracion.texto("estudiantes.db.usuario", "postgres");
+    private static final String PASSWORD = Configuracion.texto("estudiantes.db.password", "admin123");
 
     // ==============================================================
     // BLOQUE ESTÁTICO - CARGA DEL DRIVER
@@ -40,28 +48,149 @@ public class DatabaseConnection {
         }
     }
 
+    // ==============================================================
+    // POOL DE CONEXIONES
+    // ==============================================================
+
+    private static final ConnectionPool POOL = crearPool();
+
+    /**
+     * Crea el pool con los tamaños y tiempos configurados
+     * (estudiantes.db.pool.minimo, estudiantes.db.pool.maximo, etc.)
+     */
+    private static ConnectionPool crearPool() {
+        ConnectionPool pool = new ConnectionPool("principal", URL, USER, PASSWORD,
+                Configuracion.entero("estudiantes.db.pool.minimo", 5),
+                Configuracion.entero("estudiantes.db.pool.maximo", 20));
+        pool.setConnectionTimeoutMs(Configuracion.largo("estudiantes.db.pool.timeoutMs", 30_000));
+        pool.setMaxLifetimeMs(Configuracion.largo("estudiantes.db.pool.vidaMaximaMs", 30 * 60_000));
+        pool.setLeakDetectionThresholdMs(Configuracion.largo("estudiantes.db.pool.fugaUmbralMs", 60_000));
+        pool.setValidationIntervalMs(Configuracion.largo("estudiantes.db.pool.validacionIntervaloMs", 500));
+        return pool;
+    }
+
+    // ==============================================================
+    // RÉPLICAS DE LECTURA
+    // ==============================================================
+
+    private static final ReplicasLectura REPLICAS = crearReplicas();
+
+    /**
+     * Crea un pool por cada URL de estudiantes.db.replicas (vacío = sin réplicas).
+     * Los pools de réplica esperan poco por una conexión: si tardan, conviene leer de la principal.
+     */
+    private static ReplicasLectura crearReplicas() {
+        String usuario = Configuracion.texto("estudiantes.db.replicas.usuario", USER);
+        String password = Configuracion.texto("estudiantes.db.replicas.password", PASSWORD);
+
+        List<ConnectionPool> pools = new ArrayList<>();
+        for (String url : Configuracion.texto("estudiantes.db.replicas", "").split(",")) {
+            if (url.isBlank()) {
+                continue;
+            }
+            ConnectionPool pool = new ConnectionPool("replica-" + (pools.size() + 1), url.trim(), usuario, password,
+                    Configuracion.entero("estudiantes.db.replicas.pool.minimo", 2),
+                    Configuracion.entero("estudiantes.db.replicas.pool.maximo", 20));
+            pool.setConnectionTimeoutMs(Configuracion.largo("estudiantes.db.replicas.pool.timeoutMs", 1_000));
+            pool.setMaxLifetimeMs(Configuracion.largo("estudiantes.db.pool.vidaMaximaMs", 30 * 60_000));
+            pool.setLeakDetectionThresholdMs(Configuracion.largo("estudiantes.db.pool.fugaUmbralMs", 60_000));
+            pool.setValidationIntervalMs(Configuracion.largo("estudiantes.db.pool.validacionIntervaloMs", 500));
+            pools.add(pool);
+        }
+        return new ReplicasLectura(pools,
+                Configuracion.largo("estudiantes.db.replicas.retrasoMaximoMs", 1_000),
+                Configuracion.largo("estudiantes.db.replicas.verificacionMs", 2_000));
+    }
+
+    // Conexiones prestadas por el hilo actual (EstudianteDAOAdmision distingue así las respuestas
+    // desde memoria, que no dicen nada de la carga de la base de datos)
+    private static final ThreadLocal<long[]> PRESTAMOS_DEL_HILO = ThreadLocal.withInitial(() -> new long[1]);
+
     // ==============================================================
     // MÉTODOS PÚBLICOS DE CONEXIÓN
     // ==============================================================
 
     /**
      * OBTIENE UNA CONEXIÓN A LA BASE DE DATOS
-     * Usa DriverManager para crear nueva conexión
+     * Presta una conexión del pool; al cerrarla vuelve al pool
      * @return Connection objeto de conexión JDBC
-     * @throws SQLException Si hay error en la conexión
+     * @throws SQLException Si hay error en la conexión o se agota la espera
      */
     public static Connection getConnection() throws SQLException {
-        try {
-            Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
-            System.out.println("🔗 Conexión establecida con PostgreSQL");
-            return conn;
-        } catch (SQLException e) {
-            System.err.println("❌ ERROR de conexión a PostgreSQL:");
-            System.err.println("   URL: " + URL);
-            System.err.println("   User: " + USER);
-            System.err.println("   Error: " + e.getMessage());
-            throw e;
+        PRESTAMOS_DEL_HILO.get()[0]++;
+        return POOL.getConnection();
+    }
+
+    /**
+     * OBTIENE UNA CONEXIÓN PARA LECTURAS QUE TOLERAN RETRASO
+     * Presta una conexión de una réplica disponible; usa la principal si no hay réplicas,
+     * si ninguna está disponible o si la petición actual debe leer sus propias escrituras (ContextoLectura)
+     * @return Connection objeto de conexión JDBC (solo para consultas)
+     * @throws SQLException Si hay error en la conexión o se agota la espera
+     */
+    public static Connection getConnectionLectura() throws SQLException {
+        PRESTAMOS_DEL_HILO.get()[0]++;
+        if (!REPLICAS.isVacia() && !ContextoLectura.isPrimario()) {
+            Connection conn = REPLICAS.getConnection();
+            if (conn != null) {
+                return conn;
+            }
         }
+        return POOL.getConnection();
+    }
+
+    /**
+     * Cantidad de conexiones que el hilo actual pidió hasta ahora (principal o réplicas).
+     * Comparar el valor antes y después de una operación indica si llegó a la base de datos.
+     */
+    public static long getPrestamosDelHilo() {
+        return PRESTAMOS_DEL_HILO.get()[0];
+    }
+
+    /**
+     * Indica si hay réplicas de lectura configuradas
+     */
+    public static boolean hayReplicas() {
+        return !REPLICAS.isVacia();
+    }
+
+    /**
+     * Obtiene el pool como DataSource estándar
+     */
+    public static DataSource getDataSource() {
+        return POOL;
+    }
+
+    /**
+     * INICIA EL POOL (pre-calentamiento y mantenimiento) Y LAS RÉPLICAS
+     * Se llama al desplegar la aplicación
+     */
+    public static void iniciarPool() {
+        POOL.start();
+        REPLICAS.iniciar();
+    }
+
+    /**
+     * CIERRA EL POOL Y LAS RÉPLICAS
+     * Se llama al replegar la aplicación
+     */
+    public static void cerrarPool() {
+        REPLICAS.cerrar();
+        POOL.close();
+    }
+
+    /**
+     * Estadísticas del pool: en uso, inactivas, tiempos de espera, etc.
+     */
+    public static Map<String, Object> getPoolStats() {
+        return POOL.getStats();
+    }
+
+    /**
+     * Estado, retraso y pool de cada réplica de lectura
+     */
+    public static Map<String, Object> getReplicasStats() {
+        return REPLICAS.getEstadisticas();
     }
 
     /**
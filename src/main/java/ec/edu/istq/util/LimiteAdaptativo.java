@@ -0,0 +1,226 @@
+package ec.edu.istq.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * LÍMITE DE CONCURRENCIA ADAPTATIVO (estilo gradiente / Vegas)
+ * Controla cuántas operaciones pueden ejecutarse a la vez contra la base de datos.
+ * El límite se ajusta solo a partir de la latencia observada:
+ *   - rttMinimo de cada operación: latencia mínima de su ventana anterior (la latencia "sin cola")
+ *   - latencia relativa: rtt / rttMinimo de su operación, con promedio móvil rápido
+ *   - gradiente = tolerancia / latenciaRelativa, entre 0.5 y 1.0
+ *   - nuevoLimite = limite * gradiente + sqrt(limite)
+ * Si la latencia sube (la base de datos se degrada o hay cola) el límite baja;
+ * si se mantiene estable el límite crece de a poco (sqrt) para aprovechar la capacidad.
+ * El mínimo se renueva por ventanas de muestras, así sigue a la base de datos si su latencia base cambia.
+ *
+ * Cada muestra se compara con el mínimo de SU operación (ej: "obtenerTodos" con "obtenerTodos"):
+ * un presupuesto que mezcla operaciones rápidas y lentas no confunde "operación cara" con "cola".
+ *
+ * Las operaciones que no caben esperan en una cola corta y acotada; si la cola
+ * está llena o la espera vence, se rechazan de inmediato (load shedding).
+ */
+public class LimiteAdaptativo {
+
+    // Latencia tolerada sobre la normal antes de reducir el límite
+    private static final double TOLERANCIA = 1.5;
+    // Peso de cada muestra en el promedio corto
+    private static final double ALFA_CORTO = 0.1;
+    // Muestras por ventana del rtt mínimo
+    private static final int MUESTRAS_POR_VENTANA = 500;
+    // Cuánto del nuevo límite se aplica en cada muestra (suaviza oscilaciones)
+    private static final double SUAVIZADO = 0.2;
+
+    private final String nombre;
+    private final int minimo;
+    private final int maximo;
+    private final int maxCola;
+    private final long esperaMaximaNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition liberado = lock.newCondition();
+
+    // Protegidos por lock
+    private double limite;
+    private int enCurso = 0;
+    private int enCola = 0;
+    private double latenciaRelativa = 0;
+    private final Map<String, Base> bases = new HashMap<>();
+
+    // Estadísticas
+    private final LongAdder aceptadas = new LongAdder();
+    private final LongAdder encoladas = new LongAdder();
+    private final LongAdder rechazadas = new LongAdder();
+
+    /**
+     * Latencia base de una operación: mínimo por ventanas de muestras (protegida por lock)
+     */
+    private static final class Base {
+        long rttMinimoNanos = 0;
+        long minimoVentanaNanos = Long.MAX_VALUE;
+        int muestrasVentana = 0;
+        long muestras = 0;
+
+        /**
+         * Registra la muestra y devuelve su latencia relativa al mínimo (>= 1)
+         */
+        double registrar(long rttNanos) {
+            muestras++;
+            minimoVentanaNanos = Math.min(minimoVentanaNanos, rttNanos);
+            rttMinimoNanos = (rttMinimoNanos == 0) ? rttNanos : Math.min(rttMinimoNanos, rttNanos);
+            double relativa = (double) rttNanos / rttMinimoNanos;
+            if (++muestrasVentana >= MUESTRAS_POR_VENTANA) {
+                rttMinimoNanos = minimoVentanaNanos;
+                minimoVentanaNanos = Long.MAX_VALUE;
+                muestrasVentana = 0;
+            }
+            return relativa;
+        }
+    }
+
+    /**
+     * @param nombre Nombre para métricas
+     * @param inicial Límite inicial
+     * @param minimo Límite mínimo (nunca se baja de aquí)
+     * @param maximo Límite máximo
+     * @param maxCola Operaciones que pueden esperar cuando se alcanza el límite
+     * @param esperaMaximaMs Tiempo máximo de espera en la cola
+     */
+    public LimiteAdaptativo(String nombre, int inicial, int minimo, int maximo, int maxCola, long esperaMaximaMs) {
+        this.nombre = nombre;
+        this.limite = inicial;
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.maxCola = maxCola;
+        this.esperaMaximaNanos = TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs);
+    }
+
+    /**
+     * Intenta ocupar un lugar; espera en la cola si está permitido
+     * @return true si se puede ejecutar (luego llamar a liberar), false si se rechaza
+     */
+    public boolean adquirir() {
+        lock.lock();
+        try {
+            if (enCurso < (int) limite) {
+                enCurso++;
+                aceptadas.increment();
+                return true;
+            }
+            if (enCola >= maxCola) {
+                rechazadas.increment();
+                return false;
+            }
+
+            enCola++;
+            encoladas.increment();
+            try {
+                long restante = esperaMaximaNanos;
+                while (enCurso >= (int) limite) {
+                    if (restante <= 0) {
+                        rechazadas.increment();
+                        return false;
+                    }
+                    restante = liberado.awaitNanos(restante);
+                }
+                enCurso++;
+                aceptadas.increment();
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rechazadas.increment();
+                return false;
+            } finally {
+                enCola--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Libera el lugar ocupado sin usar la duración como muestra
+     * (operaciones largas o resueltas sin la base de datos)
+     */
+    public void liberar() {
+        liberar(null, -1);
+    }
+
+    /**
+     * Libera el lugar ocupado y ajusta el límite con la latencia de la operación
+     * @param operacion Nombre de la operación; la latencia se compara con el mínimo de esa operación
+     * @param rttNanos Duración de la operación (negativo = no usar como muestra)
+     */
+    public void liberar(String operacion, long rttNanos) {
+        lock.lock();
+        try {
+            int enCursoAlTerminar = enCurso;
+            enCurso--;
+            if (operacion != null && rttNanos > 0) {
+                ajustar(operacion, rttNanos, enCursoAlTerminar);
+            }
+            liberado.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ajustar(String operacion, long rttNanos, int enCursoAlTerminar) {
+        double relativa = bases.computeIfAbsent(operacion, k -> new Base()).registrar(rttNanos);
+        if (latenciaRelativa == 0) {
+            latenciaRelativa = relativa;
+        }
+        latenciaRelativa += ALFA_CORTO * (relativa - latenciaRelativa);
+
+        double gradiente = Math.max(0.5, Math.min(1.0, TOLERANCIA / latenciaRelativa));
+        double nuevo = limite * gradiente + Math.sqrt(limite);
+        // Con menos de la mitad del límite en uso la latencia no dice nada sobre más concurrencia: no se crece
+        if (nuevo > limite && enCursoAlTerminar < limite / 2) {
+            return;
+        }
+        double anterior = limite;
+        limite = Math.max(minimo, Math.min(maximo, limite * (1 - SUAVIZADO) + nuevo * SUAVIZADO));
+
+        // Si el límite creció, pueden entrar operaciones de la cola
+        if ((int) limite > (int) anterior) {
+            liberado.signalAll();
+        }
+    }
+
+    /**
+     * Límite actual, operaciones en curso y en cola, latencias y rechazos
+     */
+    public Map<String, Object> getEstadisticas() {
+        Map<String, Object> stats = new HashMap<>();
+        lock.lock();
+        try {
+            stats.put("nombre", nombre);
+            stats.put("limite", (int) limite);
+            stats.put("limiteMinimo", minimo);
+            stats.put("limiteMaximo", maximo);
+            stats.put("enCurso", enCurso);
+            stats.put("enCola", enCola);
+            stats.put("maxCola", maxCola);
+            stats.put("latenciaRelativa", Math.round(latenciaRelativa * 100) / 100.0);
+            Map<String, Object> operaciones = new HashMap<>();
+            bases.forEach((operacion, base) -> {
+                Map<String, Object> datos = new HashMap<>();
+                datos.put("rttMinimoMs", Math.round(base.rttMinimoNanos / 10_000.0) / 100.0);
+                datos.put("muestras", base.muestras);
+                operaciones.put(operacion, datos);
+            });
+            stats.put("operaciones", operaciones);
+        } finally {
+            lock.unlock();
+        }
+        stats.put("aceptadas", aceptadas.sum());
+        stats.put("encoladas", encoladas.sum());
+        stats.put("rechazadas", rechazadas.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,253 @@
+package ec.edu.istq.util;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RÉPLICAS DE LECTURA
+ * Un pool de conexiones por réplica (streaming replication de PostgreSQL), elegidas en round-robin.
+ * Un hilo verifica periódicamente cada réplica:
+ *   - que responda (si falla, se deja de usar hasta la próxima verificación exitosa)
+ *   - que esté recibiendo WAL de la principal (pg_stat_wal_receiver); una réplica desconectada
+ *     aplica todo lo que recibió y parece al día mientras se atrasa sin límite, así que no se usa
+ *   - su retraso de replicación; si supera el máximo configurado se deja de usar
+ * Si ninguna réplica está disponible, getConnection() devuelve null y se lee de la principal.
+ */
+public class ReplicasLectura {
+
+    // Columna 1, retraso en ms: 0 si la réplica recibe WAL y ya aplicó todo lo recibido (evita medir como
+    // retraso la inactividad de la principal); NULL si no es una réplica (pg_is_in_recovery() = false).
+    // Columna 2: hay un proceso walreceiver en streaming. Sin pg_read_all_stats el estado se ve NULL
+    // y solo se comprueba que el proceso exista.
+    private static final String SQL_RETRASO =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN NULL " +
+            "WHEN recibiendo AND pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END, " +
+            "recibiendo FROM (SELECT EXISTS (SELECT 1 FROM pg_stat_wal_receiver " +
+            "WHERE status IS NULL OR status = 'streaming') AS recibiendo) r";
+
+    private final List<Replica> replicas;
+    private final long retrasoMaximoMs;
+    private final long verificacionMs;
+    private final AtomicInteger siguiente = new AtomicInteger();
+
+    private ScheduledExecutorService verificador;
+
+    // Lecturas que iban a una réplica pero terminaron en la principal (ninguna disponible)
+    private final LongAdder sinReplica = new LongAdder();
+
+    /**
+     * Estado de una réplica
+     */
+    private static class Replica {
+        final ConnectionPool pool;
+        volatile boolean disponible = false;
+        volatile long retrasoMs = -1;
+        volatile String ultimoError = null;
+        final LongAdder lecturas = new LongAdder();
+
+        Replica(ConnectionPool pool) {
+            this.pool = pool;
+        }
+    }
+
+    /**
+     * @param pools Un pool por réplica
+     * @param retrasoMaximoMs Retraso de replicación a partir del cual la réplica no se usa
+     * @param verificacionMs Intervalo entre verificaciones
+     */
+    public ReplicasLectura(List<ConnectionPool> pools, long retrasoMaximoMs, long verificacionMs) {
+        this.replicas = new ArrayList<>(pools.size());
+        for (ConnectionPool pool : pools) {
+            replicas.add(new Replica(pool));
+        }
+        this.retrasoMaximoMs = retrasoMaximoMs;
+        this.verificacionMs = verificacionMs;
+    }
+
+    public boolean isVacia() {
+        return replicas.isEmpty();
+    }
+
+    // ==============================================================
+    // CICLO DE VIDA
+    // ==============================================================
+
+    /**
+     * Inicia los pools, verifica las réplicas una vez y programa las verificaciones periódicas
+     */
+    public void iniciar() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        for (Replica replica : replicas) {
+            replica.pool.start();
+        }
+        verificar();
+
+        verificador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "replicas-verificacion");
+            t.setDaemon(true);
+            return t;
+        });
+        verificador.scheduleWithFixedDelay(this::verificar, verificacionMs, verificacionMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Detiene las verificaciones y cierra los pools
+     */
+    public void cerrar() {
+        if (verificador != null) {
+            verificador.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+    }
+
+    private void verificar() {
+        for (Replica replica : replicas) {
+            boolean antes = replica.disponible;
+            try (Connection conn = replica.pool.getConnection();
+                 Statement stmt = conn.createStatement()) {
+                stmt.setQueryTimeout(2);
+                try (ResultSet rs = stmt.executeQuery(SQL_RETRASO)) {
+                    rs.next();
+                    double retraso = rs.getDouble(1);
+                    if (rs.wasNull()) {
+                        // Apunta a una base de datos que no es réplica: los datos no se sincronizan con la principal
+                        replica.retrasoMs = -1;
+                        replica.disponible = false;
+                        replica.ultimoError = "No es una réplica (pg_is_in_recovery() = false)";
+                    } else if (!rs.getBoolean(2)) {
+                        // Sin conexión con la principal no se puede saber cuánto se atrasa
+                        replica.retrasoMs = -1;
+                        replica.disponible = false;
+                        replica.ultimoError = "Sin conexión de replicación con la principal (pg_stat_wal_receiver)";
+                    } else {
+                        replica.retrasoMs = Math.round(retraso);
+                        replica.disponible = replica.retrasoMs <= retrasoMaximoMs;
+                        replica.ultimoError = replica.disponible ? null
+                                : "Retraso de " + replica.retrasoMs + "ms (máximo " + retrasoMaximoMs + "ms)";
+                    }
+                }
+            } catch (SQLException e) {
+                replica.disponible = false;
+                replica.ultimoError = e.getMessage();
+            }
+
+            if (antes != replica.disponible) {
+                if (replica.disponible) {
+                    System.out.println("✅ Réplica '" + replica.pool.getNombre() + "' disponible (retraso "
+                            + replica.retrasoMs + "ms)");
+                } else {
+                    System.err.println("⚠️ Réplica '" + replica.pool.getNombre() + "' fuera de uso: "
+                            + replica.ultimoError);
+                }
+            }
+        }
+    }
+
+    // ==============================================================
+    // CONEXIONES
+    // ==============================================================
+
+    /**
+     * Presta una conexión de la siguiente réplica disponible (round-robin).
+     * Si el hilo fijó una réplica (ContextoLectura.fijarReplica) se usa la misma de la primera lectura;
+     * si ya no está disponible se lee de la principal, que nunca está atrasada respecto de ella.
+     * @return Conexión de una réplica, o null si ninguna está disponible
+     */
+    public Connection getConnection() {
+        int n = replicas.size();
+        if (n == 0) {
+            return null;
+        }
+
+        int[] fijada = ContextoLectura.getReplicaFijada();
+        if (fijada != null && fijada[0] != ContextoLectura.SIN_ELEGIR) {
+            Connection conn = (fijada[0] == ContextoLectura.PRINCIPAL) ? null : prestar(replicas.get(fijada[0]));
+            if (conn == null) {
+                fijada[0] = ContextoLectura.PRINCIPAL;
+                sinReplica.increment();
+            }
+            return conn;
+        }
+
+        int inicio = Math.floorMod(siguiente.getAndIncrement(), n);
+        for (int i = 0; i < n; i++) {
+            int indice = (inicio + i) % n;
+            Connection conn = prestar(replicas.get(indice));
+            if (conn != null) {
+                if (fijada != null) {
+                    fijada[0] = indice;
+                }
+                return conn;
+            }
+        }
+        if (fijada != null) {
+            fijada[0] = ContextoLectura.PRINCIPAL;
+        }
+        sinReplica.increment();
+        return null;
+    }
+
+    /**
+     * Conexión de la réplica, o null si no está disponible o su pool falla
+     */
+    private Connection prestar(Replica replica) {
+        if (!replica.disponible) {
+            return null;
+        }
+        try {
+            Connection conn = replica.pool.getConnection();
+            replica.lecturas.increment();
+            return conn;
+        } catch (SQLException e) {
+            // Se vuelve a habilitar en la próxima verificación exitosa
+            replica.disponible = false;
+            replica.ultimoError = e.getMessage();
+            System.err.println("⚠️ Réplica '" + replica.pool.getNombre() + "' fuera de uso: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // ==============================================================
+    // ESTADÍSTICAS
+    // ==============================================================
+
+    /**
+     * Estado, retraso, lecturas y pool de cada réplica
+     */
+    public Map<String, Object> getEstadisticas() {
+        List<Map<String, Object>> detalle = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            Map<String, Object> r = new HashMap<>();
+            r.put("nombre", replica.pool.getNombre());
+            r.put("disponible", replica.disponible);
+            r.put("retrasoMs", replica.retrasoMs);
+            r.put("lecturas", replica.lecturas.sum());
+            r.put("ultimoError", replica.ultimoError);
+            r.put("pool", replica.pool.getStats());
+            detalle.add(r);
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("replicas", detalle);
+        stats.put("retrasoMaximoMs", retrasoMaximoMs);
+        stats.put("verificacionMs", verificacionMs);
+        stats.put("lecturasSinReplica", sinReplica.sum());
+        return stats;
+    }
+}
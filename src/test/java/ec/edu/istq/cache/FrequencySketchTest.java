@@ -0,0 +1,46 @@
+package ec.edu.istq.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrequencySketchTest {
+
+    @Test
+    void cuentaLosAccesosDeCadaClave() {
+        FrequencySketch sketch = new FrequencySketch(1000);
+        for (int i = 0; i < 5; i++) {
+            sketch.incrementar("frecuente");
+        }
+        sketch.incrementar("rara");
+
+        assertEquals(5, sketch.frecuencia("frecuente"));
+        assertTrue(sketch.frecuencia("rara") >= 1);
+        assertTrue(sketch.frecuencia("frecuente") > sketch.frecuencia("rara"));
+    }
+
+    @Test
+    void seSaturaEnQuince() {
+        FrequencySketch sketch = new FrequencySketch(1000);
+        for (int i = 0; i < 100; i++) {
+            sketch.incrementar(42L);
+        }
+        assertEquals(15, sketch.frecuencia(42L));
+    }
+
+    @Test
+    void envejecerDivideLosContadores() {
+        // Capacidad 16: el envejecimiento ocurre cada 160 incrementos
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 10; i++) {
+            sketch.incrementar("a");
+        }
+        for (int i = 0; i < 150; i++) {
+            sketch.incrementar(1000 + i);
+        }
+        // 10 accesos a la mitad; el ruido de las otras claves puede sumar algo
+        assertTrue(sketch.frecuencia("a") >= 5);
+        assertTrue(sketch.frecuencia("a") < 10);
+    }
+}
@@ -0,0 +1,136 @@
+package ec.edu.istq.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LfuCacheTest {
+
+    @Test
+    void guardaYDevuelveValores() {
+        LfuCache<Long, String> cache = new LfuCache<>("prueba", 10, 0);
+        cache.put(1L, "uno", cache.marcas());
+
+        assertEquals("uno", cache.get(1L));
+        assertNull(cache.get(2L));
+        assertEquals(1L, cache.getEstadisticas().get("aciertos"));
+        assertEquals(1L, cache.getEstadisticas().get("fallos"));
+    }
+
+    @Test
+    void rechazaCapacidadMenorAUno() {
+        assertThrows(IllegalArgumentException.class, () -> new LfuCache<Long, String>("prueba", 0, 0));
+    }
+
+    @Test
+    void unaClaveNuevaPocoFrecuenteNoDesplazaALaFrecuente() {
+        LfuCache<Long, String> cache = new LfuCache<>("prueba", 1, 0);
+        for (int i = 0; i < 5; i++) {
+            cache.get(1L);
+        }
+        cache.put(1L, "frecuente", cache.marcas());
+
+        // Un recorrido de claves únicas: cada una pedida una sola vez
+        for (long clave = 100; clave < 200; clave++) {
+            cache.get(clave);
+            cache.put(clave, "unica", cache.marcas());
+        }
+
+        assertEquals("frecuente", cache.get(1L));
+        assertEquals(100L, cache.getEstadisticas().get("rechazosAdmision"));
+    }
+
+    @Test
+    void unaClaveMasFrecuenteDesplazaALaVictimaLru() {
+        LfuCache<Long, String> cache = new LfuCache<>("prueba", 1, 0);
+        cache.put(1L, "vieja", cache.marcas());
+        for (int i = 0; i < 5; i++) {
+            cache.get(2L);
+        }
+        cache.put(2L, "nueva", cache.marcas());
+
+        assertEquals("nueva", cache.get(2L));
+        assertNull(cache.get(1L));
+        assertEquals(1L, cache.getEstadisticas().get("evicciones"));
+    }
+
+    @Test
+    void nuncaSuperaLaCapacidad() {
+        LfuCache<Long, Long> cache = new LfuCache<>("prueba", 1000, 0);
+        for (long clave = 0; clave < 50_000; clave++) {
+            cache.get(clave);
+            cache.get(clave);
+            cache.put(clave, clave, cache.marcas());
+        }
+        assertTrue((int) cache.getEstadisticas().get("tamanio") <= 1000);
+        assertEquals(8, cache.getEstadisticas().get("segmentos"));
+    }
+
+    @Test
+    void descartaLoLeidoSiSuClaveSeInvalidoDuranteLaLectura() {
+        LfuCache<Long, String> cache = new LfuCache<>("prueba", 10, 0);
+        long[] marcas = cache.marcas();
+        cache.invalidar(1L);
+        cache.put(1L, "vieja", marcas);
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void unaInvalidacionNoDescartaLecturasDeOtrosSegmentos() {
+        int capacidad = 16 * 64;
+        long otra = 2L;
+        while (segmento(capacidad, otra) == segmento(capacidad, 1L)) {
+            otra++;
+        }
+
+        LfuCache<Long, String> cache = new LfuCache<>("prueba", capacidad, 0);
+        long[] marcas = cache.marcas();
+        cache.invalidar(1L);
+        cache.put(otra, "sigue", marcas);
+
+        assertNotNull(cache.get(otra));
+    }
+
+    @Test
+    void limpiarInvalidaTodasLasLecturasEnCurso() {
+        LfuCache<Long, String> cache = new LfuCache<>("prueba", 16 * 64, 0);
+        cache.put(1L, "uno", cache.marcas());
+        long[] marcas = cache.marcas();
+        cache.limpiar();
+        cache.put(2L, "dos", marcas);
+
+        assertNull(cache.get(1L));
+        assertNull(cache.get(2L));
+    }
+
+    @Test
+    void expiraPorTtl() throws InterruptedException {
+        LfuCache<Long, String> cache = new LfuCache<>("prueba", 10, 1);
+        cache.put(1L, "uno", cache.marcas());
+        Thread.sleep(1100);
+
+        assertNull(cache.get(1L));
+        assertEquals(1L, cache.getEstadisticas().get("expiraciones"));
+    }
+
+    /**
+     * Segmento de una clave: el único cuya marca cambia al invalidarla
+     */
+    private static int segmento(int capacidad, long clave) {
+        LfuCache<Long, String> cache = new LfuCache<>("sonda", capacidad, 0);
+        long[] antes = cache.marcas();
+        cache.invalidar(clave);
+        long[] despues = cache.marcas();
+        for (int i = 0; i < antes.length; i++) {
+            if (antes[i] != despues[i]) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("La invalidación no cambió ninguna marca");
+    }
+}
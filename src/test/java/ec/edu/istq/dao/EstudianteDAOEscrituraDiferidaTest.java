@@ -0,0 +1,185 @@
+package ec.edu.istq.dao;
+
+import ec.edu.istq.model.Estudiante;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EstudianteDAOEscrituraDiferidaTest {
+
+    @Test
+    void escribeSoloElUltimoCambioDeCadaId() throws SQLException {
+        DAOSimulado base = new DAOSimulado();
+        EstudianteDAOEscrituraDiferida dao = new EstudianteDAOEscrituraDiferida(base, 1000, 100);
+
+        dao.activar(1L);
+        dao.desactivar(1L);
+        dao.activar(1L);
+        dao.desactivar(2L);
+        dao.vaciar();
+
+        assertEquals(List.of("true:[1]", "false:[2]"), base.escrituras);
+        assertEquals(2L, dao.getEstadisticas().get("coalescidos"));
+        assertEquals(0, dao.getEstadisticas().get("pendientes"));
+    }
+
+    @Test
+    void elBufferLlenoSeEscribeEnElLlamador() throws SQLException {
+        DAOSimulado base = new DAOSimulado();
+        EstudianteDAOEscrituraDiferida dao = new EstudianteDAOEscrituraDiferida(base, 1000, 3);
+
+        dao.activar(1L);
+        dao.activar(2L);
+        assertTrue(base.escrituras.isEmpty());
+        dao.activar(3L);
+
+        assertEquals(1, base.escrituras.size());
+        assertEquals(1L, dao.getEstadisticas().get("vaciadosPorCapacidad"));
+    }
+
+    @Test
+    void siLaEscrituraFallaLosCambiosVuelvenAlBuffer() throws SQLException {
+        DAOSimulado base = new DAOSimulado();
+        EstudianteDAOEscrituraDiferida dao = new EstudianteDAOEscrituraDiferida(base, 1000, 100);
+        dao.activar(1L);
+        dao.desactivar(2L);
+
+        base.fallar = true;
+        assertThrows(SQLException.class, dao::vaciar);
+        // Falló activar; desactivar se intentó igual (y también falló)
+        assertEquals(2, base.intentos);
+        assertEquals(2, dao.getEstadisticas().get("pendientes"));
+
+        base.fallar = false;
+        dao.vaciar();
+        assertEquals(List.of("true:[1]", "false:[2]"), base.escrituras);
+        assertEquals(0, dao.getEstadisticas().get("pendientes"));
+    }
+
+    @Test
+    void unCambioNuevoNoEsReemplazadoPorElQueFallo() throws SQLException {
+        DAOSimulado base = new DAOSimulado();
+        EstudianteDAOEscrituraDiferida dao = new EstudianteDAOEscrituraDiferida(base, 1000, 100);
+        dao.activar(1L);
+
+        // Mientras se escribe (y falla) la activación llega una desactivación del mismo ID
+        base.fallar = true;
+        base.durante = () -> dao.desactivar(1L);
+        assertThrows(SQLException.class, dao::vaciar);
+
+        base.fallar = false;
+        base.durante = null;
+        dao.vaciar();
+        assertEquals(List.of("false:[1]"), base.escrituras);
+    }
+
+    @Test
+    void lasLecturasPorIdVenElEstadoPendiente() throws SQLException {
+        DAOSimulado base = new DAOSimulado();
+        EstudianteDAOEscrituraDiferida dao = new EstudianteDAOEscrituraDiferida(base, 1000, 100);
+        dao.desactivar(7L);
+
+        assertFalse(dao.obtenerPorId(7L).getActivo());
+        assertTrue(dao.obtenerPorId(8L).getActivo());
+    }
+
+    @Test
+    void laVersionDeUnIdEscribeSoloSuCambio() throws SQLException {
+        DAOSimulado base = new DAOSimulado();
+        EstudianteDAOEscrituraDiferida dao = new EstudianteDAOEscrituraDiferida(base, 1000, 100);
+        dao.activar(1L);
+        dao.activar(2L);
+
+        assertNotNull(dao.obtenerFechaActualizacion(1L));
+        assertEquals(List.of("true:[1]"), base.escrituras);
+        assertEquals(1, dao.getEstadisticas().get("pendientes"));
+
+        // Sin cambio pendiente no se escribe nada
+        dao.obtenerFechaActualizacion(3L);
+        assertEquals(1, base.escrituras.size());
+    }
+
+    @Test
+    void laVersionDeLaColeccionNoVaciaElBufferYCambiaConEl() throws SQLException {
+        DAOSimulado base = new DAOSimulado();
+        EstudianteDAOEscrituraDiferida dao = new EstudianteDAOEscrituraDiferida(base, 1000, 100);
+        assertNull(dao.obtenerVersionColeccion().getPendientes());
+
+        dao.activar(1L);
+        String primera = dao.obtenerVersionColeccion().getPendientes();
+        assertNotNull(primera);
+        assertEquals(primera, dao.obtenerVersionColeccion().getPendientes());
+        assertTrue(base.escrituras.isEmpty());
+
+        dao.desactivar(1L);
+        assertNotEquals(primera, dao.obtenerVersionColeccion().getPendientes());
+
+        dao.vaciar();
+        assertNull(dao.obtenerVersionColeccion().getPendientes());
+    }
+
+    // ==============================================================
+    // DAO SIMULADO
+    // ==============================================================
+
+    /**
+     * Registra las escrituras por lote y puede fallar a pedido; no usa base de datos
+     */
+    private static class DAOSimulado extends EstudianteDAODecorador {
+        final List<String> escrituras = new ArrayList<>();
+        boolean fallar = false;
+        int intentos = 0;
+        Accion durante;
+
+        DAOSimulado() {
+            super(null);
+        }
+
+        @Override
+        public List<Long> cambiarEstadoLote(List<Long> ids, boolean activo) throws SQLException {
+            intentos++;
+            if (durante != null) {
+                durante.ejecutar();
+            }
+            if (fallar) {
+                throw new SQLException("fallo simulado");
+            }
+            escrituras.add(activo + ":" + ids);
+            return new ArrayList<>(ids);
+        }
+
+        @Override
+        public Estudiante obtenerPorId(Long id) {
+            Estudiante estudiante = new Estudiante(id, "1710034065", "Ana", "Pérez",
+                    "ana@istq.edu.ec", null, "Software", 1);
+            estudiante.setActivo(true);
+            return estudiante;
+        }
+
+        @Override
+        public Timestamp obtenerFechaActualizacion(Long id) {
+            return new Timestamp(0);
+        }
+
+        @Override
+        public VersionColeccion obtenerVersionColeccion() {
+            return new VersionColeccion(10, new Timestamp(0));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Accion {
+        void ejecutar() throws SQLException;
+    }
+}
@@ -0,0 +1,115 @@
+package ec.edu.istq.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistogramaLatenciaTest {
+
+    @Test
+    void losBucketsCubrenElRangoSinHuecosNiSolapes() {
+        for (int bits = 2; bits <= 10; bits++) {
+            HistogramaLatencia histograma = new HistogramaLatencia(bits);
+            long siguiente = 0;
+            for (int i = 0; i < histograma.getBuckets(); i++) {
+                assertEquals(siguiente, histograma.limiteInferior(i), "bits=" + bits + " bucket=" + i);
+                siguiente = histograma.limiteInferior(i) + histograma.ancho(i);
+            }
+            // El último bucket termina en 2^36 - 1
+            assertEquals(1L << 36, siguiente, "bits=" + bits);
+        }
+    }
+
+    @Test
+    void cadaValorCaeEnElBucketQueLoContiene() {
+        HistogramaLatencia histograma = new HistogramaLatencia();
+        long[] valores = {0, 1, 127, 128, 129, 255, 256, 1_000, 65_535, 1_000_000, (1L << 36) - 1};
+        for (long valor : valores) {
+            int indice = histograma.indice(valor);
+            long inferior = histograma.limiteInferior(indice);
+            assertTrue(inferior <= valor && valor < inferior + histograma.ancho(indice), "valor=" + valor);
+        }
+    }
+
+    @Test
+    void losValoresPequenosSonExactos() {
+        HistogramaLatencia histograma = new HistogramaLatencia();
+        for (int i = 1; i <= 100; i++) {
+            histograma.registrar(i);
+        }
+        assertArrayEquals(new long[]{50, 90, 99, 100}, histograma.percentiles(50, 90, 99, 100));
+        assertEquals(1, histograma.getMinimo());
+        assertEquals(100, histograma.getMaximo());
+        assertEquals(50.5, histograma.getPromedio(), 1e-9);
+    }
+
+    @Test
+    void elErrorRelativoDeLosPercentilesEsMenorAUnBucket() {
+        HistogramaLatencia histograma = new HistogramaLatencia();
+        for (long valor = 1; valor <= 1_000_000; valor++) {
+            histograma.registrar(valor);
+        }
+        double[] pedidos = {50, 90, 99, 99.9};
+        long[] obtenidos = histograma.percentiles(pedidos);
+        for (int i = 0; i < pedidos.length; i++) {
+            double esperado = pedidos[i] / 100.0 * 1_000_000;
+            assertEquals(esperado, obtenidos[i], esperado / 64, "p" + pedidos[i]);
+        }
+    }
+
+    @Test
+    void ningunPercentilSuperaElMaximo() {
+        HistogramaLatencia histograma = new HistogramaLatencia();
+        histograma.registrar(1_000_001);
+        assertEquals(1_000_001, histograma.percentiles(99.9)[0]);
+    }
+
+    @Test
+    void losValoresFueraDeRangoSeRecortan() {
+        HistogramaLatencia histograma = new HistogramaLatencia();
+        histograma.registrar(-5);
+        histograma.registrar(Long.MAX_VALUE / 2);
+        assertEquals(0, histograma.getMinimo());
+        assertEquals(2, histograma.getTotal());
+        assertEquals(histograma.getBuckets() - 1, histograma.indice((1L << 36) - 1));
+    }
+
+    @Test
+    void sinRegistrosLosPercentilesSonCero() {
+        assertArrayEquals(new long[3], new HistogramaLatencia().percentiles(50, 90, 99));
+    }
+
+    @Test
+    void sumarConteosCombinaHistogramas() {
+        HistogramaLatencia a = new HistogramaLatencia(5);
+        HistogramaLatencia b = new HistogramaLatencia(5);
+        for (int i = 0; i < 10; i++) {
+            a.registrar(10);
+            b.registrar(20);
+        }
+        long[] conteos = new long[a.getBuckets()];
+        a.sumarConteos(conteos);
+        b.sumarConteos(conteos);
+
+        assertArrayEquals(new long[]{10, 20}, a.percentiles(conteos, 20, 50, 100));
+    }
+
+    @Test
+    void acumuladosCuentaLosBucketsBajoCadaLimite() {
+        HistogramaLatencia histograma = new HistogramaLatencia();
+        histograma.registrar(5);
+        histograma.registrar(50);
+        histograma.registrar(5_000);
+
+        assertArrayEquals(new long[]{1, 2, 2, 3}, histograma.acumulados(new long[]{10, 100, 1_000}));
+    }
+
+    @Test
+    void rechazaPrecisionFueraDeRango() {
+        assertThrows(IllegalArgumentException.class, () -> new HistogramaLatencia(1));
+        assertThrows(IllegalArgumentException.class, () -> new HistogramaLatencia(11));
+    }
+}
@@ -0,0 +1,103 @@
+package ec.edu.istq.search;
+
+import ec.edu.istq.model.Estudiante;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndiceNgramasTest {
+
+    @Test
+    void normalizaMayusculasYTildes() {
+        assertEquals("jose nunez", IndiceNgramas.normalizar("José Núñez"));
+        assertEquals("", IndiceNgramas.normalizar(null));
+    }
+
+    @Test
+    void losTrigramasSonDistintosYOrdenados() {
+        assertEquals(1, IndiceNgramas.ngramas("aaaa").length);
+        assertEquals(0, IndiceNgramas.ngramas("ab").length);
+        long[] gramas = IndiceNgramas.ngramas("abcabc");
+        assertEquals(3, gramas.length);
+        for (int i = 1; i < gramas.length; i++) {
+            assertTrue(gramas[i - 1] < gramas[i]);
+        }
+    }
+
+    @Test
+    void buscaSubcadenasSinDistinguirMayusculasNiTildes() {
+        IndiceNgramas indice = cargado();
+
+        assertEquals(List.of(1L), ids(indice.buscar("MARÍA", 10, 0)));
+        assertEquals(List.of(2L), ids(indice.buscar("nunez", 10, 0)));
+        assertEquals(List.of(3L), ids(indice.buscar("0034065", 10, 0)));
+        assertTrue(indice.buscar("zzz", 10, 0).isEmpty());
+    }
+
+    @Test
+    void terminosMenoresAUnTrigramaNoDevuelvenResultados() {
+        IndiceNgramas indice = cargado();
+        assertTrue(indice.buscar("ma", 10, 0).isEmpty());
+        assertTrue(indice.buscar("  a ", 10, 0).isEmpty());
+    }
+
+    @Test
+    void ordenaPorBordeDePalabraYLuegoPorIdDescendente() {
+        IndiceNgramas indice = cargado();
+        // "software": carrera completa en 1 y 3 (inicio y fin de palabra), dentro de "Softwareing" en 2
+        assertEquals(List.of(3L, 1L, 2L), ids(indice.buscar("software", 10, 0)));
+        assertEquals(List.of(1L, 2L), ids(indice.buscar("software", 2, 1)));
+    }
+
+    @Test
+    void lasActualizacionesSeReflejanEnLaBusqueda() {
+        IndiceNgramas indice = cargado();
+
+        Estudiante cambiado = estudiante(1L, "1712345678", "Lucía", "Andrade", "Redes");
+        indice.guardar(cambiado);
+        assertTrue(indice.buscar("maria", 10, 0).isEmpty());
+        assertEquals(List.of(1L), ids(indice.buscar("lucia", 10, 0)));
+
+        indice.eliminar(2L);
+        assertTrue(indice.buscar("nunez", 10, 0).isEmpty());
+        assertEquals(2, indice.getDocumentos());
+
+        indice.cambiarEstado(3L, false);
+        assertFalse(indice.buscar("pedro", 10, 0).get(0).getActivo());
+    }
+
+    @Test
+    void devuelveCopias() {
+        IndiceNgramas indice = cargado();
+        Estudiante primero = indice.buscar("maria", 10, 0).get(0);
+        primero.setNombres("otro");
+        assertNotSame(primero, indice.buscar("maria", 10, 0).get(0));
+        assertEquals("María", indice.buscar("maria", 10, 0).get(0).getNombres());
+    }
+
+    private static IndiceNgramas cargado() {
+        IndiceNgramas indice = new IndiceNgramas();
+        // Carga desordenada: finalizarCarga() ordena las listas
+        indice.agregarEnCarga(estudiante(3L, "1710034065", "Pedro", "Gómez", "Software"));
+        indice.agregarEnCarga(estudiante(1L, "1712345678", "María", "Andrade", "Software"));
+        indice.agregarEnCarga(estudiante(2L, "0912345678", "José", "Núñez", "Softwareing"));
+        indice.finalizarCarga();
+        return indice;
+    }
+
+    private static Estudiante estudiante(long id, String cedula, String nombres, String apellidos, String carrera) {
+        Estudiante estudiante = new Estudiante(id, cedula, nombres, apellidos,
+                nombres.toLowerCase() + "@istq.edu.ec", null, carrera, 1);
+        estudiante.setActivo(true);
+        return estudiante;
+    }
+
+    private static List<Long> ids(List<Estudiante> estudiantes) {
+        return estudiantes.stream().map(Estudiante::getId).toList();
+    }
+}
@@ -0,0 +1,47 @@
+package ec.edu.istq.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CursorCodecTest {
+
+    @Test
+    void decodificaLoQueCodifica() {
+        for (long id : new long[]{0, 1, 42, 1_000_000, Long.MAX_VALUE}) {
+            assertEquals(id, CursorCodec.decodificar(CursorCodec.codificar(id)));
+        }
+    }
+
+    @Test
+    void elCursorEsSeguroEnUrl() {
+        String cursor = CursorCodec.codificar(Long.MAX_VALUE);
+        assertFalse(cursor.contains("+") || cursor.contains("/") || cursor.contains("="));
+    }
+
+    @Test
+    void rechazaBase64Invalido() {
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decodificar("no es base64!"));
+    }
+
+    @Test
+    void rechazaCursoresSinElPrefijoDeVersion() {
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decodificar(base64("42")));
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decodificar(base64("v2:42")));
+    }
+
+    @Test
+    void rechazaIdsNoNumericos() {
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decodificar(base64("v1:abc")));
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decodificar(base64("v1:")));
+    }
+
+    private static String base64(String texto) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+}
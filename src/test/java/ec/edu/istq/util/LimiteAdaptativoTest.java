@@ -0,0 +1,109 @@
+package ec.edu.istq.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LimiteAdaptativoTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void admiteHastaElLimiteYRechazaSinCola() {
+        LimiteAdaptativo limite = new LimiteAdaptativo("prueba", 2, 1, 10, 0, 10);
+        assertTrue(limite.adquirir());
+        assertTrue(limite.adquirir());
+        assertFalse(limite.adquirir());
+
+        limite.liberar();
+        assertTrue(limite.adquirir());
+        assertEquals(3L, limite.getEstadisticas().get("aceptadas"));
+        assertEquals(1L, limite.getEstadisticas().get("rechazadas"));
+    }
+
+    @Test
+    void laEsperaEnColaVence() {
+        LimiteAdaptativo limite = new LimiteAdaptativo("prueba", 1, 1, 10, 5, 20);
+        assertTrue(limite.adquirir());
+
+        long inicio = System.nanoTime();
+        assertFalse(limite.adquirir());
+        assertTrue(System.nanoTime() - inicio >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertEquals(1L, limite.getEstadisticas().get("encoladas"));
+        assertEquals(0, limite.getEstadisticas().get("enCola"));
+    }
+
+    @Test
+    void unaOperacionEnColaEntraAlLiberarse() throws Exception {
+        LimiteAdaptativo limite = new LimiteAdaptativo("prueba", 1, 1, 10, 5, 5_000);
+        assertTrue(limite.adquirir());
+
+        CompletableFuture<Boolean> enCola = CompletableFuture.supplyAsync(limite::adquirir);
+        while ((int) limite.getEstadisticas().get("enCola") == 0) {
+            Thread.sleep(1);
+        }
+        limite.liberar();
+
+        assertTrue(enCola.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void conLatenciaEstableElLimiteCreceHastaElMaximo() {
+        LimiteAdaptativo limite = new LimiteAdaptativo("prueba", 10, 5, 50, 0, 10);
+        muestras(limite, "consulta", 2 * MS, 2_000);
+        assertEquals(50, limite.getEstadisticas().get("limite"));
+    }
+
+    @Test
+    void conLatenciaCrecienteElLimiteBajaSinPasarDelMinimo() {
+        LimiteAdaptativo limite = new LimiteAdaptativo("prueba", 40, 5, 50, 0, 10);
+        muestras(limite, "consulta", 2 * MS, 50);
+        // La base de datos se degrada: diez veces la latencia normal (dentro de la misma ventana
+        // de 500 muestras; al cerrarla, la base se vuelve a aprender)
+        muestras(limite, "consulta", 20 * MS, 400);
+        assertEquals(5, limite.getEstadisticas().get("limite"));
+    }
+
+    @Test
+    void operacionesLentasPorNaturalezaNoReducenElLimite() {
+        LimiteAdaptativo limite = new LimiteAdaptativo("prueba", 20, 5, 100, 0, 10);
+        for (int i = 0; i < 200; i++) {
+            muestras(limite, "porId", MS, 5);
+            muestras(limite, "listado", 20 * MS, 5);
+        }
+        // Cada operación se compara con su propio mínimo: no hay "cola" que detectar
+        assertTrue((int) limite.getEstadisticas().get("limite") >= 20);
+    }
+
+    @Test
+    void conPocoUsoElLimiteNoCrece() {
+        LimiteAdaptativo limite = new LimiteAdaptativo("prueba", 20, 5, 100, 0, 10);
+        for (int i = 0; i < 500; i++) {
+            assertTrue(limite.adquirir());
+            limite.liberar("consulta", 2 * MS);
+        }
+        assertEquals(20, limite.getEstadisticas().get("limite"));
+    }
+
+    /**
+     * Mantiene el límite ocupado y libera una operación por muestra (así el uso alcanza para crecer)
+     */
+    private static void muestras(LimiteAdaptativo limite, String operacion, long rttNanos, int cantidad) {
+        int ocupados = 0;
+        for (int i = 0; i < cantidad; i++) {
+            while (limite.adquirir()) {
+                ocupados++;
+            }
+            limite.liberar(operacion, rttNanos);
+            ocupados--;
+        }
+        for (; ocupados > 0; ocupados--) {
+            limite.liberar();
+        }
+    }
+}